@@ -12,7 +12,7 @@ import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -26,6 +26,9 @@ public class BatchConfiguration {
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
 
+    @Value("${app.batch.chunk-size:5}")
+    private int chunkSize;
+
     @Bean
     public Job transcriptionJob(Step transcriptionStep) {
         return new JobBuilder("transcriptionJob", jobRepository)
@@ -49,33 +52,22 @@ public class BatchConfiguration {
     public Step transcriptionStep(
             ItemReader<MediaFile> mediaFileReader,
             ItemProcessor<MediaFile, TranscriptionResult> transcriptionProcessor,
-            ItemWriter<TranscriptionResult> transcriptionWriter) {
+            BatchProgressListener batchProgressListener) {
 
         return new StepBuilder("transcriptionStep", jobRepository)
-                .<MediaFile, TranscriptionResult>chunk(5, transactionManager)
+                .<MediaFile, TranscriptionResult>chunk(chunkSize, transactionManager)
                 .reader(mediaFileReader)
                 .processor(transcriptionProcessor)
-                .writer(transcriptionWriter)
+                // The pipeline's publish stage has already cached and announced each result
+                .writer(chunk -> log.info("Completed chunk of {} transcriptions", chunk.size()))
                 .faultTolerant()
                 .retryLimit(3)
                 .retry(Exception.class)
                 .skipLimit(10)
                 .skip(Exception.class)
-                .listener(new StepExecutionListener() {
-                    @Override
-                    public void beforeStep(StepExecution stepExecution) {
-                        log.info("Starting transcription step");
-                    }
-
-                    @Override
-                    public ExitStatus afterStep(StepExecution stepExecution) {
-                        log.info("Transcription step completed. Read: {}, Written: {}, Skipped: {}",
-                                stepExecution.getReadCount(),
-                                stepExecution.getWriteCount(),
-                                stepExecution.getSkipCount());
-                        return stepExecution.getExitStatus();
-                    }
-                })
+                .listener((StepExecutionListener) batchProgressListener)
+                .listener((ChunkListener) batchProgressListener)
+                .listener((ItemProcessListener<MediaFile, TranscriptionResult>) batchProgressListener)
                 .build();
     }
 }
@@ -0,0 +1,234 @@
+package com.ahmedaziz.mediatranscriptionplatform.batch;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.dto.BatchProgressResponse;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks live progress of the transcription step: throughput over a sliding
+ * window of recently processed items, p95 item latency, and the remaining
+ * UPLOADED backlog with an ETA derived from both. The same figures are
+ * exported as Micrometer gauges.
+ * <p>
+ * Throughput is measured from the oldest completion in the window up to now,
+ * so it falls while the drain stalls, and {@code transcription.batch.idle}
+ * reports how long ago the last item finished. Outside a running step the
+ * throughput is zero and there is no ETA.
+ */
+@Component
+@Slf4j
+public class BatchProgressListener implements StepExecutionListener, ChunkListener,
+        ItemProcessListener<MediaFile, TranscriptionResult> {
+
+    private static final int WINDOW_SIZE = 50;
+
+    private final MediaFileRepository mediaFileRepository;
+
+    private final ThreadLocal<Long> itemStart = new ThreadLocal<>();
+    private final Deque<Long> completionTimes = new ArrayDeque<>(WINDOW_SIZE);
+    private final Deque<Long> itemLatencies = new ArrayDeque<>(WINDOW_SIZE);
+
+    private volatile StepExecution currentStep;
+    private volatile long remainingUploaded;
+    private volatile LocalDateTime lastItemAt;
+    private volatile Long lastItemNanos;
+
+    // System.nanoTime, replaced in tests
+    private LongSupplier nanoClock = System::nanoTime;
+
+    public BatchProgressListener(MediaFileRepository mediaFileRepository, MeterRegistry meterRegistry) {
+        this.mediaFileRepository = mediaFileRepository;
+
+        Gauge.builder("transcription.batch.throughput", this, listener -> listener.itemsPerSecond(listener.now()))
+                .description("Moving-average items per second of the running batch step")
+                .register(meterRegistry);
+        Gauge.builder("transcription.batch.idle", this, listener -> {
+                    Long last = listener.lastItemNanos;
+                    return last != null ? (listener.now() - last) / 1_000_000_000.0 : Double.NaN;
+                })
+                .description("Seconds since the batch step last finished an item")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("transcription.batch.item.latency.p95", this, BatchProgressListener::p95LatencyMs)
+                .description("p95 item processing latency over the recent window")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("transcription.batch.remaining", this, listener -> listener.remainingUploaded)
+                .description("Media files still in UPLOADED status")
+                .register(meterRegistry);
+        Gauge.builder("transcription.batch.eta", this, listener -> {
+                    Long eta = listener.etaSeconds(listener.now());
+                    return eta != null ? eta : Double.NaN;
+                })
+                .description("Estimated seconds until the UPLOADED backlog is drained")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        log.info("Starting transcription step");
+        synchronized (this) {
+            completionTimes.clear();
+            itemLatencies.clear();
+        }
+        lastItemAt = null;
+        lastItemNanos = null;
+        currentStep = stepExecution;
+        refreshRemaining();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        log.info("Transcription step completed. Read: {}, Written: {}, Skipped: {}",
+                stepExecution.getReadCount(),
+                stepExecution.getWriteCount(),
+                stepExecution.getSkipCount());
+        refreshRemaining();
+        synchronized (this) {
+            completionTimes.clear();
+        }
+        currentStep = null;
+        return stepExecution.getExitStatus();
+    }
+
+    @Override
+    public void beforeProcess(MediaFile item) {
+        itemStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterProcess(MediaFile item, TranscriptionResult result) {
+        recordItem();
+    }
+
+    @Override
+    public void onProcessError(MediaFile item, Exception e) {
+        recordItem();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        refreshRemaining();
+    }
+
+    public boolean isRunning() {
+        return currentStep != null;
+    }
+
+    public BatchProgressResponse snapshot() {
+        return snapshot(now());
+    }
+
+    BatchProgressResponse snapshot(long now) {
+        StepExecution step = currentStep;
+        return BatchProgressResponse.builder()
+                .running(step != null)
+                .jobExecutionId(step != null ? step.getJobExecutionId() : null)
+                .readCount(step != null ? step.getReadCount() : 0)
+                .writeCount(step != null ? step.getWriteCount() : 0)
+                .skipCount(step != null ? step.getSkipCount() : 0)
+                .itemsPerSecond(itemsPerSecond(now))
+                .p95ItemLatencyMs(p95LatencyMs())
+                .remainingUploaded(remainingUploaded)
+                .etaSeconds(etaSeconds(now))
+                .startedAt(step != null ? step.getStartTime() : null)
+                .lastItemAt(lastItemAt)
+                .build();
+    }
+
+    private void recordItem() {
+        Long start = itemStart.get();
+        itemStart.remove();
+        recordItem(start, now());
+    }
+
+    // Timestamps are System.nanoTime values; start is null when beforeProcess never ran for the item
+    void recordItem(Long start, long now) {
+        synchronized (this) {
+            if (completionTimes.size() == WINDOW_SIZE) {
+                completionTimes.removeFirst();
+            }
+            completionTimes.addLast(now);
+
+            if (start != null) {
+                if (itemLatencies.size() == WINDOW_SIZE) {
+                    itemLatencies.removeFirst();
+                }
+                itemLatencies.addLast(now - start);
+            }
+        }
+        lastItemAt = LocalDateTime.now();
+        lastItemNanos = now;
+    }
+
+    private long now() {
+        return nanoClock.getAsLong();
+    }
+
+    private void refreshRemaining() {
+        try {
+            Long count = mediaFileRepository.countByStatus(MediaFile.ProcessingStatus.UPLOADED);
+            remainingUploaded = count != null ? count : 0L;
+        } catch (Exception e) {
+            log.warn("Failed to refresh remaining UPLOADED count: {}", e.getMessage());
+        }
+    }
+
+    // Up to now rather than the last completion, so a stalled drain shows a falling rate
+    private synchronized double itemsPerSecond(long now) {
+        if (completionTimes.size() < 2) {
+            return 0.0;
+        }
+        long spanNanos = Math.max(now, completionTimes.getLast()) - completionTimes.getFirst();
+        if (spanNanos <= 0) {
+            return 0.0;
+        }
+        return (completionTimes.size() - 1) * 1_000_000_000.0 / spanNanos;
+    }
+
+    private synchronized double p95LatencyMs() {
+        if (itemLatencies.isEmpty()) {
+            return 0.0;
+        }
+        long[] sorted = itemLatencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(0.95 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private Long etaSeconds(long now) {
+        long remaining = remainingUploaded;
+        if (remaining == 0) {
+            return 0L;
+        }
+        if (currentStep == null) {
+            // Nothing is draining the backlog
+            return null;
+        }
+        double rate = itemsPerSecond(now);
+        if (rate > 0) {
+            return (long) Math.ceil(remaining / rate);
+        }
+        // Not enough completions yet for a rate; fall back to p95 latency per item
+        double p95 = p95LatencyMs();
+        return p95 > 0 ? (long) Math.ceil(remaining * p95 / 1000.0) : null;
+    }
+}
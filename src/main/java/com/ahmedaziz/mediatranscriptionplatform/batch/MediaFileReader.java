@@ -4,6 +4,7 @@ import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
 import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.stereotype.Component;
 
@@ -11,6 +12,7 @@ import java.util.Iterator;
 import java.util.List;
 
 @Component
+@StepScope
 @RequiredArgsConstructor
 @Slf4j
 public class MediaFileReader implements ItemReader<MediaFile> {
@@ -2,56 +2,54 @@ package com.ahmedaziz.mediatranscriptionplatform.batch;
 
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.pipeline.TranscriptionPipeline;
 import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
-import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionService;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaStatusService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
+/**
+ * Runs each UPLOADED file through the transcription pipeline and waits for it. The result is
+ * already cached and its completion event published when this returns.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TranscriptionProcessor implements ItemProcessor<MediaFile, TranscriptionResult> {
 
-    private final TranscriptionService transcriptionService;
+    private final TranscriptionPipeline transcriptionPipeline;
     private final MediaFileRepository mediaFileRepository;
+    private final MediaStatusService mediaStatusService;
 
     @Override
     public TranscriptionResult process(MediaFile mediaFile) throws Exception {
         log.info("Processing media file ID: {} - {}", mediaFile.getId(), mediaFile.getOriginalFilename());
 
         try {
-            // Update status to PROCESSING
-            mediaFile.setStatus(MediaFile.ProcessingStatus.PROCESSING);
-            mediaFile.setProcessingStartedAt(LocalDateTime.now());
-            mediaFileRepository.save(mediaFile);
-
-            // Perform transcription
-            TranscriptionResult result = transcriptionService.transcribe(mediaFile);
-
-            // Update media file status
-            mediaFile.setStatus(MediaFile.ProcessingStatus.COMPLETED);
-            mediaFile.setCompletedAt(LocalDateTime.now());
-            mediaFile.setErrorMessage(null);
-            mediaFileRepository.save(mediaFile);
-
-            log.info("Successfully processed media file ID: {}", mediaFile.getId());
+            // Null if another worker has already claimed the file, which filters it from the chunk
+            TranscriptionResult result = transcriptionPipeline.submit(mediaFile.getId(),
+                    List.of(MediaFile.ProcessingStatus.UPLOADED)).get();
+            if (result != null) {
+                log.info("Successfully processed media file ID: {}", mediaFile.getId());
+            }
             return result;
 
-        } catch (Exception e) {
-            log.error("Error processing media file ID: {}", mediaFile.getId(), e);
+        } catch (ExecutionException e) {
+            Exception cause = e.getCause() instanceof Exception exception ? exception : e;
+            log.error("Error processing media file ID: {}", mediaFile.getId(), cause);
 
             // Update media file with error
-            mediaFile.setStatus(MediaFile.ProcessingStatus.FAILED);
-            mediaFile.setErrorMessage(e.getMessage());
-            mediaFile.setCompletedAt(LocalDateTime.now());
-            mediaFile.setRetryCount(mediaFile.getRetryCount() + 1);
-            mediaFileRepository.save(mediaFile);
+            if (mediaFileRepository.markFailed(mediaFile.getId(), cause.getMessage(), LocalDateTime.now()) > 0) {
+                mediaStatusService.onTransition(mediaFile.getId());
+            }
 
-            throw e; // Re-throw to let batch framework handle retry/skip
+            throw cause; // Re-throw to let batch framework handle retry/skip
         }
     }
 }
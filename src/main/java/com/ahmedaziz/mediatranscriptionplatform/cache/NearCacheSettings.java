@@ -0,0 +1,21 @@
+package com.ahmedaziz.mediatranscriptionplatform.cache;
+
+import java.time.Duration;
+
+/**
+ * Tuning for {@link TwoTierCacheManager}.
+ *
+ * @param maxWeightBytes   L1 bound, in estimated bytes of cached values
+ * @param localTtl         longest time an entry stays in L1 without being reloaded from Redis
+ * @param earlyRefreshBeta XFetch aggressiveness; {@code 0} disables early refresh
+ * @param distributedLock  whether a miss also takes a short Redis lock so only one node loads
+ * @param lockTtl          expiry of that lock, in case its holder dies
+ * @param lockWait         how long other nodes wait for the holder's value before loading themselves
+ */
+public record NearCacheSettings(long maxWeightBytes,
+                                Duration localTtl,
+                                double earlyRefreshBeta,
+                                boolean distributedLock,
+                                Duration lockTtl,
+                                Duration lockWait) {
+}
@@ -0,0 +1,274 @@
+package com.ahmedaziz.mediatranscriptionplatform.cache;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.github.luben.zstd.Zstd;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary layout for cached {@link TranscriptionResult}s:
+ * <pre>
+ * magic(1) version(1) codec(1) [uncompressed length(4) if codec != NONE] body
+ * </pre>
+ * The body holds a bitmask of the non-null fields followed by those fields in declaration order.
+ * Bodies at or above the compression threshold are compressed when that makes them smaller.
+ * Payloads from the previous JSON serializer and from unknown versions still decode, or read as
+ * a cache miss, so a rolling deploy never fails a lookup.
+ */
+@Slf4j
+public class TranscriptionResultRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 1;
+
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+    private static final int ZSTD_LEVEL = 3;
+
+    private static final int ID = 1;
+    private static final int MEDIA_FILE_ID = 1 << 1;
+    private static final int TRANSCRIPT = 1 << 2;
+    private static final int STORAGE_TIER = 1 << 3;
+    private static final int TRANSCRIPT_COMPRESSED = 1 << 4;
+    private static final int TRANSCRIPT_OBJECT_KEY = 1 << 5;
+    private static final int TRANSCRIPT_SIZE_BYTES = 1 << 6;
+    private static final int LANGUAGE = 1 << 7;
+    private static final int CONFIDENCE = 1 << 8;
+    private static final int WORD_COUNT = 1 << 9;
+    private static final int PROCESSING_TIME_MS = 1 << 10;
+    private static final int COMPLETED_AT = 1 << 11;
+
+    private final Codec codec;
+    private final int compressionThresholdBytes;
+    private final RedisSerializer<Object> legacySerializer;
+
+    public TranscriptionResultRedisSerializer(Codec codec, int compressionThresholdBytes,
+                                              RedisSerializer<Object> legacySerializer) {
+        this.codec = codec;
+        this.compressionThresholdBytes = compressionThresholdBytes;
+        this.legacySerializer = legacySerializer;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof TranscriptionResult result)) {
+            throw new SerializationException("Cannot serialize " + value.getClass().getName()
+                    + "; only TranscriptionResult is supported");
+        }
+
+        byte[] body = writeBody(result);
+        if (codec == Codec.NONE || body.length < compressionThresholdBytes) {
+            return frame(Codec.NONE, body, body.length);
+        }
+
+        byte[] compressed = codec.compress(body);
+        return compressed.length < body.length
+                ? frame(codec, compressed, body.length)
+                : frame(Codec.NONE, body, body.length);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacySerializer.deserialize(bytes);
+        }
+        if (bytes.length < 3 || bytes[1] != VERSION) {
+            log.debug("Ignoring cached transcription with unsupported format version {}",
+                    bytes.length > 1 ? bytes[1] : "?");
+            return null;
+        }
+
+        Codec payloadCodec = Codec.fromId(bytes[2]);
+        if (payloadCodec == null) {
+            log.debug("Ignoring cached transcription with unknown codec {}", bytes[2]);
+            return null;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 3, bytes.length - 3);
+            byte[] body;
+            if (payloadCodec == Codec.NONE) {
+                body = new byte[buffer.remaining()];
+                buffer.get(body);
+            } else {
+                int length = buffer.getInt();
+                byte[] compressed = new byte[buffer.remaining()];
+                buffer.get(compressed);
+                body = payloadCodec.decompress(compressed, length);
+            }
+            return readBody(body);
+        } catch (Exception e) {
+            throw new SerializationException("Could not decode cached transcription", e);
+        }
+    }
+
+    private static byte[] frame(Codec payloadCodec, byte[] payload, int uncompressedLength) {
+        boolean compressed = payloadCodec != Codec.NONE;
+        ByteBuffer buffer = ByteBuffer.allocate(3 + (compressed ? 4 : 0) + payload.length);
+        buffer.put(MAGIC).put(VERSION).put(payloadCodec.id);
+        if (compressed) {
+            buffer.putInt(uncompressedLength);
+        }
+        return buffer.put(payload).array();
+    }
+
+    static byte[] writeBody(TranscriptionResult result) {
+        int fields = 0;
+        fields |= result.getId() != null ? ID : 0;
+        fields |= result.getMediaFileId() != null ? MEDIA_FILE_ID : 0;
+        fields |= result.getTranscript() != null ? TRANSCRIPT : 0;
+        fields |= result.getStorageTier() != null ? STORAGE_TIER : 0;
+        fields |= result.getTranscriptCompressed() != null ? TRANSCRIPT_COMPRESSED : 0;
+        fields |= result.getTranscriptObjectKey() != null ? TRANSCRIPT_OBJECT_KEY : 0;
+        fields |= result.getTranscriptSizeBytes() != null ? TRANSCRIPT_SIZE_BYTES : 0;
+        fields |= result.getLanguage() != null ? LANGUAGE : 0;
+        fields |= result.getConfidence() != null ? CONFIDENCE : 0;
+        fields |= result.getWordCount() != null ? WORD_COUNT : 0;
+        fields |= result.getProcessingTimeMs() != null ? PROCESSING_TIME_MS : 0;
+        fields |= result.getCompletedAt() != null ? COMPLETED_AT : 0;
+
+        int estimate = 64 + (result.getTranscript() != null ? result.getTranscript().length() : 0)
+                + (result.getTranscriptCompressed() != null ? result.getTranscriptCompressed().length : 0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(estimate);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(fields);
+            if (result.getId() != null) out.writeLong(result.getId());
+            if (result.getMediaFileId() != null) out.writeLong(result.getMediaFileId());
+            if (result.getTranscript() != null) writeString(out, result.getTranscript());
+            if (result.getStorageTier() != null) out.writeUTF(result.getStorageTier().name());
+            if (result.getTranscriptCompressed() != null) writeBytes(out, result.getTranscriptCompressed());
+            if (result.getTranscriptObjectKey() != null) writeString(out, result.getTranscriptObjectKey());
+            if (result.getTranscriptSizeBytes() != null) out.writeInt(result.getTranscriptSizeBytes());
+            if (result.getLanguage() != null) writeString(out, result.getLanguage());
+            if (result.getConfidence() != null) out.writeDouble(result.getConfidence());
+            if (result.getWordCount() != null) out.writeInt(result.getWordCount());
+            if (result.getProcessingTimeMs() != null) out.writeLong(result.getProcessingTimeMs());
+            if (result.getCompletedAt() != null) {
+                out.writeLong(result.getCompletedAt().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(result.getCompletedAt().getNano());
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode transcription " + result.getId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static TranscriptionResult readBody(byte[] body) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            int fields = in.readUnsignedShort();
+            TranscriptionResult result = new TranscriptionResult();
+            if ((fields & ID) != 0) result.setId(in.readLong());
+            if ((fields & MEDIA_FILE_ID) != 0) result.setMediaFileId(in.readLong());
+            if ((fields & TRANSCRIPT) != 0) result.setTranscript(readString(in));
+            if ((fields & STORAGE_TIER) != 0) result.setStorageTier(TranscriptionResult.StorageTier.valueOf(in.readUTF()));
+            if ((fields & TRANSCRIPT_COMPRESSED) != 0) result.setTranscriptCompressed(readBytes(in));
+            if ((fields & TRANSCRIPT_OBJECT_KEY) != 0) result.setTranscriptObjectKey(readString(in));
+            if ((fields & TRANSCRIPT_SIZE_BYTES) != 0) result.setTranscriptSizeBytes(in.readInt());
+            if ((fields & LANGUAGE) != 0) result.setLanguage(readString(in));
+            if ((fields & CONFIDENCE) != 0) result.setConfidence(in.readDouble());
+            if ((fields & WORD_COUNT) != 0) result.setWordCount(in.readInt());
+            if ((fields & PROCESSING_TIME_MS) != 0) result.setProcessingTimeMs(in.readLong());
+            if ((fields & COMPLETED_AT) != 0) {
+                result.setCompletedAt(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+            }
+            return result;
+        }
+    }
+
+    // writeUTF is capped at 64 KB, so long strings get an int length prefix instead
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+        return value;
+    }
+
+    public enum Codec {
+        NONE((byte) 0) {
+            @Override
+            byte[] compress(byte[] body) {
+                return body;
+            }
+
+            @Override
+            byte[] decompress(byte[] payload, int length) {
+                return payload;
+            }
+        },
+        LZ4((byte) 1) {
+            private final LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+            private final LZ4FastDecompressor decompressor = LZ4_FACTORY.fastDecompressor();
+
+            @Override
+            byte[] compress(byte[] body) {
+                return compressor.compress(body);
+            }
+
+            @Override
+            byte[] decompress(byte[] payload, int length) {
+                return decompressor.decompress(payload, length);
+            }
+        },
+        ZSTD((byte) 2) {
+            @Override
+            byte[] compress(byte[] body) {
+                return Zstd.compress(body, ZSTD_LEVEL);
+            }
+
+            @Override
+            byte[] decompress(byte[] payload, int length) {
+                return Zstd.decompress(payload, length);
+            }
+        };
+
+        private final byte id;
+
+        Codec(byte id) {
+            this.id = id;
+        }
+
+        abstract byte[] compress(byte[] body);
+
+        abstract byte[] decompress(byte[] payload, int length);
+
+        static Codec fromId(byte id) {
+            for (Codec codec : values()) {
+                if (codec.id == id) {
+                    return codec;
+                }
+            }
+            return null;
+        }
+    }
+}
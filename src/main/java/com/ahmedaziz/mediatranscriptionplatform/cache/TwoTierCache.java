@@ -0,0 +1,398 @@
+package com.ahmedaziz.mediatranscriptionplatform.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-heap L1 in front of a {@link RedisCache} L2. Reads fill L1 from L2; every write or
+ * eviction goes to both tiers and is broadcast so other nodes drop their L1 copy. Values
+ * loaded on a miss or refreshed early are not broadcast, since other nodes' copies of the
+ * same result are still valid.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} (i.e. {@code @Cacheable(sync = true)}) are
+ * single-flight: concurrent misses for a key on this node share one loader call, and with
+ * the distributed lock enabled other nodes wait briefly for its result in Redis. Entries
+ * close to their Redis expiry are reloaded in the background with probability rising as
+ * expiry nears (XFetch), so hot keys never expire under load.
+ */
+@Slf4j
+public class TwoTierCache implements Cache {
+
+    private static final DefaultRedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final long LOCK_POLL_MILLIS = 25;
+    private static final long INITIAL_LOAD_ESTIMATE_MILLIS = 50;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> localCache;
+    private final RedisCache redisCache;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final NearCacheSettings settings;
+    private final Executor refreshExecutor;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+    private final Counter loads;
+    private final Counter coalescedLoads;
+    private final Counter remoteWaits;
+    private final Counter earlyRefreshes;
+
+    // Smoothed loader duration, the "delta" in XFetch for entries this node did not load itself
+    private volatile long loadMillisEstimate = INITIAL_LOAD_ESTIMATE_MILLIS;
+
+    TwoTierCache(String name,
+                 RedisCache redisCache,
+                 StringRedisTemplate redisTemplate,
+                 CacheInvalidationPublisher invalidationPublisher,
+                 NearCacheSettings settings,
+                 Executor refreshExecutor,
+                 MeterRegistry meterRegistry) {
+        this.name = name;
+        this.redisCache = redisCache;
+        this.redisTemplate = redisTemplate;
+        this.invalidationPublisher = invalidationPublisher;
+        this.settings = settings;
+        this.refreshExecutor = refreshExecutor;
+        this.localCache = Caffeine.newBuilder()
+                .maximumWeight(settings.maxWeightBytes())
+                .weigher((String key, LocalEntry entry) -> TwoTierCacheManager.estimateBytes(entry.value()))
+                .expireAfter(Expiry.writing((String key, LocalEntry entry) -> entry.localTtl(settings.localTtl())))
+                .recordStats()
+                .build();
+
+        this.l1Hits = requests(meterRegistry, "l1", "hit");
+        this.l2Hits = requests(meterRegistry, "l2", "hit");
+        this.misses = requests(meterRegistry, "l2", "miss");
+        this.loads = loads(meterRegistry, "loaded");
+        this.coalescedLoads = loads(meterRegistry, "coalesced");
+        this.remoteWaits = loads(meterRegistry, "remote");
+        this.earlyRefreshes = Counter.builder("cache.near.early.refresh")
+                .description("Background reloads started before the Redis entry expired")
+                .tag("cache", name)
+                .register(meterRegistry);
+
+        Gauge.builder("cache.near.hit.ratio", () -> ratio(l1Hits.count(), l2Hits.count() + misses.count()))
+                .description("Share of lookups answered from the in-heap tier")
+                .tags("cache", name, "tier", "l1")
+                .register(meterRegistry);
+        Gauge.builder("cache.near.hit.ratio", () -> ratio(l2Hits.count(), misses.count()))
+                .description("Share of L1 misses answered from Redis")
+                .tags("cache", name, "tier", "l2")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    public RedisCache getRedisCache() {
+        return redisCache;
+    }
+
+    com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> getLocalCache() {
+        return localCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        LocalEntry entry = lookup(key, false);
+        return entry != null ? new SimpleValueWrapper(entry.value()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        LocalEntry entry = lookup(key, true);
+        if (entry != null) {
+            if (shouldRefreshEarly(entry)) {
+                refreshAsync(key, valueLoader);
+            }
+            return (T) entry.value();
+        }
+        return (T) load(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        if (value != null) {
+            localCache.put(key.toString(), new LocalEntry(value, expiresAt(key, value), loadMillisEstimate));
+        }
+        invalidationPublisher.publish(name, key.toString());
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        localCache.invalidate(key.toString());
+        invalidationPublisher.publish(name, key.toString());
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        invalidationPublisher.publish(name, null);
+    }
+
+    /**
+     * Drops L1 copies here and on other nodes after L2 was written around this cache.
+     */
+    public void invalidateNearCaches(Collection<?> keys) {
+        for (Object key : keys) {
+            localCache.invalidate(key.toString());
+            invalidationPublisher.publish(name, key.toString());
+        }
+    }
+
+    // Applies an invalidation received from another node
+    void invalidateLocal(String key) {
+        if (key == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    // The Redis expiry is only looked up when it can drive an early refresh
+    private LocalEntry lookup(Object key, boolean needExpiry) {
+        String localKey = key.toString();
+        LocalEntry local = localCache.getIfPresent(localKey);
+        if (local != null) {
+            l1Hits.increment();
+            return local;
+        }
+
+        ValueWrapper remote = redisCache.get(key);
+        if (remote == null || remote.get() == null) {
+            misses.increment();
+            return null;
+        }
+
+        l2Hits.increment();
+        long expiresAt = needExpiry ? remoteExpiresAt(key) : Long.MAX_VALUE;
+        LocalEntry entry = new LocalEntry(remote.get(), expiresAt, loadMillisEstimate);
+        localCache.put(localKey, entry);
+        return entry;
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        String localKey = key.toString();
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(localKey, flight);
+        if (leader != null) {
+            coalescedLoads.increment();
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        try {
+            Object value = settings.distributedLock()
+                    ? loadUnderRedisLock(key, valueLoader)
+                    : loadAndStore(key, valueLoader);
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            Throwable cause = e instanceof ValueRetrievalException && e.getCause() != null ? e.getCause() : e;
+            flight.completeExceptionally(cause);
+            throw e instanceof ValueRetrievalException retrieval ? retrieval
+                    : new ValueRetrievalException(key, valueLoader, cause);
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    private Object loadUnderRedisLock(Object key, Callable<?> valueLoader) {
+        String lockKey = redisKey(key) + ":lock";
+        String token = UUID.randomUUID().toString();
+        boolean acquired = false;
+        try {
+            acquired = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, settings.lockTtl()));
+        } catch (Exception e) {
+            log.warn("Could not take load lock for {}::{}; loading without it: {}", name, key, e.getMessage());
+        }
+
+        if (!acquired) {
+            Object value = awaitRemoteLoad(key);
+            if (value != null) {
+                remoteWaits.increment();
+                return value;
+            }
+        }
+
+        try {
+            return loadAndStore(key, valueLoader);
+        } finally {
+            if (acquired) {
+                try {
+                    redisTemplate.execute(RELEASE_LOCK, List.of(lockKey), token);
+                } catch (Exception e) {
+                    log.debug("Could not release load lock {}; it expires on its own: {}", lockKey, e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Another node holds the lock: poll Redis for its value, then give up and load locally
+    private Object awaitRemoteLoad(Object key) {
+        long deadline = System.nanoTime() + settings.lockWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper remote = redisCache.get(key);
+            if (remote != null && remote.get() != null) {
+                localCache.put(key.toString(), new LocalEntry(remote.get(), remoteExpiresAt(key), loadMillisEstimate));
+                return remote.get();
+            }
+        }
+        return null;
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long loadMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        loadMillisEstimate = (loadMillisEstimate * 7 + loadMillis) / 8;
+        loads.increment();
+
+        if (value != null) {
+            redisCache.put(key, value);
+            localCache.put(key.toString(), new LocalEntry(value, expiresAt(key, value), loadMillis));
+        }
+        return value;
+    }
+
+    // XFetch (Vattani et al.): refresh when now - delta * beta * ln(rand) >= expiry
+    private boolean shouldRefreshEarly(LocalEntry entry) {
+        if (settings.earlyRefreshBeta() <= 0 || entry.expiresAtMillis() == Long.MAX_VALUE) {
+            return false;
+        }
+        double gap = entry.loadMillis() * settings.earlyRefreshBeta() * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() - gap >= entry.expiresAtMillis();
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        if (inFlight.containsKey(key.toString())) {
+            return;
+        }
+        earlyRefreshes.increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, valueLoader);
+                } catch (RuntimeException e) {
+                    log.debug("Early refresh of {}::{} failed: {}", name, key, e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.debug("Early refresh of {}::{} skipped: {}", name, key, e.getMessage());
+        }
+    }
+
+    private long expiresAt(Object key, Object value) {
+        Duration ttl = redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        return ttl == null || ttl.isZero() || ttl.isNegative()
+                ? Long.MAX_VALUE
+                : System.currentTimeMillis() + ttl.toMillis();
+    }
+
+    private long remoteExpiresAt(Object key) {
+        try {
+            Long remaining = redisTemplate.getExpire(redisKey(key), TimeUnit.MILLISECONDS);
+            return remaining == null || remaining < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + remaining;
+        } catch (Exception e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private String redisKey(Object key) {
+        return redisCache.getCacheConfiguration().getKeyPrefixFor(name) + key;
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.near.requests")
+                .tags("cache", name, "tier", tier, "result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter loads(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.near.loads")
+                .description("Cache misses by how they were resolved: own load, joined an in-flight load, or another node's load")
+                .tags("cache", name, "result", result)
+                .register(meterRegistry);
+    }
+
+    private static double ratio(double hits, double others) {
+        double total = hits + others;
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    /**
+     * An L1 value with the Redis expiry and load cost that drive early refresh.
+     */
+    record LocalEntry(Object value, long expiresAtMillis, long loadMillis) {
+
+        // Never outlive the Redis copy
+        Duration localTtl(Duration max) {
+            if (expiresAtMillis == Long.MAX_VALUE) {
+                return max;
+            }
+            long remaining = Math.max(0, expiresAtMillis - System.currentTimeMillis());
+            return remaining < max.toMillis() ? Duration.ofMillis(remaining) : max;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ahmedaziz.mediatranscriptionplatform.cache;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CacheManager} that wraps every cache of a {@link RedisCacheManager} in a {@link TwoTierCache}.
+ * Each cache gets its own L1, bounded by the estimated heap size of its entries rather than their count.
+ * Also listens for invalidations published by other nodes.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener, DisposableBean {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final RedisCacheManager redisCacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final NearCacheSettings settings;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(RedisCacheManager redisCacheManager,
+                               CacheInvalidationPublisher invalidationPublisher,
+                               StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               NearCacheSettings settings) {
+        this.redisCacheManager = redisCacheManager;
+        this.invalidationPublisher = invalidationPublisher;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.settings = settings;
+
+        // Early refresh is best-effort: when this pool is saturated the entry simply expires
+        AtomicInteger threads = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(256),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(invalidationPublisher.getNodeId())) {
+            return;
+        }
+
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private TwoTierCache createCache(String name) {
+        RedisCache redisCache = (RedisCache) redisCacheManager.getCache(name);
+        TwoTierCache cache = new TwoTierCache(name, redisCache, redisTemplate, invalidationPublisher,
+                settings, refreshExecutor, meterRegistry);
+
+        var localCache = cache.getLocalCache();
+        Gauge.builder("cache.near.l1.weight", localCache,
+                        l1 -> l1.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Estimated bytes held by the in-heap tier")
+                .baseUnit("bytes")
+                .tag("cache", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.near.l1.evictions", localCache, l1 -> l1.stats().evictionCount())
+                .tag("cache", name)
+                .register(meterRegistry);
+
+        log.info("Near cache '{}' enabled: L1 up to {} bytes, TTL {}, early refresh beta {}, distributed load lock {}",
+                name, settings.maxWeightBytes(), settings.localTtl(), settings.earlyRefreshBeta(),
+                settings.distributedLock());
+        return cache;
+    }
+
+    static int estimateBytes(Object value) {
+        if (value instanceof TranscriptionResult result) {
+            long bytes = ENTRY_OVERHEAD_BYTES;
+            if (result.getTranscript() != null) {
+                bytes += result.getTranscript().length();
+            }
+            if (result.getTranscriptCompressed() != null) {
+                bytes += result.getTranscriptCompressed().length;
+            }
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+        return ENTRY_OVERHEAD_BYTES;
+    }
+}
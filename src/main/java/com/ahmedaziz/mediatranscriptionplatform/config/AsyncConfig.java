@@ -1,28 +0,0 @@
-package com.ahmedaziz.mediatranscriptionplatform.config;
-
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-import java.util.concurrent.Executor;
-
-@Configuration
-@EnableAsync
-@Slf4j
-public class AsyncConfig {
-
-    @Bean(name = "transcriptionExecutor")
-    public Executor transcriptionExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("transcription-");
-        executor.setRejectedExecutionHandler((r, e) ->
-                log.warn("Transcription task rejected. Queue is full."));
-        executor.initialize();
-        return executor;
-    }
-}
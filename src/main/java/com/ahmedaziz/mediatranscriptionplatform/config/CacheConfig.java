@@ -1,17 +1,26 @@
 package com.ahmedaziz.mediatranscriptionplatform.config;
 
+import com.ahmedaziz.mediatranscriptionplatform.cache.CacheInvalidationPublisher;
+import com.ahmedaziz.mediatranscriptionplatform.cache.NearCacheSettings;
+import com.ahmedaziz.mediatranscriptionplatform.cache.TranscriptionResultRedisSerializer;
+import com.ahmedaziz.mediatranscriptionplatform.cache.TwoTierCacheManager;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -25,6 +34,36 @@ public class CacheConfig {
     @Value("${app.cache.ttl}")
     private long cacheTtl;
 
+    @Value("${app.cache.l1.enabled:true}")
+    private boolean l1Enabled;
+
+    @Value("${app.cache.l1.max-weight-bytes:67108864}")
+    private long l1MaxWeightBytes;
+
+    @Value("${app.cache.l1.ttl:600}")
+    private long l1Ttl;
+
+    @Value("${app.cache.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${app.cache.load-lock.enabled:false}")
+    private boolean loadLockEnabled;
+
+    @Value("${app.cache.load-lock.ttl-ms:5000}")
+    private long loadLockTtlMs;
+
+    @Value("${app.cache.load-lock.wait-ms:2000}")
+    private long loadLockWaitMs;
+
+    @Value("${app.cache.serializer.compression:lz4}")
+    private String compression;
+
+    @Value("${app.cache.serializer.compression-threshold-bytes:1024}")
+    private int compressionThresholdBytes;
+
+    @Value("${app.cache.invalidation-channel:cache-invalidation}")
+    private String invalidationChannel;
+
     @Bean(name = "redisObjectMapper")
     public ObjectMapper redisObjectMapper() {
         ObjectMapper mapper = new ObjectMapper();
@@ -44,7 +83,37 @@ public class CacheConfig {
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationPublisher(stringRedisTemplate, invalidationChannel);
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     CacheInvalidationPublisher cacheInvalidationPublisher,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     MeterRegistry meterRegistry) {
+        RedisCacheManager redisCacheManager = redisCacheManager(connectionFactory);
+        if (!l1Enabled) {
+            return redisCacheManager;
+        }
+        NearCacheSettings settings = new NearCacheSettings(l1MaxWeightBytes, Duration.ofSeconds(l1Ttl),
+                earlyRefreshBeta, loadLockEnabled, Duration.ofMillis(loadLockTtlMs), Duration.ofMillis(loadLockWaitMs));
+        return new TwoTierCacheManager(redisCacheManager, cacheInvalidationPublisher, stringRedisTemplate,
+                meterRegistry, settings);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+            container.addMessageListener(twoTierCacheManager, new ChannelTopic(invalidationChannel));
+        }
+        return container;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
         // Use the Redis-specific ObjectMapper
         GenericJackson2JsonRedisSerializer serializer =
                 new GenericJackson2JsonRedisSerializer(redisObjectMapper());
@@ -61,8 +130,14 @@ public class CacheConfig {
                 )
                 .disableCachingNullValues();
 
+        TranscriptionResultRedisSerializer transcriptionSerializer = new TranscriptionResultRedisSerializer(
+                TranscriptionResultRedisSerializer.Codec.valueOf(compression.toUpperCase()),
+                compressionThresholdBytes, serializer);
+
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .withCacheConfiguration("transcriptions", config.serializeValuesWith(
+                        RedisSerializationContext.SerializationPair.fromSerializer(transcriptionSerializer)))
                 .build();
     }
 }
\ No newline at end of file
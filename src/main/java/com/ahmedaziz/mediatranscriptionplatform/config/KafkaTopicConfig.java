@@ -18,6 +18,9 @@ public class KafkaTopicConfig {
     @Value("${kafka.topics.media-failed}")
     private String mediaFailedTopic;
 
+    @Value("${kafka.topics.media-status}")
+    private String mediaStatusTopic;
+
     @Bean
     public NewTopic mediaUploadedTopic() {
         return TopicBuilder.name(mediaUploadedTopic)
@@ -41,4 +44,14 @@ public class KafkaTopicConfig {
                 .replicas(1)
                 .build();
     }
+
+    // Compacted: one record per media file, read from the beginning by every node's status store
+    @Bean
+    public NewTopic mediaStatusTopic() {
+        return TopicBuilder.name(mediaStatusTopic)
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                .build();
+    }
 }
@@ -0,0 +1,16 @@
+package com.ahmedaziz.mediatranscriptionplatform.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@code spring.threads.virtual.enabled} selects the execution mode. With it, Boot runs Tomcat
+ * requests, Kafka listener dispatch and {@code @Scheduled} tasks on virtual threads, and the
+ * transcription pipeline's stage workers get virtual threads too; concurrency towards Whisper and
+ * MinIO is then bounded by {@code DownstreamLimiter} and the stage worker counts rather than by
+ * pool sizes. Virtual threads need a Java 21 runtime; on older runtimes platform threads are used.
+ */
+@Configuration
+@EnableConfigurationProperties(PipelineProperties.class)
+public class PipelineConfig {
+}
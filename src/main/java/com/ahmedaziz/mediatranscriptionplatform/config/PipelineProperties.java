@@ -0,0 +1,43 @@
+package com.ahmedaziz.mediatranscriptionplatform.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Worker counts and queue sizes for the stages of the transcription pipeline. Each stage's queue
+ * holds jobs waiting for that stage; a full queue blocks the stage before it.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.pipeline")
+public class PipelineProperties {
+
+    private Stage fetch = new Stage(4, 100);
+    private Stage preprocess = new Stage(2, 8);
+    private Stage infer = new Stage(10, 8);
+    private Stage persist = new Stage(4, 16);
+    private Stage publish = new Stage(1, 64);
+    private int publishBatchSize = 32;
+    private long publishTimeoutSeconds = 30;
+    private Prefetch prefetch = new Prefetch();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stage {
+        private int concurrency;
+        private int queueCapacity;
+    }
+
+    /**
+     * Downloads media for the next QUEUED files ahead of the fetch stage.
+     */
+    @Data
+    public static class Prefetch {
+        private boolean enabled = true;
+        private int lookahead = 8;
+        private long maxBytes = 2L * 1024 * 1024 * 1024;
+        private long intervalMs = 1000;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ahmedaziz.mediatranscriptionplatform.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for read-only transactions. Username and password default to the primary's.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource")
+public class ReadReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+    private int replicaPoolSize = 10;
+    private long maxReplicaLagMs = 2000;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -1,6 +1,7 @@
 package com.ahmedaziz.mediatranscriptionplatform.controller;
 
 import com.ahmedaziz.mediatranscriptionplatform.dto.ApiResponse;
+import com.ahmedaziz.mediatranscriptionplatform.dto.BatchProgressResponse;
 import com.ahmedaziz.mediatranscriptionplatform.service.BatchJobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +33,7 @@ public class BatchJobController {
 
             Map<String, Object> response = new HashMap<>();
             response.put("jobId", jobExecution.getJobId());
+            response.put("executionId", jobExecution.getId());
             response.put("status", jobExecution.getStatus().name());
             response.put("startTime", jobExecution.getStartTime());
             response.put("createTime", jobExecution.getCreateTime());
@@ -64,4 +66,10 @@ public class BatchJobController {
                     .body(ApiResponse.error("Job not found: " + e.getMessage()));
         }
     }
+
+    @GetMapping("/transcription/progress")
+    public ResponseEntity<ApiResponse<BatchProgressResponse>> getLiveProgress() {
+        BatchProgressResponse progress = batchJobService.getLiveProgress();
+        return ResponseEntity.ok(ApiResponse.success(progress, "Batch progress retrieved"));
+    }
 }
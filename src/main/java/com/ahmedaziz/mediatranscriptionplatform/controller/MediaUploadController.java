@@ -2,6 +2,7 @@ package com.ahmedaziz.mediatranscriptionplatform.controller;
 
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
 import com.ahmedaziz.mediatranscriptionplatform.dto.ApiResponse;
+import com.ahmedaziz.mediatranscriptionplatform.dto.CursorPage;
 import com.ahmedaziz.mediatranscriptionplatform.dto.MediaFileResponse;
 import com.ahmedaziz.mediatranscriptionplatform.service.MediaUploadService;
 import lombok.RequiredArgsConstructor;
@@ -74,31 +75,29 @@ public class MediaUploadController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<MediaFileResponse>>> getAllMediaFiles(
-            @RequestParam(required = false) String status) {
+    public ResponseEntity<ApiResponse<CursorPage<MediaFileResponse>>> getAllMediaFiles(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
 
-        List<MediaFile> mediaFiles;
+        MediaFile.ProcessingStatus processingStatus = null;
 
         if (status != null && !status.isEmpty()) {
             try {
-                MediaFile.ProcessingStatus processingStatus =
-                        MediaFile.ProcessingStatus.valueOf(status.toUpperCase());
-                mediaFiles = mediaUploadService.getMediaFilesByStatus(processingStatus);
+                processingStatus = MediaFile.ProcessingStatus.valueOf(status.toUpperCase());
             } catch (IllegalArgumentException e) {
                 return ResponseEntity
                         .badRequest()
                         .body(ApiResponse.error("Invalid status: " + status));
             }
-        } else {
-            mediaFiles = mediaUploadService.getAllMediaFiles();
         }
 
-        List<MediaFileResponse> responses = mediaFiles.stream()
-                .map(this::toMediaFileResponse)
-                .collect(Collectors.toList());
+        CursorPage<MediaFileResponse> page = mediaUploadService
+                .getMediaFilesPage(processingStatus, after, limit)
+                .map(this::toMediaFileResponse);
 
         return ResponseEntity.ok(ApiResponse.success(
-                responses,
+                page,
                 "Media files retrieved successfully"
 
         ));
@@ -0,0 +1,100 @@
+package com.ahmedaziz.mediatranscriptionplatform.controller;
+
+import com.ahmedaziz.mediatranscriptionplatform.dto.ApiResponse;
+import com.ahmedaziz.mediatranscriptionplatform.dto.PartitionResponse;
+import com.ahmedaziz.mediatranscriptionplatform.dto.RetentionRunResponse;
+import com.ahmedaziz.mediatranscriptionplatform.service.PartitionArchiveService;
+import com.ahmedaziz.mediatranscriptionplatform.service.TablePartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/partitions")
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionController {
+
+    private final TablePartitionService tablePartitionService;
+    private final PartitionArchiveService partitionArchiveService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<PartitionResponse>>> listPartitions() {
+        List<PartitionResponse> partitions = TablePartitionService.TABLES.stream()
+                .flatMap(table -> tablePartitionService.listPartitions(table).stream())
+                .map(partition -> PartitionResponse.builder()
+                        .table(partition.table())
+                        .name(partition.name())
+                        .bound(partition.bound())
+                        .detachPending(partition.detachPending())
+                        .comment(partition.comment())
+                        .estimatedRows(partition.estimatedRows())
+                        .build())
+                .toList();
+
+        return ResponseEntity.ok(ApiResponse.success(partitions, "Partitions retrieved successfully"));
+    }
+
+    @GetMapping("/archives")
+    public ResponseEntity<ApiResponse<List<String>>> listArchives() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(
+                    partitionArchiveService.listArchives(),
+                    "Archives retrieved successfully"));
+        } catch (IOException e) {
+            log.error("Error listing partition archives", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Failed to list archives: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/retention/run")
+    public ResponseEntity<ApiResponse<RetentionRunResponse>> runRetention() {
+        try {
+            log.info("Manual trigger: Running partition retention");
+            return ResponseEntity.ok(ApiResponse.success(
+                    partitionArchiveService.runRetention(),
+                    "Retention run completed"));
+        } catch (Exception e) {
+            log.error("Error running partition retention", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Retention run failed: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{table}/{partition}/restore")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> restorePartition(
+            @PathVariable String table,
+            @PathVariable String partition) {
+        try {
+            long rows = partitionArchiveService.restore(table, partition);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("table", table);
+            response.put("partition", partition);
+            response.put("rowsRestored", rows);
+
+            return ResponseEntity.ok(ApiResponse.success(response, "Partition restored successfully"));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
+
+        } catch (Exception e) {
+            log.error("Error restoring partition {}", partition, e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Failed to restore partition: " + e.getMessage()));
+        }
+    }
+}
@@ -2,19 +2,34 @@ package com.ahmedaziz.mediatranscriptionplatform.controller;
 
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
 import com.ahmedaziz.mediatranscriptionplatform.dto.ApiResponse;
+import com.ahmedaziz.mediatranscriptionplatform.dto.CursorPage;
+import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptSearchResponse;
 import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptionResultResponse;
+import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptionSummaryResponse;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionSummaryView;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaStatusStreamService;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptExportService;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptSearchService;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptStorageService;
 import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionResultService;
 import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionResultService.TranscriptionStatusResponse;
 import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionResultService.TranscriptionStatistics;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/transcription")
@@ -24,6 +39,10 @@ import java.util.stream.Collectors;
 public class TranscriptionController {
 
     private final TranscriptionResultService transcriptionResultService;
+    private final TranscriptExportService transcriptExportService;
+    private final TranscriptStorageService transcriptStorageService;
+    private final TranscriptSearchService transcriptSearchService;
+    private final MediaStatusStreamService mediaStatusStreamService;
 
     @GetMapping("/media/{mediaFileId}")
     public ResponseEntity<ApiResponse<TranscriptionResultResponse>> getTranscription(
@@ -95,6 +114,16 @@ public class TranscriptionController {
         }
     }
 
+    @GetMapping(value = "/media/{mediaFileId}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTranscriptionStatus(@PathVariable Long mediaFileId) {
+        try {
+            return ResponseEntity.ok(mediaStatusStreamService.subscribe(mediaFileId));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/media/{mediaFileId}/text")
     public ResponseEntity<String> getTranscriptionText(@PathVariable Long mediaFileId) {
         try {
@@ -104,7 +133,7 @@ public class TranscriptionController {
             return ResponseEntity
                     .ok()
                     .contentType(MediaType.TEXT_PLAIN)
-                    .body(result.getTranscript());
+                    .body(transcriptStorageService.readTranscript(result));
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity
@@ -114,20 +143,51 @@ public class TranscriptionController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<TranscriptionResultResponse>>> getAllTranscriptions() {
-        List<TranscriptionResult> results = transcriptionResultService.getAllTranscriptions();
+    public ResponseEntity<ApiResponse<CursorPage<TranscriptionSummaryResponse>>> getAllTranscriptions(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
 
-        List<TranscriptionResultResponse> responses = results.stream()
-                .map(this::toTranscriptionResultResponse)
-                .collect(Collectors.toList());
+        CursorPage<TranscriptionSummaryResponse> page = transcriptionResultService
+                .getTranscriptionSummaries(after, limit)
+                .map(this::toTranscriptionSummaryResponse);
 
         return ResponseEntity.ok(ApiResponse.success(
-                responses,
-                "All transcriptions retrieved successfully"
+                page,
+                "Transcriptions retrieved successfully"
 
         ));
     }
 
+    /**
+     * Streams every matching transcript as NDJSON, one JSON object per line.
+     * Add {@code gzip=true} to receive a gzip-compressed file instead.
+     */
+    @GetMapping("/export")
+    public void exportTranscriptions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String language,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        if (gzip) {
+            response.setContentType("application/gzip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transcripts.ndjson.gz\"");
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 64 * 1024)) {
+                transcriptExportService.exportNdjson(from, to, language, out);
+            }
+        } else {
+            response.setContentType("application/x-ndjson");
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transcripts.ndjson\"");
+            transcriptExportService.exportNdjson(from, to, language, response.getOutputStream());
+        }
+    }
+
     @DeleteMapping("/media/{mediaFileId}")
     public ResponseEntity<ApiResponse<Void>> deleteTranscription(@PathVariable Long mediaFileId) {
         try {
@@ -145,6 +205,24 @@ public class TranscriptionController {
         }
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<TranscriptSearchResponse>> searchTranscriptions(
+            @RequestParam String q,
+            @RequestParam(required = false) String language,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            TranscriptSearchResponse results = transcriptSearchService.search(q, language, offset, limit);
+            return ResponseEntity.ok(ApiResponse.success(
+                    results,
+                    "Search completed successfully"
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/statistics")
     public ResponseEntity<ApiResponse<TranscriptionStatistics>> getStatistics() {
         TranscriptionStatistics statistics = transcriptionResultService.getStatistics();
@@ -155,11 +233,29 @@ public class TranscriptionController {
         ));
     }
 
+    @GetMapping("/statistics/daily")
+    public ResponseEntity<ApiResponse<List<TranscriptionStatistics>>> getDailyStatistics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String language) {
+        try {
+            List<TranscriptionStatistics> statistics =
+                    transcriptionResultService.getDailyStatistics(from, to, language);
+            return ResponseEntity.ok(ApiResponse.success(
+                    statistics,
+                    "Daily statistics retrieved successfully"
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     private TranscriptionResultResponse toTranscriptionResultResponse(TranscriptionResult result) {
         return TranscriptionResultResponse.builder()
                 .id(result.getId())
                 .mediaFileId(result.getMediaFileId())
-                .transcript(result.getTranscript())
+                .transcript(transcriptStorageService.readTranscript(result))
                 .language(result.getLanguage())
                 .confidence(result.getConfidence())
                 .wordCount(result.getWordCount())
@@ -167,4 +263,16 @@ public class TranscriptionController {
                 .completedAt(result.getCompletedAt())
                 .build();
     }
-}
\ No newline at end of file
+
+    private TranscriptionSummaryResponse toTranscriptionSummaryResponse(TranscriptionSummaryView summary) {
+        return TranscriptionSummaryResponse.builder()
+                .id(summary.getId())
+                .mediaFileId(summary.getMediaFileId())
+                .language(summary.getLanguage())
+                .confidence(summary.getConfidence())
+                .wordCount(summary.getWordCount())
+                .processingTimeMs(summary.getProcessingTimeMs())
+                .completedAt(summary.getCompletedAt())
+                .build();
+    }
+}
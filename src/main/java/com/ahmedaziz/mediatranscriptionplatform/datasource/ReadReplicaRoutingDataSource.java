@@ -0,0 +1,154 @@
+package com.ahmedaziz.mediatranscriptionplatform.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica, round-robin, and everything else to the primary.
+ * Replicas that are unreachable or lag by more than max-replica-lag-ms are skipped until
+ * {@link #refreshReplicaLag()} sees them catch up; with none available reads go to the primary.
+ * <p>
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the read-only flag is only known
+ * once the transaction has started, after the connection would normally have been fetched.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final String LAG_QUERY = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END::bigint";
+
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Counter> routedConnections = new HashMap<>();
+    private final Counter replicaFallbacks;
+
+    public ReadReplicaRoutingDataSource(HikariDataSource primary,
+                                        List<HikariDataSource> replicaPools,
+                                        long maxLagMs,
+                                        MeterRegistry meterRegistry) {
+        this.maxLagMs = maxLagMs;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        routedConnections.put(PRIMARY, routedCounter(meterRegistry, PRIMARY));
+        for (Replica replica : replicas) {
+            targets.put(replica.name, replica.pool);
+            routedConnections.put(replica.name, routedCounter(meterRegistry, replica.name));
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMs)
+                    .description("Replication lag of the read replica, -1 when unreachable")
+                    .baseUnit("milliseconds")
+                    .tag("pool", replica.name)
+                    .register(meterRegistry);
+        }
+        this.replicaFallbacks = Counter.builder("datasource.routing.replica.fallback")
+                .description("Read-only connections sent to the primary because no replica was usable")
+                .register(meterRegistry);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = PRIMARY;
+        if (!replicas.isEmpty()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReplicaRoutingContext.isPrimaryRequired()) {
+            Replica replica = nextAvailableReplica();
+            if (replica != null) {
+                target = replica.name;
+            } else {
+                replicaFallbacks.increment();
+            }
+        }
+
+        ReplicaRoutingContext.servedBy(!PRIMARY.equals(target));
+        routedConnections.get(target).increment();
+        return target;
+    }
+
+    /**
+     * Measures each replica's lag and takes lagging or unreachable replicas out of rotation.
+     */
+    public void refreshReplicaLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(LAG_QUERY)) {
+                rows.next();
+                replica.lagMs = rows.getLong(1);
+            } catch (Exception e) {
+                replica.lagMs = -1;
+                log.debug("Replica {} unreachable: {}", replica.name, e.getMessage());
+            }
+
+            boolean available = replica.lagMs >= 0 && replica.lagMs <= maxLagMs;
+            if (available != replica.available) {
+                log.warn("Replica {} {} (lag {} ms)", replica.name,
+                        available ? "back in rotation" : "taken out of rotation", replica.lagMs);
+                replica.available = available;
+            }
+        }
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    // The primary pool is a bean of its own and is closed by the container
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private Replica nextAvailableReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static Counter routedCounter(MeterRegistry meterRegistry, String pool) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out per pool by the routing data source")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private volatile long lagMs;
+        // Optimistic until the first lag check says otherwise
+        private volatile boolean available = true;
+
+        private Replica(HikariDataSource pool) {
+            this.name = pool.getPoolName();
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ahmedaziz.mediatranscriptionplatform.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private final ReadReplicaRoutingDataSource readReplicaRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${app.datasource.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        if (readReplicaRoutingDataSource.hasReplicas()) {
+            readReplicaRoutingDataSource.refreshReplicaLag();
+        }
+    }
+}
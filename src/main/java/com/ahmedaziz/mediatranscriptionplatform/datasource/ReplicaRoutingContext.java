@@ -0,0 +1,51 @@
+package com.ahmedaziz.mediatranscriptionplatform.datasource;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Per-thread routing hints for {@link ReadReplicaRoutingDataSource}. Both helpers must wrap the
+ * whole transaction: the target is chosen when the transaction first touches the database.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Boolean> SERVED_BY_REPLICA = ThreadLocal.withInitial(() -> false);
+
+    private ReplicaRoutingContext() {
+    }
+
+    /**
+     * Runs the action with every transaction on the primary, for reads that must see the latest writes.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(true);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_REQUIRED.set(previous);
+        }
+    }
+
+    /**
+     * Runs a lookup where it would normally go and repeats it on the primary when a replica
+     * returned nothing, which covers rows written moments ago that have not replicated yet.
+     */
+    public static <T> Optional<T> withPrimaryFallback(Supplier<Optional<T>> lookup) {
+        SERVED_BY_REPLICA.set(false);
+        Optional<T> result = lookup.get();
+        if (result.isEmpty() && SERVED_BY_REPLICA.get()) {
+            return onPrimary(lookup);
+        }
+        return result;
+    }
+
+    static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get();
+    }
+
+    static void servedBy(boolean replica) {
+        SERVED_BY_REPLICA.set(replica);
+    }
+}
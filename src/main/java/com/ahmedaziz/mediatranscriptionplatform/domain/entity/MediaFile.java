@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "media_files", indexes = {
         @Index(name = "idx_status", columnList = "status"),
+        @Index(name = "idx_status_id", columnList = "status, id"),
         @Index(name = "idx_uploaded_at", columnList = "uploadedAt")
 })
 @Getter
@@ -16,8 +17,10 @@ import java.time.LocalDateTime;
 @Builder
 public class MediaFile {
 
+    // Pooled sequence IDs (allocationSize = JDBC batch size) keep Hibernate insert batching enabled
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "media_file_seq")
+    @SequenceGenerator(name = "media_file_seq", sequenceName = "media_files_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,92 @@
+package com.ahmedaziz.mediatranscriptionplatform.domain.entity;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Latest state of a media file as published to the compacted {@code media.status} topic,
+ * keyed by media file ID. A null value (tombstone) means the row no longer exists.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaStatusRecord {
+    private Long mediaFileId;
+    private String filename;
+    private String originalFilename;
+    private MediaFile.MediaType mediaType;
+    private String storageUrl;
+    private Long fileSize;
+    private String contentType;
+    private MediaFile.ProcessingStatus status;
+    private String errorMessage;
+    private LocalDateTime uploadedAt;
+    private LocalDateTime processingStartedAt;
+    private LocalDateTime completedAt;
+    private Integer retryCount;
+    private boolean hasTranscription;
+    private LocalDateTime publishedAt;
+
+    public static MediaStatusRecord of(MediaFile mediaFile, boolean hasTranscription) {
+        return MediaStatusRecord.builder()
+                .mediaFileId(mediaFile.getId())
+                .filename(mediaFile.getFilename())
+                .originalFilename(mediaFile.getOriginalFilename())
+                .mediaType(mediaFile.getMediaType())
+                .storageUrl(mediaFile.getStorageUrl())
+                .fileSize(mediaFile.getFileSize())
+                .contentType(mediaFile.getContentType())
+                .status(mediaFile.getStatus())
+                .errorMessage(mediaFile.getErrorMessage())
+                .uploadedAt(mediaFile.getUploadedAt())
+                .processingStartedAt(mediaFile.getProcessingStartedAt())
+                .completedAt(mediaFile.getCompletedAt())
+                .retryCount(mediaFile.getRetryCount())
+                .hasTranscription(hasTranscription)
+                .publishedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /** Detached copy of the row, for read paths that render {@link MediaFile}s. */
+    public MediaFile toMediaFile() {
+        return MediaFile.builder()
+                .id(mediaFileId)
+                .filename(filename)
+                .originalFilename(originalFilename)
+                .mediaType(mediaType)
+                .storageUrl(storageUrl)
+                .fileSize(fileSize)
+                .contentType(contentType)
+                .status(status)
+                .errorMessage(errorMessage)
+                .uploadedAt(uploadedAt)
+                .processingStartedAt(processingStartedAt)
+                .completedAt(completedAt)
+                .retryCount(retryCount)
+                .build();
+    }
+
+    /**
+     * Transitions are published by whichever node made them, so two records for the same file can
+     * arrive out of order. A file only ever moves forward within an attempt and every retry bumps
+     * retryCount, so (retryCount, stage) orders them; equal versions are re-publishes and win.
+     */
+    public boolean isNotOlderThan(MediaStatusRecord other) {
+        int byAttempt = Integer.compare(attempt(this), attempt(other));
+        return byAttempt != 0 ? byAttempt > 0 : stage(status) >= stage(other.status);
+    }
+
+    private static int attempt(MediaStatusRecord record) {
+        return record.retryCount != null ? record.retryCount : 0;
+    }
+
+    private static int stage(MediaFile.ProcessingStatus status) {
+        return switch (status) {
+            case UPLOADED -> 0;
+            case QUEUED -> 1;
+            case PROCESSING -> 2;
+            case COMPLETED, FAILED -> 3;
+        };
+    }
+}
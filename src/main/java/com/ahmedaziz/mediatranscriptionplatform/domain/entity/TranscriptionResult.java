@@ -7,7 +7,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "transcription_results", indexes = {
-        @Index(name = "idx_media_file_id", columnList = "mediaFileId")
+        @Index(name = "idx_media_file_id", columnList = "mediaFileId"),
+        @Index(name = "idx_transcription_completed_at", columnList = "completedAt")
 })
 @Getter
 @Setter
@@ -17,17 +18,39 @@ import java.time.LocalDateTime;
 public class TranscriptionResult {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transcription_result_seq")
+    @SequenceGenerator(name = "transcription_result_seq", sequenceName = "transcription_results_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // One result per media file, enforced through transcription_result_keys: a unique
+    // constraint here would have to include completedAt, the partition key
+    @Column(nullable = false)
     private Long mediaFileId;
 
+    // Plain text for the INLINE tier; empty for COMPRESSED and OBJECT rows.
+    // Read the text through TranscriptStorageService rather than this getter.
     @Lob
     @Column(columnDefinition = "TEXT", nullable = false)
     @Basic(fetch = FetchType.EAGER)
     private String transcript;
 
+    @Enumerated(EnumType.STRING)
+    @Column
+    private StorageTier storageTier;
+
+    // Deflate-compressed UTF-8 transcript (COMPRESSED tier). Cached copies drop it in favour of
+    // the inflated text; see TranscriptStorageService.cacheableCopy.
+    @Column(columnDefinition = "bytea")
+    private byte[] transcriptCompressed;
+
+    // MinIO object holding the compressed transcript (OBJECT tier)
+    @Column
+    private String transcriptObjectKey;
+
+    // Uncompressed UTF-8 size, used to size the decompression buffer
+    @Column
+    private Integer transcriptSizeBytes;
+
     @Column
     private String language;
 
@@ -47,8 +70,14 @@ public class TranscriptionResult {
     @PrePersist
     protected void onCreate() {
         completedAt = LocalDateTime.now();
-        if (transcript != null) {
+        if (wordCount == null && transcript != null) {
             wordCount = transcript.split("\\s+").length;
         }
     }
-}
\ No newline at end of file
+
+    public enum StorageTier {
+        INLINE,
+        COMPRESSED,
+        OBJECT
+    }
+}
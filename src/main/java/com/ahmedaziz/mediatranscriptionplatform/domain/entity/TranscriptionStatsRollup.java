@@ -0,0 +1,72 @@
+package com.ahmedaziz.mediatranscriptionplatform.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated transcription statistics for one (day, language) bucket.
+ * {@link #ALL_TIME} and {@link #ALL_LANGUAGES} mark the roll-ups across days and
+ * languages, so every statistics query is a single-row lookup.
+ */
+@Entity
+@Table(name = "transcription_stats_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stats_bucket_language", columnNames = {"bucketDate", "language"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TranscriptionStatsRollup {
+
+    public static final LocalDate ALL_TIME = LocalDate.EPOCH;
+    public static final String ALL_LANGUAGES = "*";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transcription_stats_rollup_seq")
+    @SequenceGenerator(name = "transcription_stats_rollup_seq", sequenceName = "transcription_stats_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(nullable = false)
+    private String language;
+
+    @Column(nullable = false)
+    private long transcriptionCount;
+
+    @Column(nullable = false)
+    private long processingTimeSumMs;
+
+    @Column(nullable = false)
+    private long confidenceCount;
+
+    @Column(nullable = false)
+    private double confidenceSum;
+
+    // HdrHistogram of processingTimeMs, compressed encoding
+    @Column(columnDefinition = "bytea")
+    private byte[] processingTimeHistogram;
+
+    // All-time/all-languages row only: results completed before the cutoff are counted by the
+    // one-off backfill, results completed at or after it by the nodes that finish them
+    @Column
+    private LocalDateTime backfillCutoff;
+
+    // Set on the all-time/all-languages row once historical results were folded in
+    @Column
+    private LocalDateTime backfilledAt;
+
+    @Column
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ahmedaziz.mediatranscriptionplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchProgressResponse {
+    private boolean running;
+    private Long jobExecutionId;
+    private long readCount;
+    private long writeCount;
+    private long skipCount;
+    private double itemsPerSecond;
+    private double p95ItemLatencyMs;
+    private long remainingUploaded;
+    private Long etaSeconds;
+    private LocalDateTime startedAt;
+    private LocalDateTime lastItemAt;
+}
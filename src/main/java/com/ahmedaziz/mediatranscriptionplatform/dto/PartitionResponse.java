@@ -0,0 +1,19 @@
+package com.ahmedaziz.mediatranscriptionplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionResponse {
+    private String table;
+    private String name;
+    private String bound;
+    private boolean detachPending;
+    private String comment;
+    private long estimatedRows;
+}
@@ -0,0 +1,16 @@
+package com.ahmedaziz.mediatranscriptionplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionRunResponse {
+    private List<String> detached;
+    private List<String> archived;
+    private long rowsArchived;
+}
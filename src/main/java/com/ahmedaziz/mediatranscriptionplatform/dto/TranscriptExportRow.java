@@ -0,0 +1,43 @@
+package com.ahmedaziz.mediatranscriptionplatform.dto;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult.StorageTier;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One NDJSON line of the transcript export. Selected with a JPQL constructor
+ * expression so streamed rows never enter the persistence context.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptExportRow {
+    private Long id;
+    private Long mediaFileId;
+    private String transcript;
+    private String language;
+    private Double confidence;
+    private Integer wordCount;
+    private Long processingTimeMs;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime completedAt;
+
+    // Storage columns, resolved into transcript before the row is written
+    @JsonIgnore
+    private StorageTier storageTier;
+
+    @JsonIgnore
+    private byte[] transcriptCompressed;
+
+    @JsonIgnore
+    private String transcriptObjectKey;
+
+    @JsonIgnore
+    private Integer transcriptSizeBytes;
+}
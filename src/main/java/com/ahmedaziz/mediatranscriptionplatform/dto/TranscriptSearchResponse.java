@@ -0,0 +1,57 @@
+package com.ahmedaziz.mediatranscriptionplatform.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of ranked transcript matches. Pass {@code nextOffset} as {@code offset}
+ * to fetch the following page; it is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptSearchResponse {
+
+    private String query;
+    private List<Hit> items;
+    private int offset;
+    private int limit;
+    private Integer nextOffset;
+    private boolean hasMore;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private Long id;
+        private Long mediaFileId;
+        private String language;
+        private Double confidence;
+        private Double rank;
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+        private LocalDateTime completedAt;
+
+        // Matching fragments of the transcript, joined with " ... "
+        private String snippet;
+
+        // Character ranges [start, end) of the matched terms within snippet
+        private List<Highlight> highlights;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Highlight {
+        private int start;
+        private int end;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ahmedaziz.mediatranscriptionplatform.exception;
+
+/**
+ * Thrown when new work is refused because the transcription backlog is full.
+ */
+public class BackpressureException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public BackpressureException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
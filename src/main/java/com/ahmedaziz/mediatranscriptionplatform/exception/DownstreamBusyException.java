@@ -0,0 +1,18 @@
+package com.ahmedaziz.mediatranscriptionplatform.exception;
+
+/**
+ * Thrown when no permit for a downstream service could be obtained within its acquire timeout.
+ */
+public class DownstreamBusyException extends RuntimeException {
+
+    private final String downstream;
+
+    public DownstreamBusyException(String downstream, String message) {
+        super(message);
+        this.downstream = downstream;
+    }
+
+    public String getDownstream() {
+        return downstream;
+    }
+}
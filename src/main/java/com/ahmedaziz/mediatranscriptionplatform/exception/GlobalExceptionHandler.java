@@ -2,6 +2,7 @@ package com.ahmedaziz.mediatranscriptionplatform.exception;
 
 import com.ahmedaziz.mediatranscriptionplatform.dto.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -28,6 +29,22 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("File operation failed: " + ex.getMessage()));
     }
 
+    @ExceptionHandler(DownstreamBusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleDownstreamBusy(DownstreamBusyException ex) {
+        log.warn("Downstream saturated: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(BackpressureException.class)
+    public ResponseEntity<ApiResponse<Void>> handleBackpressure(BackpressureException ex) {
+        log.warn("Upload refused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     public ResponseEntity<ApiResponse<Void>> handleMaxUploadSizeExceeded(MaxUploadSizeExceededException ex) {
         log.error("Max upload size exceeded: {}", ex.getMessage());
@@ -0,0 +1,203 @@
+package com.ahmedaziz.mediatranscriptionplatform.pipeline;
+
+import com.ahmedaziz.mediatranscriptionplatform.config.PipelineProperties;
+import com.ahmedaziz.mediatranscriptionplatform.datasource.ReplicaRoutingContext;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads the media of the next {@code lookahead} jobs handed to this node's
+ * {@link TranscriptionPipeline} into the {@link MediaCache} while they wait for the fetch stage.
+ * Only jobs this node will run are prefetched, so nodes never download each other's files. Each
+ * prefetched file is held by a lease, so it cannot be evicted before the fetch stage takes it.
+ * Files are fetched strictly in submission order and only while they fit in {@code max-bytes}; the
+ * lease of a job that ends without taking it, e.g. because another node claimed the file, is
+ * released right away.
+ */
+@Service
+@Slf4j
+public class MediaPrefetcher {
+
+    private final MediaFileRepository mediaFileRepository;
+    private final MediaCache mediaCache;
+    private final PipelineProperties.Prefetch config;
+
+    // Submitted to this node's pipeline and not fetched yet, in submission order
+    private final Deque<Long> expected = new ConcurrentLinkedDeque<>();
+    private final Map<Long, MediaCache.Lease> ready = new ConcurrentHashMap<>();
+    private final AtomicLong readyBytes = new AtomicLong();
+    private volatile boolean running;
+    private Thread prefetchThread;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter discarded;
+    private final Counter downloadedBytes;
+
+    public MediaPrefetcher(MediaFileRepository mediaFileRepository,
+                           MediaCache mediaCache,
+                           PipelineProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.mediaCache = mediaCache;
+        this.config = properties.getPrefetch();
+
+        this.hits = prefetchCounter(meterRegistry, "hit");
+        this.misses = prefetchCounter(meterRegistry, "miss");
+        this.discarded = Counter.builder("transcription.pipeline.prefetch.discarded")
+                .description("Prefetched files released without being used")
+                .register(meterRegistry);
+        this.downloadedBytes = Counter.builder("transcription.pipeline.prefetch.downloaded")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("transcription.pipeline.prefetch.hit.ratio",
+                        () -> ratio(hits.count(), misses.count()))
+                .description("Share of fetched jobs whose media was already on local disk")
+                .register(meterRegistry);
+        Gauge.builder("transcription.pipeline.prefetch.bytes", readyBytes, AtomicLong::get)
+                .description("Bytes of prefetched media waiting for the fetch stage")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("transcription.pipeline.prefetch.files", ready, Map::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Media prefetch disabled, every job downloads its own media");
+            return;
+        }
+        running = true;
+        prefetchThread = new Thread(this::run, "media-prefetcher");
+        prefetchThread.setDaemon(true);
+        prefetchThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (prefetchThread != null) {
+            prefetchThread.interrupt();
+            prefetchThread.join(config.getIntervalMs());
+        }
+        ready.keySet().forEach(this::discard);
+    }
+
+    /** Registers a job queued for this node's fetch stage, so its media may be downloaded ahead. */
+    public void expect(Long mediaFileId) {
+        if (config.isEnabled()) {
+            expected.add(mediaFileId);
+        }
+    }
+
+    /** Forgets a job that ended without taking its media, and releases anything prefetched for it. */
+    public void forget(Long mediaFileId) {
+        expected.remove(mediaFileId);
+        discard(mediaFileId);
+    }
+
+    /**
+     * Hands over the prefetched media of a claimed file. The caller closes the lease afterwards.
+     */
+    public Optional<MediaCache.Lease> take(Long mediaFileId) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        MediaCache.Lease lease = ready.remove(mediaFileId);
+        expected.remove(mediaFileId);
+        if (lease == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        readyBytes.addAndGet(-lease.size());
+        hits.increment();
+        return Optional.of(lease);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (!prefetchNext()) {
+                    Thread.sleep(config.getIntervalMs());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Media prefetch failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(config.getIntervalMs());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Leases the first file in the window that is not held yet; false if there is none. */
+    boolean prefetchNext() throws IOException {
+        Long next = expected.stream()
+                .limit(config.getLookahead())
+                .filter(id -> !ready.containsKey(id))
+                .findFirst()
+                .orElse(null);
+        if (next == null) {
+            return false;
+        }
+        MediaFile mediaFile = ReplicaRoutingContext.onPrimary(() -> mediaFileRepository.findById(next)).orElse(null);
+        // Later files are not fetched ahead of this one, so the budget goes to the nearest jobs
+        if (mediaFile == null || mediaFile.getFileSize() == null
+                || readyBytes.get() + mediaFile.getFileSize() > config.getMaxBytes()) {
+            return false;
+        }
+
+        MediaCache.Lease lease = mediaCache.open(mediaFile.getStorageUrl());
+        downloadedBytes.increment(lease.size());
+        readyBytes.addAndGet(lease.size());
+        ready.put(next, lease);
+        // The job may have been taken or forgotten while its media was downloading
+        if (!expected.contains(next)) {
+            discard(next);
+        } else {
+            log.debug("Prefetched media file ID: {} ({} bytes)", next, lease.size());
+        }
+        return true;
+    }
+
+    private void discard(Long mediaFileId) {
+        MediaCache.Lease lease = ready.remove(mediaFileId);
+        if (lease == null) {
+            return;
+        }
+        readyBytes.addAndGet(-lease.size());
+        discarded.increment();
+        lease.close();
+    }
+
+    private static double ratio(double hits, double misses) {
+        double total = hits + misses;
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private static Counter prefetchCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("transcription.pipeline.prefetch")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
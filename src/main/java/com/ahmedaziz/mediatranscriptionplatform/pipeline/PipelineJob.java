@@ -0,0 +1,58 @@
+package com.ahmedaziz.mediatranscriptionplatform.pipeline;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaCache;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionService.WhisperResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One media file moving through the pipeline. Each stage fills in the fields the next one needs;
+ * handing the job over through a stage queue publishes them to the next worker.
+ */
+final class PipelineJob {
+
+    final Long mediaFileId;
+    final List<MediaFile.ProcessingStatus> claimable;
+    final CompletableFuture<TranscriptionResult> completion = new CompletableFuture<>();
+
+    MediaFile mediaFile;
+    MediaCache.Lease media;
+    WhisperResponse whisperResponse;
+    TranscriptionResult result;
+    // Time spent downloading, checking and transcribing, without queue waits
+    long workNanos;
+
+    PipelineJob(Long mediaFileId, List<MediaFile.ProcessingStatus> claimable) {
+        this.mediaFileId = mediaFileId;
+        this.claimable = claimable;
+    }
+
+    boolean isDone() {
+        return completion.isDone();
+    }
+
+    /** Ends the job without a result, e.g. when another worker already claimed the file. */
+    void skip() {
+        completion.complete(null);
+    }
+
+    void complete() {
+        completion.complete(result);
+    }
+
+    void fail(Throwable error) {
+        releaseMedia();
+        completion.completeExceptionally(error);
+    }
+
+    void releaseMedia() {
+        MediaCache.Lease lease = media;
+        media = null;
+        if (lease != null) {
+            lease.close();
+        }
+    }
+}
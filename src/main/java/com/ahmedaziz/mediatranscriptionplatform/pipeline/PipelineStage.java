@@ -0,0 +1,213 @@
+package com.ahmedaziz.mediatranscriptionplatform.pipeline;
+
+import com.ahmedaziz.mediatranscriptionplatform.config.PipelineProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded queue drained by a fixed number of workers. A worker takes up to {@code batchSize}
+ * jobs, runs the handler on them and hands every job that is not finished to the next stage,
+ * waiting while that stage's queue is full. Backpressure therefore travels upstream stage by
+ * stage until {@link #offer} on the first stage starts refusing jobs.
+ * <p>
+ * Once stopped, a stage accepts no more jobs, and {@link #drain} fails the ones still queued.
+ */
+@Slf4j
+final class PipelineStage {
+
+    private static final long POLL_MS = 500;
+
+    @FunctionalInterface
+    interface Handler {
+        void handle(List<PipelineJob> jobs) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface JobHandler {
+        void handle(PipelineJob job) throws Exception;
+    }
+
+    private final String name;
+    private final int concurrency;
+    private final int batchSize;
+    private final Handler handler;
+    private final BlockingQueue<PipelineJob> queue;
+    private final AtomicInteger busy = new AtomicInteger();
+    private final Timer processTimer;
+    private final Timer blockedTimer;
+    private final List<Timer> idleTimers = new ArrayList<>();
+
+    private PipelineStage next;
+    private volatile boolean running;
+
+    PipelineStage(String name, PipelineProperties.Stage config, int batchSize, Handler handler,
+                  MeterRegistry meterRegistry) {
+        this.name = name;
+        this.concurrency = config.getConcurrency();
+        this.batchSize = batchSize;
+        this.handler = handler;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+        this.processTimer = Timer.builder("transcription.pipeline.stage")
+                .description("Time a stage worker spends on one job or batch")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.blockedTimer = Timer.builder("transcription.pipeline.stage.blocked")
+                .description("Time a stage worker waits for room in the next stage's queue")
+                .tag("stage", name)
+                .register(meterRegistry);
+        for (int worker = 0; worker < concurrency; worker++) {
+            idleTimers.add(Timer.builder("transcription.pipeline.stage.idle")
+                    .description("Time a stage worker waits for its next job")
+                    .tags("stage", name, "worker", String.valueOf(worker))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("transcription.pipeline.stage.queued", queue, BlockingQueue::size)
+                .description("Jobs waiting for the stage")
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder("transcription.pipeline.stage.busy", busy, AtomicInteger::get)
+                .description("Stage workers currently handling a job")
+                .tag("stage", name)
+                .register(meterRegistry);
+    }
+
+    /** Runs the handler once per job, failing only the job that threw. */
+    static Handler perJob(JobHandler jobHandler) {
+        return jobs -> {
+            for (PipelineJob job : jobs) {
+                long started = System.nanoTime();
+                try {
+                    jobHandler.handle(job);
+                } catch (Exception e) {
+                    job.fail(e);
+                } finally {
+                    job.workNanos += System.nanoTime() - started;
+                }
+            }
+        };
+    }
+
+    void setNext(PipelineStage next) {
+        this.next = next;
+    }
+
+    /** Queues a job without waiting; false if the stage is full or stopped. */
+    boolean offer(PipelineJob job) {
+        if (!running || !queue.offer(job)) {
+            return false;
+        }
+        // stop() may have drained the queue just before this offer
+        return running || !queue.remove(job);
+    }
+
+    void start(boolean virtualThreads) {
+        running = true;
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("pipeline-" + name + "-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setDaemon(true);
+        for (Timer idleTimer : idleTimers) {
+            executor.execute(() -> work(idleTimer));
+        }
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    /** Fails every job still waiting in the queue; call after {@link #stop}. */
+    int drain(Throwable reason) {
+        List<PipelineJob> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        queued.forEach(job -> job.fail(reason));
+        return queued.size();
+    }
+
+    private void work(Timer idleTimer) {
+        List<PipelineJob> batch = new ArrayList<>(batchSize);
+        long idleSince = System.nanoTime();
+        while (running) {
+            try {
+                PipelineJob first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                idleTimer.record(System.nanoTime() - idleSince, TimeUnit.NANOSECONDS);
+                batch.add(first);
+                if (batchSize > 1) {
+                    queue.drainTo(batch, batchSize - 1);
+                }
+
+                busy.incrementAndGet();
+                long started = System.nanoTime();
+                try {
+                    handler.handle(batch);
+                } catch (Exception e) {
+                    batch.forEach(job -> job.fail(e));
+                } finally {
+                    processTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    busy.decrementAndGet();
+                }
+
+                // Jobs leave the batch as they are handed over, so a failure only fails the rest
+                while (!batch.isEmpty()) {
+                    PipelineJob job = batch.remove(0);
+                    if (!job.isDone()) {
+                        handOff(job);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(job -> job.fail(e));
+                return;
+            } catch (Exception e) {
+                log.error("Pipeline stage {} worker failed", name, e);
+                batch.forEach(job -> job.fail(e));
+            } finally {
+                batch.clear();
+                idleSince = System.nanoTime();
+            }
+        }
+    }
+
+    private void handOff(PipelineJob job) throws InterruptedException {
+        if (next == null) {
+            job.fail(new IllegalStateException("Pipeline stage " + name + " left job unfinished"));
+            return;
+        }
+        // After stop() nobody drains the next queue; re-checking after the offer covers a concurrent drain
+        if (!running || !offerToNext(job) || (!running && next.queue.remove(job))) {
+            job.fail(new IllegalStateException("Transcription pipeline is shutting down"));
+        }
+    }
+
+    private boolean offerToNext(PipelineJob job) throws InterruptedException {
+        if (next.queue.offer(job)) {
+            return true;
+        }
+        long started = System.nanoTime();
+        try {
+            while (!next.queue.offer(job, POLL_MS, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            job.fail(e);
+            throw e;
+        } finally {
+            blockedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
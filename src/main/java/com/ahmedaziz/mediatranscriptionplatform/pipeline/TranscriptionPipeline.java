@@ -0,0 +1,232 @@
+package com.ahmedaziz.mediatranscriptionplatform.pipeline;
+
+import com.ahmedaziz.mediatranscriptionplatform.config.PipelineProperties;
+import com.ahmedaziz.mediatranscriptionplatform.datasource.ReplicaRoutingContext;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import com.ahmedaziz.mediatranscriptionplatform.service.DownstreamLimiter;
+import com.ahmedaziz.mediatranscriptionplatform.service.DownstreamLimiter.Downstream;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaStatusService;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaCache;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionProcessingService;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs transcription jobs through five stages connected by bounded queues: fetch (claim the file
+ * and lease a local copy from the {@link MediaCache}), preprocess (check the download), infer
+ * (Whisper), persist (COMPLETED status, transcript and result row in one transaction) and
+ * publish (cache and completion event). Each stage has its own workers, so downloads and database
+ * writes for other jobs overlap with inference instead of holding a Whisper worker. Fetch takes the {@link MediaPrefetcher}'s lease
+ * when the file was downloaded ahead of time.
+ * <p>
+ * Callers get a future per job and decide what a failure means for the file's status.
+ */
+@Service
+@Slf4j
+public class TranscriptionPipeline {
+
+    private final MediaFileRepository mediaFileRepository;
+    private final MediaCache mediaCache;
+    private final TranscriptionService transcriptionService;
+    private final TranscriptionPublisher transcriptionPublisher;
+    private final MediaPrefetcher mediaPrefetcher;
+    private final MediaStatusService mediaStatusService;
+    private final DownstreamLimiter downstreamLimiter;
+    private final PipelineProperties properties;
+    private final boolean virtualThreads;
+
+    private final List<PipelineStage> stages = new ArrayList<>();
+    private final PipelineStage fetchStage;
+
+    private final Counter completed;
+    private final Counter skipped;
+    private final Counter failed;
+    private final Counter publishFailures;
+
+    public TranscriptionPipeline(MediaFileRepository mediaFileRepository,
+                                 MediaCache mediaCache,
+                                 TranscriptionService transcriptionService,
+                                 TranscriptionPublisher transcriptionPublisher,
+                                 MediaPrefetcher mediaPrefetcher,
+                                 MediaStatusService mediaStatusService,
+                                 DownstreamLimiter downstreamLimiter,
+                                 PipelineProperties properties,
+                                 Environment environment,
+                                 MeterRegistry meterRegistry) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.mediaCache = mediaCache;
+        this.transcriptionService = transcriptionService;
+        this.transcriptionPublisher = transcriptionPublisher;
+        this.mediaPrefetcher = mediaPrefetcher;
+        this.mediaStatusService = mediaStatusService;
+        this.downstreamLimiter = downstreamLimiter;
+        this.properties = properties;
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+        if (!virtualThreads && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("Virtual threads requested but running on Java {}; using platform threads",
+                    JavaVersion.getJavaVersion());
+        }
+
+        fetchStage = stage("fetch", properties.getFetch(), 1, PipelineStage.perJob(this::fetch), meterRegistry);
+        stage("preprocess", properties.getPreprocess(), 1, PipelineStage.perJob(this::preprocess), meterRegistry);
+        stage("infer", properties.getInfer(), 1, PipelineStage.perJob(this::infer), meterRegistry);
+        stage("persist", properties.getPersist(), 1, PipelineStage.perJob(this::persist), meterRegistry);
+        stage("publish", properties.getPublish(), properties.getPublishBatchSize(), this::publish, meterRegistry);
+
+        this.completed = jobCounter(meterRegistry, "completed");
+        this.skipped = jobCounter(meterRegistry, "skipped");
+        this.failed = jobCounter(meterRegistry, "failed");
+        this.publishFailures = Counter.builder("transcription.pipeline.publish.failures")
+                .description("Completed transcriptions whose cache write or completion event failed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        stages.forEach(stage -> stage.start(virtualThreads));
+        log.info("Transcription pipeline started on {} threads", virtualThreads ? "virtual" : "platform");
+    }
+
+    /**
+     * Stops taking jobs and fails every queued one, so its caller puts the file back in the queue.
+     * Jobs a worker is still handling when the node exits stay PROCESSING until
+     * {@link TranscriptionProcessingService#requeueStaleJobs} picks them up.
+     */
+    @PreDestroy
+    public void stop() {
+        stages.forEach(PipelineStage::stop);
+        IllegalStateException shuttingDown = new IllegalStateException("Transcription pipeline is shutting down");
+        int drained = stages.stream().mapToInt(stage -> stage.drain(shuttingDown)).sum();
+        if (drained > 0) {
+            log.info("Failed {} queued transcription jobs on shutdown", drained);
+        }
+    }
+
+    /**
+     * Queues a media file for the pipeline. The future completes with the result, with null if
+     * the file was not in one of the {@code claimable} statuses or stopped being PROCESSING before
+     * its result was saved, or exceptionally if a stage failed.
+     *
+     * @throws TaskRejectedException if the fetch stage's queue is full
+     */
+    public CompletableFuture<TranscriptionResult> submit(Long mediaFileId,
+                                                         List<MediaFile.ProcessingStatus> claimable) {
+        PipelineJob job = new PipelineJob(mediaFileId, claimable);
+        mediaPrefetcher.expect(mediaFileId);
+        if (!fetchStage.offer(job)) {
+            mediaPrefetcher.forget(mediaFileId);
+            throw new TaskRejectedException("Transcription pipeline is full, cannot accept file ID: " + mediaFileId);
+        }
+        job.completion.whenComplete((result, error) -> {
+            // A no-op once fetch has taken the media; releases it when the job ended before that
+            mediaPrefetcher.forget(mediaFileId);
+            (error != null ? failed : result != null ? completed : skipped).increment();
+        });
+        return job.completion;
+    }
+
+    private void fetch(PipelineJob job) throws IOException {
+        // From the primary; the upload may not have replicated yet
+        MediaFile mediaFile = ReplicaRoutingContext.onPrimary(() -> mediaFileRepository.findById(job.mediaFileId))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Media file not found with ID: " + job.mediaFileId));
+
+        // Update status to PROCESSING; no-op if the file was already claimed
+        int claimed = mediaFileRepository.startProcessing(job.mediaFileId, job.claimable, LocalDateTime.now());
+        if (claimed == 0) {
+            log.info("Media file ID: {} is already {}, skipping", job.mediaFileId, mediaFile.getStatus());
+            job.skip();
+            return;
+        }
+        mediaStatusService.onTransition(job.mediaFileId);
+        job.mediaFile = mediaFile;
+
+        Optional<MediaCache.Lease> prefetched = mediaPrefetcher.take(job.mediaFileId);
+        if (prefetched.isPresent()) {
+            log.info("Using prefetched media for file ID: {}", job.mediaFileId);
+            job.media = prefetched.get();
+        } else {
+            log.info("Fetching media file ID: {} from {}", mediaFile.getId(), mediaFile.getStorageUrl());
+            job.media = mediaCache.open(mediaFile.getStorageUrl());
+        }
+    }
+
+    // The Whisper service decodes and resamples media itself, so this only rejects bad downloads
+    private void preprocess(PipelineJob job) throws IOException {
+        long size = job.media.size();
+        Long expected = job.mediaFile.getFileSize();
+        if (size == 0 || (expected != null && expected != size)) {
+            throw new IOException("Downloaded " + size + " bytes for media file ID: " + job.mediaFileId
+                    + ", expected " + expected);
+        }
+    }
+
+    private void infer(PipelineJob job) {
+        try (DownstreamLimiter.Permit permit = downstreamLimiter.acquire(Downstream.WHISPER)) {
+            job.whisperResponse = transcriptionService.callWhisperService(
+                    job.media.path(), job.mediaFile.getOriginalFilename());
+        } finally {
+            job.releaseMedia();
+        }
+    }
+
+    private void persist(PipelineJob job) {
+        job.result = transcriptionService.completeTranscription(job.mediaFile, job.whisperResponse,
+                TimeUnit.NANOSECONDS.toMillis(job.workNanos));
+        if (job.result == null) {
+            job.skip();
+            return;
+        }
+        mediaStatusService.onTransition(job.mediaFileId);
+    }
+
+    private void publish(List<PipelineJob> jobs) {
+        try {
+            transcriptionPublisher.publish(jobs.stream().map(job -> job.result).toList(),
+                    properties.getPublishTimeoutSeconds());
+        } catch (Exception e) {
+            // The transcripts are committed and the files COMPLETED; a lost notification must not undo that
+            publishFailures.increment(jobs.size());
+            log.error("Failed to publish {} completed transcriptions", jobs.size(), e);
+        }
+        jobs.forEach(job -> {
+            log.info("Transcription completed successfully for file ID: {}", job.mediaFileId);
+            job.complete();
+        });
+    }
+
+    private PipelineStage stage(String name, PipelineProperties.Stage config, int batchSize,
+                                PipelineStage.Handler handler, MeterRegistry meterRegistry) {
+        PipelineStage stage = new PipelineStage(name, config, batchSize, handler, meterRegistry);
+        if (!stages.isEmpty()) {
+            stages.get(stages.size() - 1).setNext(stage);
+        }
+        stages.add(stage);
+        return stage;
+    }
+
+    private static Counter jobCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("transcription.pipeline.jobs")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
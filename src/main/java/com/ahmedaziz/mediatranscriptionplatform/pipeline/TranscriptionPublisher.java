@@ -0,0 +1,130 @@
+package com.ahmedaziz.mediatranscriptionplatform.pipeline;
+
+import com.ahmedaziz.mediatranscriptionplatform.cache.TwoTierCache;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionCompletedEvent;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptStorageService;
+import com.ahmedaziz.mediatranscriptionplatform.service.kafka.KafkaProducerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish stage of the transcription pipeline: caches a batch of finished results in one
+ * pipelined Redis round trip and sends their completion events as one producer batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TranscriptionPublisher {
+
+    private static final String CACHE_NAME = "transcriptions";
+
+    private final KafkaProducerService kafkaProducerService;
+    private final CacheManager cacheManager;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final TranscriptStorageService transcriptStorageService;
+
+    /**
+     * @throws Exception if the completion events are not acknowledged within the timeout
+     */
+    public void publish(List<TranscriptionResult> results, long timeoutSeconds) throws Exception {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        // Cache the whole batch in one pipelined round trip
+        cacheTranscriptionResults(results);
+
+        // Publish all completion events as one producer batch
+        List<TranscriptionCompletedEvent> events = new ArrayList<>(results.size());
+        for (TranscriptionResult result : results) {
+            log.debug("Writing transcription result for media file ID: {}", result.getMediaFileId());
+            events.add(TranscriptionCompletedEvent.builder()
+                    .mediaFileId(result.getMediaFileId())
+                    .transcriptionResultId(result.getId())
+                    .status("COMPLETED")
+                    .completedAt(LocalDateTime.now())
+                    .build());
+        }
+
+        kafkaProducerService.sendTranscriptionCompletedEvents(events)
+                .get(timeoutSeconds, TimeUnit.SECONDS);
+
+        log.info("Published {} transcription results", results.size());
+    }
+
+    private void cacheTranscriptionResults(List<? extends TranscriptionResult> stored) {
+        try {
+            // The same one-form copies the read path caches, so hits never re-inflate the text
+            List<TranscriptionResult> results = stored.stream().map(transcriptStorageService::cacheableCopy).toList();
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            if (cache == null) {
+                return;
+            }
+
+            // The near cache is written around, so its L1 copies are dropped once Redis has the new values
+            RedisCache redisCache = cache instanceof TwoTierCache twoTier ? twoTier.getRedisCache()
+                    : cache instanceof RedisCache plain ? plain : null;
+            if (redisCache == null) {
+                results.forEach(result -> cache.put(result.getMediaFileId(), result));
+                return;
+            }
+
+            RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+            List<byte[]> keys = new ArrayList<>(results.size());
+            List<byte[]> values = new ArrayList<>(results.size());
+            List<Duration> ttls = new ArrayList<>(results.size());
+
+            for (TranscriptionResult result : results) {
+                String key = config.getKeyPrefixFor(CACHE_NAME) + result.getMediaFileId();
+                keys.add(key.getBytes(StandardCharsets.UTF_8));
+                values.add(toBytes(config.getValueSerializationPair().write(result)));
+                ttls.add(config.getTtlFunction().getTimeToLive(result.getMediaFileId(), result));
+            }
+
+            try (var connection = redisConnectionFactory.getConnection()) {
+                connection.openPipeline();
+                for (int i = 0; i < keys.size(); i++) {
+                    Duration ttl = ttls.get(i);
+                    Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                            ? Expiration.persistent()
+                            : Expiration.from(ttl);
+                    connection.stringCommands().set(keys.get(i), values.get(i), expiration,
+                            RedisStringCommands.SetOption.upsert());
+                }
+                connection.closePipeline();
+            }
+
+            if (cache instanceof TwoTierCache twoTier) {
+                twoTier.invalidateNearCaches(results.stream().map(TranscriptionResult::getMediaFileId).toList());
+            }
+
+            log.debug("Cached {} transcription results in one pipeline", results.size());
+
+        } catch (Exception e) {
+            log.warn("Failed to cache transcription results: {}", e.getMessage());
+        }
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -2,13 +2,17 @@ package com.ahmedaziz.mediatranscriptionplatform.repository;
 
 
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,5 +34,65 @@ public interface MediaFileRepository extends JpaRepository<MediaFile, Long> {
     @Query("SELECT COUNT(m) FROM MediaFile m WHERE m.status = :status")
     Long countByStatus(MediaFile.ProcessingStatus status);
 
+    @Query("SELECT MIN(m.uploadedAt) FROM MediaFile m WHERE m.status = :status")
+    LocalDateTime findOldestUploadedAtByStatus(MediaFile.ProcessingStatus status);
+
     Optional<MediaFile> findByFilename(String filename);
+
+    List<MediaFile> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    List<MediaFile> findByStatusAndIdGreaterThanOrderByIdAsc(MediaFile.ProcessingStatus status, Long after, Limit limit);
+
+    @Query("SELECT m.id FROM MediaFile m WHERE m.status = :status ORDER BY m.id")
+    List<Long> findIdsByStatus(MediaFile.ProcessingStatus status, Limit limit);
+
+    @Query("SELECT m.id FROM MediaFile m WHERE m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.PROCESSING " +
+            "AND m.processingStartedAt < :startedBefore ORDER BY m.id")
+    List<Long> findIdsProcessingSince(LocalDateTime startedBefore, Limit limit);
+
+    // State transitions: single guarded UPDATEs that return the affected row count.
+    // 0 means the row was not in an expected state, so the transition is a no-op.
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.QUEUED " +
+            "WHERE m.id = :id AND m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.UPLOADED")
+    int markQueued(Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.PROCESSING, " +
+            "m.processingStartedAt = :startedAt " +
+            "WHERE m.id = :id AND m.status IN :expected")
+    int startProcessing(Long id, Collection<MediaFile.ProcessingStatus> expected, LocalDateTime startedAt);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.COMPLETED, " +
+            "m.completedAt = :completedAt, m.errorMessage = NULL " +
+            "WHERE m.id = :id AND m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.PROCESSING")
+    int markCompleted(Long id, LocalDateTime completedAt);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.FAILED, " +
+            "m.errorMessage = :errorMessage, m.completedAt = :completedAt, m.retryCount = m.retryCount + 1 " +
+            "WHERE m.id = :id AND m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.PROCESSING")
+    int markFailed(Long id, String errorMessage, LocalDateTime completedAt);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.FAILED, " +
+            "m.errorMessage = :errorMessage, m.completedAt = :completedAt, m.retryCount = m.retryCount + 1 " +
+            "WHERE m.id = :id AND m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.PROCESSING " +
+            "AND m.retryCount + 1 >= :maxRetries")
+    int markFailedIfRetriesExhausted(Long id, String errorMessage, LocalDateTime completedAt, int maxRetries);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.QUEUED, " +
+            "m.errorMessage = :errorMessage, m.retryCount = m.retryCount + 1 " +
+            "WHERE m.id = :id AND m.status = com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus.PROCESSING " +
+            "AND m.retryCount + 1 < :maxRetries")
+    int requeueForRetry(Long id, String errorMessage, int maxRetries);
 }
@@ -0,0 +1,17 @@
+package com.ahmedaziz.mediatranscriptionplatform.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * One ranked full-text match with its snippet. {@code headline} is null for compressed and
+ * offloaded transcripts, whose text is not readable in SQL.
+ */
+public interface TranscriptSearchHit {
+    Long getId();
+    Long getMediaFileId();
+    String getLanguage();
+    Double getConfidence();
+    LocalDateTime getCompletedAt();
+    Double getRank();
+    String getHeadline();
+}
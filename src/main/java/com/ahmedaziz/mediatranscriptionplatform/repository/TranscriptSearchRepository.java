@@ -0,0 +1,50 @@
+package com.ahmedaziz.mediatranscriptionplatform.repository;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Native queries over the {@code search_vector} column of {@code transcription_results}.
+ * The column and its GIN index are not mapped on the entity; see {@code TranscriptSearchService}.
+ * Queries match the words as typed ({@code simple}) or stemmed with the given text search config.
+ */
+@org.springframework.stereotype.Repository
+public interface TranscriptSearchRepository extends Repository<TranscriptionResult, Long> {
+
+    String QUERY = "(websearch_to_tsquery('simple', :q) || websearch_to_tsquery(CAST(:config AS regconfig), :q))";
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE transcription_results " +
+            "SET search_vector = to_tsvector(CAST(:config AS regconfig), :text) " +
+            "WHERE id = :id", nativeQuery = true)
+    int updateSearchVector(Long id, String config, String text);
+
+    /**
+     * One page of matches with their {@code ts_headline} snippets. The headline is computed on the
+     * page only, after ranking, and only for INLINE transcripts.
+     */
+    @Query(value = "SELECT t.id AS id, t.media_file_id AS mediaFileId, t.language AS language, " +
+            "t.confidence AS confidence, t.completed_at AS completedAt, p.rank AS rank, " +
+            "CASE WHEN t.storage_tier IS NULL OR t.storage_tier = 'INLINE' " +
+            "THEN ts_headline(CAST(:config AS regconfig), t.transcript, p.query, :options) END AS headline " +
+            "FROM (SELECT t.id, t.completed_at, q.query, " +
+            "CAST(ts_rank_cd(t.search_vector, q.query, 32) AS double precision) AS rank " +
+            "FROM transcription_results t, (SELECT " + QUERY + " AS query) q " +
+            "WHERE t.search_vector @@ q.query " +
+            "AND (CAST(:language AS varchar) IS NULL OR t.language = CAST(:language AS varchar)) " +
+            "ORDER BY rank DESC, t.id DESC " +
+            "OFFSET :offset LIMIT :limit) p " +
+            "JOIN transcription_results t ON t.id = p.id AND t.completed_at = p.completed_at " +
+            "ORDER BY p.rank DESC, p.id DESC", nativeQuery = true)
+    List<TranscriptSearchHit> search(String q, String config, String language, String options, int offset, int limit);
+
+    @Query(value = "SELECT id FROM transcription_results WHERE search_vector IS NULL AND id > :afterId " +
+            "ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsWithoutSearchVector(long afterId, int limit);
+}
@@ -1,25 +1,76 @@
 package com.ahmedaziz.mediatranscriptionplatform.repository;
 
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TranscriptionResultRepository extends JpaRepository<TranscriptionResult, Long> {
 
     Optional<TranscriptionResult> findByMediaFileId(Long mediaFileId);
 
+    /**
+     * Claims the one result a media file may have; see {@code TablePartitionService}.
+     * Returns 0 if the file already has a result. Must run in the transaction that saves the result.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO transcription_result_keys (media_file_id) VALUES (:mediaFileId) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claimResultKey(Long mediaFileId);
+
+    @Modifying
+    @Query(value = "DELETE FROM transcription_result_keys WHERE media_file_id = :mediaFileId", nativeQuery = true)
+    int releaseResultKey(Long mediaFileId);
+
     boolean existsByMediaFileId(Long mediaFileId);
 
+    @Query("SELECT t.mediaFileId FROM TranscriptionResult t WHERE t.mediaFileId IN :mediaFileIds")
+    List<Long> findMediaFileIdsIn(Collection<Long> mediaFileIds);
+
     @Query("SELECT t FROM TranscriptionResult t WHERE t.mediaFileId = :mediaFileId")
     Optional<TranscriptionResult> findTranscriptionByMediaFileId(Long mediaFileId);
 
-    @Query("SELECT AVG(t.processingTimeMs) FROM TranscriptionResult t")
-    Double getAverageProcessingTime();
+    List<TranscriptionSummaryView> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    /**
+     * Forward-only cursor over transcripts completed in [from, to), optionally for one language.
+     * Must be consumed inside a transaction so the driver honours the fetch size.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptExportRow(" +
+            "t.id, t.mediaFileId, t.transcript, t.language, t.confidence, t.wordCount, t.processingTimeMs, t.completedAt, " +
+            "t.storageTier, t.transcriptCompressed, t.transcriptObjectKey, t.transcriptSizeBytes) " +
+            "FROM TranscriptionResult t " +
+            "WHERE t.completedAt >= :from AND t.completedAt < :to " +
+            "AND (:language IS NULL OR t.language = :language) " +
+            "ORDER BY t.id")
+    Stream<TranscriptExportRow> streamForExport(LocalDateTime from, LocalDateTime to, String language);
 
-    @Query("SELECT AVG(t.confidence) FROM TranscriptionResult t WHERE t.confidence IS NOT NULL")
-    Double getAverageConfidence();
-}
\ No newline at end of file
+    /**
+     * Statistics inputs of every result completed before the cutoff, for the one-off roll-up backfill.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.completedAt AS completedAt, t.language AS language, " +
+            "t.processingTimeMs AS processingTimeMs, t.confidence AS confidence " +
+            "FROM TranscriptionResult t WHERE t.completedAt < :before")
+    Stream<TranscriptionStatsSample> streamStatsSamples(LocalDateTime before);
+}
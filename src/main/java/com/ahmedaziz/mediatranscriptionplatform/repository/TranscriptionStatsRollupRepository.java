@@ -0,0 +1,25 @@
+package com.ahmedaziz.mediatranscriptionplatform.repository;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionStatsRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TranscriptionStatsRollupRepository extends JpaRepository<TranscriptionStatsRollup, Long> {
+
+    Optional<TranscriptionStatsRollup> findByBucketDateAndLanguage(LocalDate bucketDate, String language);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM TranscriptionStatsRollup r WHERE r.bucketDate = :bucketDate AND r.language = :language")
+    Optional<TranscriptionStatsRollup> findForUpdate(LocalDate bucketDate, String language);
+
+    List<TranscriptionStatsRollup> findByLanguageAndBucketDateBetweenOrderByBucketDateAsc(
+            String language, LocalDate from, LocalDate to);
+}
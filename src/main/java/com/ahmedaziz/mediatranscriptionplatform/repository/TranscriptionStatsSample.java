@@ -0,0 +1,13 @@
+package com.ahmedaziz.mediatranscriptionplatform.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of {@code TranscriptionResult} needed to rebuild statistics roll-ups.
+ */
+public interface TranscriptionStatsSample {
+    LocalDateTime getCompletedAt();
+    String getLanguage();
+    Long getProcessingTimeMs();
+    Double getConfidence();
+}
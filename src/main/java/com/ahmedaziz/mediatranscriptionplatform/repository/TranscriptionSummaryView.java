@@ -0,0 +1,17 @@
+package com.ahmedaziz.mediatranscriptionplatform.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of {@code TranscriptionResult} for list views.
+ * Only these columns are selected, never the transcript body.
+ */
+public interface TranscriptionSummaryView {
+    Long getId();
+    Long getMediaFileId();
+    String getLanguage();
+    Double getConfidence();
+    Integer getWordCount();
+    Long getProcessingTimeMs();
+    LocalDateTime getCompletedAt();
+}
@@ -0,0 +1,31 @@
+package com.ahmedaziz.mediatranscriptionplatform.scheduler;
+
+import com.ahmedaziz.mediatranscriptionplatform.service.PartitionArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Archives monthly partitions older than the retention period to object storage and drops them.
+ * Independent of the batch scheduler; several nodes may run it, the partition advisory lock lets one through.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.retention.enabled", havingValue = "true")
+public class RetentionScheduler {
+
+    private final PartitionArchiveService partitionArchiveService;
+
+    @Scheduled(cron = "${app.retention.cron:0 0 2 * * *}")
+    public void runRetention() {
+        log.info("Running partition retention");
+        try {
+            partitionArchiveService.runRetention();
+        } catch (Exception e) {
+            log.error("Error running partition retention", e);
+        }
+    }
+}
@@ -1,74 +1,136 @@
 package com.ahmedaziz.mediatranscriptionplatform.scheduler;
 
-import lombok.RequiredArgsConstructor;
+import com.ahmedaziz.mediatranscriptionplatform.batch.BatchProgressListener;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Scheduler to trigger batch transcription jobs periodically
+ * Scheduler to trigger batch transcription jobs when the UPLOADED backlog builds up
  * This provides an alternative to Kafka-driven processing
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 @ConditionalOnProperty(name = "app.batch.scheduler.enabled", havingValue = "true", matchIfMissing = false)
 public class TranscriptionScheduler {
 
     private final JobLauncher jobLauncher;
     private final Job transcriptionJob;
+    private final MediaFileRepository mediaFileRepository;
+    private final BatchProgressListener batchProgressListener;
+
+    private final AtomicBoolean jobRunning = new AtomicBoolean(false);
+    private final ThreadPoolTaskExecutor launchExecutor;
+
+    @Value("${app.batch.scheduler.backlog-threshold:10}")
+    private long backlogThreshold;
+
+    @Value("${app.batch.scheduler.max-wait-seconds:60}")
+    private long maxWaitSeconds;
+
+    public TranscriptionScheduler(JobLauncher jobLauncher,
+                                  Job transcriptionJob,
+                                  MediaFileRepository mediaFileRepository,
+                                  BatchProgressListener batchProgressListener) {
+        this.jobLauncher = jobLauncher;
+        this.transcriptionJob = transcriptionJob;
+        this.mediaFileRepository = mediaFileRepository;
+        this.batchProgressListener = batchProgressListener;
+
+        // Jobs run off the scheduler thread; one launch at a time, no queueing
+        this.launchExecutor = new ThreadPoolTaskExecutor();
+        this.launchExecutor.setCorePoolSize(1);
+        this.launchExecutor.setMaxPoolSize(1);
+        this.launchExecutor.setQueueCapacity(0);
+        this.launchExecutor.setThreadNamePrefix("batch-launch-");
+        this.launchExecutor.initialize();
+    }
 
     /**
-     * Scheduled batch job to process uploaded files
-     * Runs every 5 minutes by default
+     * Polls the UPLOADED backlog and launches a batch job asynchronously when it
+     * reaches the threshold, or when the oldest pending file has waited longer
+     * than max-wait-seconds. Skips when the queue is empty or a job is running.
      */
-    @Scheduled(cron = "${app.batch.scheduler.cron:0 */5 * * * *}")
-    public void runBatchTranscription() {
-        log.info("======================================");
-        log.info("Starting scheduled batch transcription job");
-        log.info("Timestamp: {}", LocalDateTime.now());
-        log.info("======================================");
+    @Scheduled(fixedDelayString = "${app.batch.scheduler.poll-interval-ms:5000}")
+    public void checkBacklog() {
+        if (jobRunning.get() || batchProgressListener.isRunning()) {
+            return;
+        }
+
+        Long pending = mediaFileRepository.countByStatus(MediaFile.ProcessingStatus.UPLOADED);
+        if (pending == null || pending == 0) {
+            return;
+        }
+
+        String trigger;
+        if (pending >= backlogThreshold) {
+            trigger = "backlog";
+        } else {
+            LocalDateTime oldest = mediaFileRepository.findOldestUploadedAtByStatus(
+                    MediaFile.ProcessingStatus.UPLOADED);
+            if (oldest == null
+                    || Duration.between(oldest, LocalDateTime.now()).getSeconds() < maxWaitSeconds) {
+                return;
+            }
+            trigger = "max-wait";
+        }
 
+        if (!jobRunning.compareAndSet(false, true)) {
+            return;
+        }
+
+        log.info("Launching batch transcription job: {} files pending (trigger: {})", pending, trigger);
+
+        try {
+            launchExecutor.execute(() -> runBatchTranscription(trigger));
+        } catch (RejectedExecutionException e) {
+            jobRunning.set(false);
+            log.warn("Batch launch rejected, a job is still running");
+        }
+    }
+
+    private void runBatchTranscription(String trigger) {
         try {
             JobParameters params = new JobParametersBuilder()
                     .addLong("timestamp", System.currentTimeMillis())
-                    .addString("trigger", "scheduled")
+                    .addString("trigger", trigger)
                     .toJobParameters();
 
             var execution = jobLauncher.run(transcriptionJob, params);
 
-            log.info("Batch job completed with status: {}", execution.getStatus());
-            log.info("Read count: {}", execution.getStepExecutions().stream()
-                    .mapToLong(step -> step.getReadCount())
-                    .sum());
-            log.info("Write count: {}", execution.getStepExecutions().stream()
-                    .mapToLong(step -> step.getWriteCount())
-                    .sum());
+            log.info("Batch job completed with status: {}. Read: {}, Written: {}",
+                    execution.getStatus(),
+                    execution.getStepExecutions().stream()
+                            .mapToLong(step -> step.getReadCount())
+                            .sum(),
+                    execution.getStepExecutions().stream()
+                            .mapToLong(step -> step.getWriteCount())
+                            .sum());
 
         } catch (Exception e) {
             log.error("Error running scheduled batch job", e);
+        } finally {
+            jobRunning.set(false);
         }
-
-        log.info("======================================");
-        log.info("Scheduled batch transcription job finished");
-        log.info("======================================");
     }
 
-    /**
-     * Cleanup old completed/failed records
-     * Runs daily at 2 AM
-     */
-    @Scheduled(cron = "${app.batch.cleanup.cron:0 0 2 * * *}")
-    public void cleanupOldRecords() {
-        log.info("Running cleanup job for old records");
-        // Implement cleanup logic if needed
-        // For example: delete transcriptions older than 30 days
+    @PreDestroy
+    public void shutdown() {
+        launchExecutor.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,11 @@
 package com.ahmedaziz.mediatranscriptionplatform.service;
 
+import com.ahmedaziz.mediatranscriptionplatform.batch.BatchProgressListener;
+import com.ahmedaziz.mediatranscriptionplatform.dto.BatchProgressResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.*;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
@@ -10,7 +13,9 @@ import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -20,6 +25,8 @@ public class BatchJobService {
 
     private final JobLauncher jobLauncher;
     private final Job transcriptionJob;
+    private final JobExplorer jobExplorer;
+    private final BatchProgressListener batchProgressListener;
 
     public JobExecution startTranscriptionJob()
             throws JobExecutionAlreadyRunningException,
@@ -37,11 +44,58 @@ public class BatchJobService {
     }
 
     public Map<String, Object> getJobStatus(Long jobId) {
-        // Implementation would query JobRepository for job status
-        // This is a simplified version
-        Map<String, Object> status = new HashMap<>();
+        JobInstance jobInstance = jobExplorer.getJobInstance(jobId);
+        if (jobInstance == null) {
+            throw new IllegalArgumentException("Job not found with ID: " + jobId);
+        }
+
+        JobExecution execution = jobExplorer.getLastJobExecution(jobInstance);
+        if (execution == null) {
+            throw new IllegalArgumentException("No execution found for job ID: " + jobId);
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
         status.put("jobId", jobId);
-        status.put("message", "Job status retrieval not fully implemented");
+        status.put("jobName", jobInstance.getJobName());
+        status.put("executionId", execution.getId());
+        status.put("status", execution.getStatus().name());
+        status.put("exitCode", execution.getExitStatus().getExitCode());
+        status.put("createTime", execution.getCreateTime());
+        status.put("startTime", execution.getStartTime());
+        status.put("endTime", execution.getEndTime());
+
+        long readCount = 0;
+        long writeCount = 0;
+        long skipCount = 0;
+        List<Map<String, Object>> steps = new ArrayList<>();
+        for (StepExecution step : execution.getStepExecutions()) {
+            readCount += step.getReadCount();
+            writeCount += step.getWriteCount();
+            skipCount += step.getSkipCount();
+
+            Map<String, Object> stepStatus = new LinkedHashMap<>();
+            stepStatus.put("stepName", step.getStepName());
+            stepStatus.put("status", step.getStatus().name());
+            stepStatus.put("readCount", step.getReadCount());
+            stepStatus.put("writeCount", step.getWriteCount());
+            stepStatus.put("skipCount", step.getSkipCount());
+            stepStatus.put("commitCount", step.getCommitCount());
+            stepStatus.put("rollbackCount", step.getRollbackCount());
+            steps.add(stepStatus);
+        }
+        status.put("readCount", readCount);
+        status.put("writeCount", writeCount);
+        status.put("skipCount", skipCount);
+        status.put("steps", steps);
+
+        if (execution.isRunning()) {
+            status.put("progress", batchProgressListener.snapshot());
+        }
+
         return status;
     }
+
+    public BatchProgressResponse getLiveProgress() {
+        return batchProgressListener.snapshot();
+    }
 }
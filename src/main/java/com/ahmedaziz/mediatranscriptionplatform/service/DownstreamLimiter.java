@@ -0,0 +1,140 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.exception.DownstreamBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps concurrent calls per downstream service. With virtual threads there is no pool size left
+ * to do this, and sync MinIO calls bypass OkHttp's dispatcher limits, so each downstream gets a
+ * fair semaphore instead. Code holding both takes Whisper first, so the two cannot deadlock.
+ */
+@Component
+public class DownstreamLimiter {
+
+    public enum Downstream {
+        /**
+         * Taken in {@code TranscriptionPipeline.infer} around {@code TranscriptionService.callWhisperService}.
+         * The media is already on local disk and the result is saved by the later persist stage,
+         * so callers waiting for Whisper hold neither a MinIO permit nor a database connection.
+         */
+        WHISPER("whisper"),
+        MINIO("minio");
+
+        private final String tag;
+
+        Downstream(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Downstream, Limit> limits = new EnumMap<>(Downstream.class);
+
+    public DownstreamLimiter(@Value("${app.concurrency.whisper.permits:10}") int whisperPermits,
+                             @Value("${app.concurrency.whisper.acquire-timeout-ms:600000}") long whisperTimeoutMs,
+                             @Value("${app.concurrency.minio.permits:32}") int minioPermits,
+                             @Value("${app.concurrency.minio.acquire-timeout-ms:30000}") long minioTimeoutMs,
+                             MeterRegistry meterRegistry) {
+        limits.put(Downstream.WHISPER, new Limit(Downstream.WHISPER, whisperPermits,
+                Duration.ofMillis(whisperTimeoutMs), meterRegistry));
+        limits.put(Downstream.MINIO, new Limit(Downstream.MINIO, minioPermits,
+                Duration.ofMillis(minioTimeoutMs), meterRegistry));
+    }
+
+    /**
+     * Blocks until a permit is free or the downstream's acquire timeout passes.
+     *
+     * @throws DownstreamBusyException if the timeout passed or the thread was interrupted
+     */
+    public Permit acquire(Downstream downstream) {
+        return limits.get(downstream).acquire();
+    }
+
+    /** Takes a permit only if one is free right now, without waiting or queueing. */
+    public Optional<Permit> tryAcquire(Downstream downstream) {
+        return limits.get(downstream).tryAcquire();
+    }
+
+    public int availablePermits(Downstream downstream) {
+        return limits.get(downstream).semaphore.availablePermits();
+    }
+
+    /** Releases its permit on the first {@link #close()}. */
+    public static final class Permit implements AutoCloseable {
+
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+
+    private static final class Limit {
+
+        private final Downstream downstream;
+        private final Semaphore semaphore;
+        private final Duration timeout;
+        private final Timer waits;
+        private final Counter timeouts;
+
+        private Limit(Downstream downstream, int permits, Duration timeout, MeterRegistry meterRegistry) {
+            this.downstream = downstream;
+            this.semaphore = new Semaphore(permits, true);
+            this.timeout = timeout;
+            this.waits = Timer.builder("downstream.permit.wait")
+                    .tag("downstream", downstream.tag)
+                    .register(meterRegistry);
+            this.timeouts = Counter.builder("downstream.permit.timeouts")
+                    .tag("downstream", downstream.tag)
+                    .register(meterRegistry);
+            Gauge.builder("downstream.permits.available", semaphore, Semaphore::availablePermits)
+                    .tag("downstream", downstream.tag)
+                    .register(meterRegistry);
+            Gauge.builder("downstream.permits.waiting", semaphore, Semaphore::getQueueLength)
+                    .tag("downstream", downstream.tag)
+                    .register(meterRegistry);
+        }
+
+        private Permit acquire() {
+            long start = System.nanoTime();
+            try {
+                if (!semaphore.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    timeouts.increment();
+                    throw new DownstreamBusyException(downstream.tag, "No " + downstream.tag
+                            + " capacity available within " + timeout.toMillis() + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DownstreamBusyException(downstream.tag, "Interrupted waiting for " + downstream.tag);
+            } finally {
+                waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            return new Permit(semaphore);
+        }
+
+        // Untimed tryAcquire barges past queued waiters; fine for optional extra work
+        private Optional<Permit> tryAcquire() {
+            return semaphore.tryAcquire() ? Optional.of(new Permit(semaphore)) : Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * {@link MediaStorage} on a local directory, for single-node edge deployments and tests without
+ * MinIO. File-to-file copies go through {@link FileChannel#transferTo}, which the kernel performs
+ * without copying through the heap. Objects are written to a temporary file and moved into place,
+ * so readers never see a partial object. User metadata is kept in a properties file per object
+ * under {@code .meta}; the ETag is derived from the file's size, modification time and file key.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
+@Slf4j
+public class LocalStorageService implements MediaStorage {
+
+    private static final String META_DIR = ".meta";
+    private static final String TEMP_SUFFIX = ".uploading";
+
+    @Value("${app.storage.local.root:/var/lib/media-storage}")
+    private String rootDir;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(rootDir).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve(META_DIR));
+        log.info("Storing media on local disk under {}", root);
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file) throws IOException {
+        String objectName = MediaStorage.generateObjectName(file.getOriginalFilename());
+        Path target = resolve(objectName);
+        Path temp = tempFor(target);
+        try {
+            // Servlet containers move their spooled part file into place when they can
+            file.transferTo(temp.toFile());
+            commit(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("File stored successfully: {}", objectName);
+        return objectName;
+    }
+
+    @Override
+    public void uploadBytes(String objectName, byte[] data, String contentType) throws IOException {
+        Path target = resolve(objectName);
+        Path temp = tempFor(target);
+        try {
+            Files.write(temp, data);
+            writeMetadata(objectName, Map.of());
+            commit(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.debug("Object stored successfully: {} ({} bytes)", objectName, data.length);
+    }
+
+    @Override
+    public void uploadFile(String objectName, Path file, String contentType,
+                           Map<String, String> userMetadata) throws IOException {
+        Path target = resolve(objectName);
+        Path temp = tempFor(target);
+        try {
+            transfer(file, temp);
+            // Before the object appears, so a reader never finds it without its metadata
+            writeMetadata(objectName, userMetadata);
+            commit(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Object stored successfully: {} ({} bytes)", objectName, Files.size(target));
+    }
+
+    @Override
+    public InputStream downloadFile(String objectName) throws IOException {
+        return Files.newInputStream(existing(objectName));
+    }
+
+    @Override
+    public String downloadToFile(String objectName, Path target) throws IOException {
+        Path source = existing(objectName);
+        String etag = etag(source);
+        transfer(source, target);
+        return etag;
+    }
+
+    @Override
+    public String getEtag(String objectName) throws IOException {
+        return etag(existing(objectName));
+    }
+
+    @Override
+    public void deleteFile(String objectName) throws IOException {
+        Files.deleteIfExists(resolve(objectName));
+        Files.deleteIfExists(metadataPath(objectName));
+        log.info("File deleted successfully: {}", objectName);
+    }
+
+    @Override
+    public boolean fileExists(String objectName) {
+        try {
+            return Files.isRegularFile(resolve(objectName));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Map<String, String> getUserMetadata(String objectName) throws IOException {
+        existing(objectName);
+        Path metadata = metadataPath(objectName);
+        Map<String, String> userMetadata = new HashMap<>();
+        if (Files.exists(metadata)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(metadata)) {
+                properties.load(in);
+            }
+            properties.stringPropertyNames().forEach(key -> userMetadata.put(key, properties.getProperty(key)));
+        }
+        return userMetadata;
+    }
+
+    @Override
+    public List<String> listObjects(String prefix) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .map(path -> root.relativize(path).toString().replace('\\', '/'))
+                    .filter(name -> !name.startsWith(META_DIR + "/") && !name.endsWith(TEMP_SUFFIX))
+                    .filter(name -> name.startsWith(prefix))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    // Zero-copy between two files; transferTo may move fewer bytes than asked, so loop
+    private static void transfer(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            for (long position = 0; position < size; ) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static void commit(Path temp, Path target) throws IOException {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeMetadata(String objectName, Map<String, String> userMetadata) throws IOException {
+        Path metadata = metadataPath(objectName);
+        if (userMetadata.isEmpty()) {
+            Files.deleteIfExists(metadata);
+            return;
+        }
+        Properties properties = new Properties();
+        userMetadata.forEach((key, value) -> properties.setProperty(key.toLowerCase(), value));
+        Path temp = tempFor(metadata);
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, null);
+            }
+            commit(temp, metadata);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Every write moves a new file into place, so the file key changes even within one clock tick
+    private static String etag(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Instant modified = attributes.lastModifiedTime().toInstant();
+        return Long.toHexString(attributes.size())
+                + "-" + Long.toHexString(modified.getEpochSecond()) + Integer.toHexString(modified.getNano())
+                + "-" + Integer.toHexString(Objects.hashCode(attributes.fileKey()));
+    }
+
+    private Path existing(String objectName) throws IOException {
+        Path path = resolve(objectName);
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(objectName, null, "No such object in local storage");
+        }
+        return path;
+    }
+
+    private Path metadataPath(String objectName) throws IOException {
+        return resolve(META_DIR + "/" + objectName + ".properties");
+    }
+
+    // Keeps object names inside the root, whatever "../" they contain
+    private Path resolve(String objectName) throws IOException {
+        Path path = root.resolve(objectName).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IOException("Invalid object name: " + objectName);
+        }
+        return path;
+    }
+
+    private static Path tempFor(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        return target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A local file sent as a request body. Spring's resource converter copies bodies with
+ * {@link InputStream#transferTo}, which this resource's stream answers by writing memory-mapped
+ * regions of the file, so the bytes go from the page cache to the connection without read calls
+ * or a heap copy of the whole file. Reported under the given filename.
+ */
+public class MappedFileResource extends AbstractResource {
+
+    private static final long MAP_REGION_BYTES = 64L * 1024 * 1024;
+
+    private final Path path;
+    private final String filename;
+
+    public MappedFileResource(Path path, String filename) {
+        this.path = path;
+        this.filename = filename;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.isReadable(path);
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return Files.size(path);
+    }
+
+    @Override
+    public String getDescription() {
+        return "mapped file [" + path + "]";
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new MappedInputStream(channel);
+    }
+
+    private static final class MappedInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final InputStream delegate;
+
+        MappedInputStream(FileChannel channel) {
+            this.channel = channel;
+            this.delegate = Channels.newInputStream(channel);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return delegate.read(buffer, offset, length);
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            // Not closed: closing the wrapper would close the caller's stream
+            WritableByteChannel target = Channels.newChannel(out);
+            long start = channel.position();
+            long size = channel.size();
+            for (long position = start; position < size; position += MAP_REGION_BYTES) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_REGION_BYTES, size - position));
+                while (region.hasRemaining()) {
+                    target.write(region);
+                }
+            }
+            channel.position(size);
+            return size - start;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * Per-node LRU cache of {@link MediaStorage} objects on local disk, bounded by {@code max-bytes}.
+ * Retries and prefetched jobs read the same object again; a hit costs one ETag lookup instead of a
+ * full download. Callers hold a {@link Lease} while they read the file, and leased
+ * entries are never evicted. The index lives in memory, so the directory is emptied on startup.
+ */
+@Service
+@Slf4j
+public class MediaCache {
+
+    private final MediaStorage mediaStorage;
+
+    // Access-ordered, so iteration starts at the least recently used entry; guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+    private final Counter bytesSaved;
+    private final Counter evictions;
+
+    @Value("${app.media-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.media-cache.dir:/tmp/media-cache}")
+    private String dir;
+
+    @Value("${app.media-cache.max-bytes:10737418240}")
+    private long maxBytes;
+
+    private Path cacheDir;
+
+    public MediaCache(MediaStorage mediaStorage, MeterRegistry meterRegistry) {
+        this.mediaStorage = mediaStorage;
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.stale = requestCounter(meterRegistry, "stale");
+        this.bytesSaved = Counter.builder("media.cache.bytes.saved")
+                .description("Bytes served from local disk instead of downloaded from storage")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("media.cache.evictions")
+                .register(meterRegistry);
+        Gauge.builder("media.cache.hit.ratio", this, cache -> ratio(cache.hits.count(),
+                        cache.misses.count() + cache.stale.count()))
+                .description("Share of media reads served from local disk")
+                .register(meterRegistry);
+        Gauge.builder("media.cache.bytes", this, MediaCache::cachedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("media.cache.entries", this, MediaCache::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        cacheDir = Paths.get(dir);
+        Files.createDirectories(cacheDir);
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(cacheDir)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        log.info("Media cache at {} holds up to {} bytes{}", cacheDir, maxBytes, enabled ? "" : " (disabled)");
+    }
+
+    /**
+     * Returns a lease on a local copy of the object, downloading it on a miss or when the cached
+     * copy's ETag no longer matches. Close the lease once the file has been read.
+     */
+    public Lease open(String objectName) throws IOException {
+        Entry cached;
+        synchronized (this) {
+            cached = enabled ? entries.get(objectName) : null;
+            if (cached != null) {
+                cached.leases++;
+            }
+        }
+
+        if (cached != null) {
+            String currentEtag;
+            try {
+                currentEtag = mediaStorage.getEtag(objectName);
+            } catch (IOException | RuntimeException e) {
+                release(cached);
+                throw e;
+            }
+            if (cached.etag != null && cached.etag.equals(currentEtag)) {
+                hits.increment();
+                bytesSaved.increment(cached.size);
+                return new Lease(this, cached, cached.path, cached.size);
+            }
+            stale.increment();
+            synchronized (this) {
+                remove(cached);
+            }
+            release(cached);
+        } else {
+            misses.increment();
+        }
+
+        Path file = cacheDir.resolve(UUID.randomUUID().toString());
+        String etag;
+        long size;
+        try {
+            etag = mediaStorage.downloadToFile(objectName, file);
+            size = Files.size(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        if (!enabled || size > maxBytes) {
+            // Not cached; the file is deleted when the lease is closed
+            return new Lease(this, null, file, size);
+        }
+
+        Entry entry = new Entry(objectName, file, size, etag);
+        entry.leases = 1;
+        synchronized (this) {
+            Entry previous = entries.put(objectName, entry);
+            cachedBytes += size;
+            if (previous != null) {
+                // Another reader downloaded it concurrently; the newer copy wins
+                cachedBytes -= previous.size;
+                previous.removed = true;
+                deleteIfUnleased(previous);
+            }
+            evictUntilWithinBudget();
+        }
+        return new Lease(this, entry, file, size);
+    }
+
+    public synchronized long cachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void release(Entry entry) {
+        synchronized (this) {
+            entry.leases--;
+            deleteIfUnleased(entry);
+            evictUntilWithinBudget();
+        }
+    }
+
+    // Caller holds the lock
+    private void remove(Entry entry) {
+        if (entries.get(entry.objectName) == entry) {
+            entries.remove(entry.objectName);
+            cachedBytes -= entry.size;
+        }
+        entry.removed = true;
+    }
+
+    // Caller holds the lock
+    private void evictUntilWithinBudget() {
+        Iterator<Entry> lru = entries.values().iterator();
+        while (cachedBytes > maxBytes && lru.hasNext()) {
+            Entry entry = lru.next();
+            if (entry.leases > 0) {
+                continue;
+            }
+            lru.remove();
+            cachedBytes -= entry.size;
+            entry.removed = true;
+            evictions.increment();
+            delete(entry.path);
+        }
+    }
+
+    // Caller holds the lock
+    private void deleteIfUnleased(Entry entry) {
+        if (entry.removed && entry.leases == 0) {
+            delete(entry.path);
+        }
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached media {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static double ratio(double hits, double others) {
+        double total = hits + others;
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("media.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class Entry {
+        final String objectName;
+        final Path path;
+        final long size;
+        final String etag;
+        int leases;
+        boolean removed;
+
+        Entry(String objectName, Path path, long size, String etag) {
+            this.objectName = objectName;
+            this.path = path;
+            this.size = size;
+            this.etag = etag;
+        }
+    }
+
+    /**
+     * Read access to a local copy of a media object. Closing it more than once has no effect.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final MediaCache cache;
+        private final Entry entry;
+        private final Path path;
+        private final long size;
+        private boolean closed;
+
+        private Lease(MediaCache cache, Entry entry, Path path, long size) {
+            this.cache = cache;
+            this.entry = entry;
+            this.path = path;
+            this.size = size;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (entry != null) {
+                cache.release(entry);
+            } else {
+                delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.datasource.ReplicaRoutingContext;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaStatusRecord;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionResultRepository;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionResultService.TranscriptionStatusResponse;
+import com.ahmedaziz.mediatranscriptionplatform.service.kafka.KafkaProducerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Write-through cache of the status endpoint's response, kept in Redis so any node can answer a
+ * status poll without touching Postgres. Every state transition re-reads the row from the primary,
+ * overwrites the cached entry, publishes it for {@link MediaStatusStreamService} and appends it to
+ * the compacted {@code media.status} topic that feeds each node's {@link MediaStatusStore}.
+ */
+@Service
+@Slf4j
+public class MediaStatusService {
+
+    private static final String KEY_PREFIX = "media-status::";
+
+    private final MediaFileRepository mediaFileRepository;
+    private final TranscriptionResultRepository transcriptionResultRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TranscriptNegativeCache transcriptNegativeCache;
+    private final KafkaProducerService kafkaProducerService;
+    private final MediaStatusStore mediaStatusStore;
+    private final ObjectMapper objectMapper;
+    private final Counter storeHits;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    @Value("${app.status-cache.ttl:86400}")
+    private long ttlSeconds;
+
+    @Value("${app.status-cache.channel:media-status-updates}")
+    private String channel;
+
+    public MediaStatusService(MediaFileRepository mediaFileRepository,
+                              TranscriptionResultRepository transcriptionResultRepository,
+                              StringRedisTemplate redisTemplate,
+                              TranscriptNegativeCache transcriptNegativeCache,
+                              KafkaProducerService kafkaProducerService,
+                              MediaStatusStore mediaStatusStore,
+                              MeterRegistry meterRegistry) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.transcriptionResultRepository = transcriptionResultRepository;
+        this.redisTemplate = redisTemplate;
+        this.transcriptNegativeCache = transcriptNegativeCache;
+        this.kafkaProducerService = kafkaProducerService;
+        this.mediaStatusStore = mediaStatusStore;
+
+        // Plain mapper: status entries are read by other nodes and by SSE clients as-is
+        this.objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        this.storeHits = Counter.builder("media.status.cache.requests")
+                .tag("result", "store")
+                .register(meterRegistry);
+        this.cacheHits = Counter.builder("media.status.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("media.status.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    public TranscriptionStatusResponse getStatus(Long mediaFileId) {
+        Optional<MediaStatusRecord> stored = mediaStatusStore.find(mediaFileId);
+        if (stored.isPresent()) {
+            storeHits.increment();
+            return toResponse(stored.get());
+        }
+
+        TranscriptionStatusResponse cached = readCached(mediaFileId);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+
+        cacheMisses.increment();
+        TranscriptionStatusResponse status = toResponse(load(mediaFileId));
+        // SET NX: a transition written while this (possibly replica) read was running wins
+        write(status, false);
+        return status;
+    }
+
+    /**
+     * Refreshes the cached status after a state transition and pushes it to subscribers.
+     * Inside a transaction this happens once the transaction commits.
+     */
+    public void onTransition(Long mediaFileId) {
+        transcriptNegativeCache.invalidate(mediaFileId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(mediaFileId);
+                }
+            });
+        } else {
+            refresh(mediaFileId);
+        }
+    }
+
+    /**
+     * Re-publishes the current state of the given media files to the status topic, or a tombstone
+     * for those that no longer exist. Used after partitions are archived or restored.
+     */
+    public void republish(Collection<Long> mediaFileIds) {
+        ReplicaRoutingContext.onPrimary(() -> {
+            Set<Long> withTranscription = new HashSet<>(transcriptionResultRepository.findMediaFileIdsIn(mediaFileIds));
+            Set<Long> missing = new HashSet<>(mediaFileIds);
+            for (MediaFile mediaFile : mediaFileRepository.findAllById(mediaFileIds)) {
+                missing.remove(mediaFile.getId());
+                kafkaProducerService.sendMediaStatus(
+                        MediaStatusRecord.of(mediaFile, withTranscription.contains(mediaFile.getId())));
+            }
+            missing.forEach(kafkaProducerService::sendMediaStatusTombstone);
+            return null;
+        });
+    }
+
+    String toJson(TranscriptionStatusResponse status) {
+        try {
+            return objectMapper.writeValueAsString(status);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not serialise status for media file ID: " + status.getMediaFileId(), e);
+        }
+    }
+
+    TranscriptionStatusResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, TranscriptionStatusResponse.class);
+        } catch (Exception e) {
+            log.warn("Discarding unreadable status entry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    String getChannel() {
+        return channel;
+    }
+
+    static boolean isTerminal(TranscriptionStatusResponse status) {
+        return MediaFile.ProcessingStatus.COMPLETED.name().equals(status.getStatus())
+                || MediaFile.ProcessingStatus.FAILED.name().equals(status.getStatus());
+    }
+
+    static TranscriptionStatusResponse toResponse(MediaStatusRecord record) {
+        String message = switch (record.getStatus()) {
+            case UPLOADED -> "File uploaded, waiting for processing";
+            case QUEUED -> "File queued for processing";
+            case PROCESSING -> "Transcription in progress";
+            case COMPLETED -> record.isHasTranscription() ?
+                    "Transcription completed successfully" :
+                    "Processing completed but transcription not found";
+            case FAILED -> "Transcription failed: " +
+                    (record.getErrorMessage() != null ? record.getErrorMessage() : "Unknown error");
+        };
+
+        return TranscriptionStatusResponse.builder()
+                .mediaFileId(record.getMediaFileId())
+                .status(record.getStatus().name())
+                .hasTranscription(record.isHasTranscription())
+                .message(message)
+                .processingStartedAt(record.getProcessingStartedAt())
+                .completedAt(record.getCompletedAt())
+                .errorMessage(record.getErrorMessage())
+                .retryCount(record.getRetryCount())
+                .build();
+    }
+
+    private void refresh(Long mediaFileId) {
+        MediaStatusRecord record;
+        try {
+            record = ReplicaRoutingContext.onPrimary(() -> load(mediaFileId));
+        } catch (IllegalArgumentException e) {
+            kafkaProducerService.sendMediaStatusTombstone(mediaFileId);
+            evict(mediaFileId);
+            return;
+        } catch (Exception e) {
+            log.warn("Failed to refresh cached status for media file ID: {}: {}", mediaFileId, e.getMessage());
+            evict(mediaFileId);
+            return;
+        }
+
+        try {
+            kafkaProducerService.sendMediaStatus(record);
+        } catch (Exception e) {
+            log.warn("Failed to publish status for media file ID: {}: {}", mediaFileId, e.getMessage());
+        }
+
+        try {
+            TranscriptionStatusResponse status = toResponse(record);
+            String json = write(status, true);
+            if (json != null) {
+                redisTemplate.convertAndSend(channel, json);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh cached status for media file ID: {}: {}", mediaFileId, e.getMessage());
+            evict(mediaFileId);
+        }
+    }
+
+    // A stale entry would outlive the transition, so drop it and let the next read reload
+    private void evict(Long mediaFileId) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + mediaFileId);
+        } catch (Exception ignored) {
+            // Redis is unreachable; its TTL bounds the staleness
+        }
+    }
+
+    private TranscriptionStatusResponse readCached(Long mediaFileId) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + mediaFileId);
+            return json != null ? fromJson(json) : null;
+        } catch (Exception e) {
+            log.warn("Status cache unavailable, reading from the database: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String write(TranscriptionStatusResponse status, boolean overwrite) {
+        try {
+            String json = toJson(status);
+            String key = KEY_PREFIX + status.getMediaFileId();
+            Duration ttl = Duration.ofSeconds(ttlSeconds);
+            if (overwrite) {
+                redisTemplate.opsForValue().set(key, json, ttl);
+            } else {
+                redisTemplate.opsForValue().setIfAbsent(key, json, ttl);
+            }
+            return json;
+        } catch (Exception e) {
+            log.warn("Failed to cache status for media file ID: {}: {}", status.getMediaFileId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private MediaStatusRecord load(Long mediaFileId) {
+        MediaFile mediaFile = ReplicaRoutingContext.withPrimaryFallback(() -> mediaFileRepository.findById(mediaFileId))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Media file not found with ID: " + mediaFileId));
+
+        return MediaStatusRecord.of(mediaFile, transcriptionResultRepository.existsByMediaFileId(mediaFileId));
+    }
+}
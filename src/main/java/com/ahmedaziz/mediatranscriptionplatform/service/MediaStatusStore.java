@@ -0,0 +1,271 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaStatusRecord;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Per-node materialised view of the compacted {@code media.status} topic, in the spirit of a
+ * Kafka Streams KTable. Every node reads all partitions from the beginning without joining a
+ * consumer group, so on startup it replays the changelog and then keeps tailing it. Until the
+ * replay has reached the end offsets seen at startup, {@link #isRestored()} is false and callers
+ * fall back to the database. They also fall back while the store is behind by more than
+ * max-lag-records, or while the newest applied record is older than max-staleness-ms and more
+ * records are waiting; see {@link #isCurrent()}.
+ */
+@Service
+@Slf4j
+public class MediaStatusStore {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private static final long LAG_CHECK_INTERVAL_MS = 5_000;
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final ConcurrentSkipListMap<Long, MediaStatusRecord> records = new ConcurrentSkipListMap<>();
+    private final Map<MediaFile.ProcessingStatus, ConcurrentSkipListSet<Long>> idsByStatus =
+            new EnumMap<>(MediaFile.ProcessingStatus.class);
+
+    private volatile boolean running;
+    private volatile boolean restored;
+    private volatile long lagRecords = -1;
+    private volatile long lastAppliedTimestamp;
+    private Thread pollThread;
+    private volatile Consumer<?, ?> consumer;
+
+    @Value("${kafka.topics.media-status}")
+    private String topic;
+
+    @Value("${app.status-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.status-store.max-lag-records:1000}")
+    private long maxLagRecords;
+
+    @Value("${app.status-store.max-staleness-ms:5000}")
+    private long maxStalenessMs;
+
+    public MediaStatusStore(ConsumerFactory<?, ?> consumerFactory, MeterRegistry meterRegistry) {
+        this.consumerFactory = consumerFactory;
+        for (MediaFile.ProcessingStatus status : MediaFile.ProcessingStatus.values()) {
+            idsByStatus.put(status, new ConcurrentSkipListSet<>());
+        }
+
+        Gauge.builder("media.status.store.records", records, Map::size)
+                .description("Media files held in the local status store")
+                .register(meterRegistry);
+        Gauge.builder("media.status.store.restored", this, store -> store.restored ? 1 : 0)
+                .register(meterRegistry);
+        Gauge.builder("media.status.store.lag", this, store -> store.lagRecords)
+                .description("Changelog records not yet applied, -1 until the first check")
+                .register(meterRegistry);
+        Gauge.builder("media.status.store.staleness", this, MediaStatusStore::stalenessSeconds)
+                .description("Age of the newest applied record while behind, 0 when caught up")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Media status store disabled, status reads go to Redis and the database");
+            return;
+        }
+        running = true;
+        pollThread = new Thread(this::run, "media-status-store");
+        pollThread.setDaemon(true);
+        pollThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        Consumer<?, ?> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (pollThread != null) {
+            pollThread.join(RETRY_DELAY.toMillis());
+        }
+    }
+
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /** Restored and close enough to the end of the changelog to answer reads. */
+    public boolean isCurrent() {
+        return restored && lagRecords <= maxLagRecords && stalenessSeconds() * 1000 <= maxStalenessMs;
+    }
+
+    public Optional<MediaStatusRecord> find(Long mediaFileId) {
+        return isCurrent() ? Optional.ofNullable(records.get(mediaFileId)) : Optional.empty();
+    }
+
+    /**
+     * Up to {@code max} records with an ID above {@code after}, in ID order, optionally restricted
+     * to one status. Only meaningful while {@link #isCurrent()}.
+     */
+    public List<MediaStatusRecord> list(MediaFile.ProcessingStatus status, long after, int max) {
+        NavigableSet<Long> ids = status != null
+                ? idsByStatus.get(status).tailSet(after, false)
+                : records.navigableKeySet().tailSet(after, false);
+        List<MediaStatusRecord> page = new ArrayList<>(Math.min(max, 256));
+        for (Long id : ids) {
+            MediaStatusRecord record = records.get(id);
+            // The index and the map are updated separately, so re-check against the record
+            if (record != null && (status == null || record.getStatus() == status)) {
+                page.add(record);
+                if (page.size() == max) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /** Applies one changelog entry; a null record is a tombstone. Called from the poll thread only. */
+    void apply(Long mediaFileId, MediaStatusRecord record) {
+        MediaStatusRecord previous = records.get(mediaFileId);
+        if (record == null) {
+            records.remove(mediaFileId);
+        } else if (previous == null || record.isNotOlderThan(previous)) {
+            records.put(mediaFileId, record);
+            idsByStatus.get(record.getStatus()).add(mediaFileId);
+        } else {
+            return;
+        }
+        if (previous != null && (record == null || previous.getStatus() != record.getStatus())) {
+            idsByStatus.get(previous.getStatus()).remove(mediaFileId);
+        }
+    }
+
+    void markRestored() {
+        restored = true;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                consume();
+            } catch (WakeupException e) {
+                // stop() was called
+            } catch (Exception e) {
+                // Serve from the database until the changelog has been replayed again
+                restored = false;
+                log.warn("Media status store consumer failed, restarting in {}s: {}",
+                        RETRY_DELAY.toSeconds(), e.getMessage());
+                sleep(RETRY_DELAY);
+            }
+        }
+    }
+
+    private void consume() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        overrides.put(JsonDeserializer.VALUE_DEFAULT_TYPE, MediaStatusRecord.class.getName());
+
+        // Partitions are assigned manually and nothing is committed, so the group never rebalances
+        try (Consumer<?, ?> kafkaConsumer = consumerFactory.createConsumer(null, "media-status-store", null, overrides)) {
+            consumer = kafkaConsumer;
+            List<TopicPartition> partitions = partitions(kafkaConsumer);
+            if (partitions.isEmpty()) {
+                throw new IllegalStateException("Topic " + topic + " has no partitions yet");
+            }
+            kafkaConsumer.assign(partitions);
+            kafkaConsumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> restoreTarget = kafkaConsumer.endOffsets(partitions);
+            long restoreStarted = System.currentTimeMillis();
+            long nextLagCheck = 0;
+
+            while (running) {
+                try {
+                    for (ConsumerRecord<?, ?> record : kafkaConsumer.poll(POLL_TIMEOUT)) {
+                        apply(Long.valueOf((String) record.key()), (MediaStatusRecord) record.value());
+                        lastAppliedTimestamp = record.timestamp();
+                    }
+                } catch (RecordDeserializationException e) {
+                    log.warn("Skipping unreadable status record at {}@{}: {}",
+                            e.topicPartition(), e.offset(), e.getMessage());
+                    kafkaConsumer.seek(e.topicPartition(), e.offset() + 1);
+                }
+
+                if (!restored && caughtUp(kafkaConsumer, restoreTarget)) {
+                    restored = true;
+                    log.info("Media status store restored {} records from {} in {} ms",
+                            records.size(), topic, System.currentTimeMillis() - restoreStarted);
+                }
+                if (System.currentTimeMillis() >= nextLagCheck) {
+                    lagRecords = lag(kafkaConsumer, partitions);
+                    nextLagCheck = System.currentTimeMillis() + LAG_CHECK_INTERVAL_MS;
+                }
+            }
+        } finally {
+            consumer = null;
+        }
+    }
+
+    private List<TopicPartition> partitions(Consumer<?, ?> kafkaConsumer) {
+        List<PartitionInfo> infos = kafkaConsumer.partitionsFor(topic);
+        if (infos == null) {
+            return List.of();
+        }
+        return infos.stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+    }
+
+    private static boolean caughtUp(Consumer<?, ?> kafkaConsumer, Map<TopicPartition, Long> target) {
+        for (Map.Entry<TopicPartition, Long> end : target.entrySet()) {
+            if (kafkaConsumer.position(end.getKey()) < end.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long lag(Consumer<?, ?> kafkaConsumer, List<TopicPartition> partitions) {
+        long lag = 0;
+        for (Map.Entry<TopicPartition, Long> end : kafkaConsumer.endOffsets(partitions).entrySet()) {
+            lag += Math.max(0, end.getValue() - kafkaConsumer.position(end.getKey()));
+        }
+        return lag;
+    }
+
+    private double stalenessSeconds() {
+        if (lagRecords == 0 || lastAppliedTimestamp == 0) {
+            return 0;
+        }
+        return Math.max(0, System.currentTimeMillis() - lastAppliedTimestamp) / 1000.0;
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionResultService.TranscriptionStatusResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes status transitions to server-sent-event subscribers. Transitions arrive over Redis
+ * pub/sub from whichever node performed them, so a client can stay connected to any node.
+ * Streams close after the first COMPLETED or FAILED event.
+ */
+@Service
+@Slf4j
+public class MediaStatusStreamService implements MessageListener {
+
+    private static final String EVENT_NAME = "status";
+
+    private final MediaStatusService mediaStatusService;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${app.status-stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public MediaStatusStreamService(MediaStatusService mediaStatusService,
+                                    RedisMessageListenerContainer listenerContainer,
+                                    MeterRegistry meterRegistry) {
+        this.mediaStatusService = mediaStatusService;
+        this.listenerContainer = listenerContainer;
+        Gauge.builder("media.status.stream.subscribers", subscribers,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .description("Open status event streams on this node")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribeToTransitions() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(mediaStatusService.getChannel()));
+    }
+
+    /**
+     * Opens a stream that starts with the current status. Registration happens before the
+     * current status is read, so a transition in between is delivered (possibly twice) rather than lost.
+     */
+    public SseEmitter subscribe(Long mediaFileId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Set<SseEmitter> emitters = subscribers.computeIfAbsent(mediaFileId, id -> ConcurrentHashMap.newKeySet());
+        emitters.add(emitter);
+        Runnable unregister = () -> unregister(mediaFileId, emitter);
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(error -> unregister.run());
+
+        TranscriptionStatusResponse current;
+        try {
+            current = mediaStatusService.getStatus(mediaFileId);
+        } catch (RuntimeException e) {
+            unregister.run();
+            throw e;
+        }
+        send(emitter, current, mediaStatusService.toJson(current));
+        return emitter;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String json = new String(message.getBody(), StandardCharsets.UTF_8);
+        TranscriptionStatusResponse status = mediaStatusService.fromJson(json);
+        if (status == null) {
+            return;
+        }
+
+        Set<SseEmitter> emitters = subscribers.get(status.getMediaFileId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, status, json));
+        }
+    }
+
+    // Keeps idle connections open through proxies and notices clients that went away
+    @Scheduled(fixedDelayString = "${app.status-stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(emitters -> emitters.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch (IOException | IllegalStateException e) {
+                emitter.complete();
+            }
+        }));
+    }
+
+    // Sent pre-serialised: the MVC converters would add the Redis mapper's type metadata
+    private void send(SseEmitter emitter, TranscriptionStatusResponse status, String json) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(json, MediaType.APPLICATION_JSON));
+            if (MediaStatusService.isTerminal(status)) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping status stream for media file ID: {}: {}", status.getMediaFileId(), e.getMessage());
+            emitter.complete();
+        }
+    }
+
+    private void unregister(Long mediaFileId, SseEmitter emitter) {
+        subscribers.computeIfPresent(mediaFileId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
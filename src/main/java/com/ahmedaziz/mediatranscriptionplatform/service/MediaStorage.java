@@ -0,0 +1,67 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Object storage for uploaded media, transcripts and partition archives. Objects are addressed by
+ * name; names may contain {@code /}. {@code app.storage.backend} picks the implementation:
+ * {@code minio} ({@link MinioStorageService}) or {@code local} ({@link LocalStorageService}).
+ */
+public interface MediaStorage {
+
+    /**
+     * Stores an uploaded file under a generated name.
+     *
+     * @return the object name
+     */
+    String uploadFile(MultipartFile file) throws IOException;
+
+    void uploadBytes(String objectName, byte[] data, String contentType) throws IOException;
+
+    void uploadFile(String objectName, Path file, String contentType,
+                    Map<String, String> userMetadata) throws IOException;
+
+    InputStream downloadFile(String objectName) throws IOException;
+
+    /**
+     * Copies an object to a local file.
+     *
+     * @return the object's ETag, without quotes
+     */
+    String downloadToFile(String objectName, Path target) throws IOException;
+
+    /**
+     * @return the object's current ETag, without quotes; changes whenever the object is replaced
+     */
+    String getEtag(String objectName) throws IOException;
+
+    default byte[] downloadFileAsBytes(String objectName) throws IOException {
+        try (InputStream stream = downloadFile(objectName)) {
+            return stream.readAllBytes();
+        }
+    }
+
+    void deleteFile(String objectName) throws IOException;
+
+    boolean fileExists(String objectName);
+
+    Map<String, String> getUserMetadata(String objectName) throws IOException;
+
+    /** Names of all objects under the prefix, at any depth. */
+    List<String> listObjects(String prefix) throws IOException;
+
+    static String generateObjectName(String originalFilename) {
+        String extension = "";
+        if (originalFilename != null && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return UUID.randomUUID().toString() + extension;
+    }
+}
@@ -1,11 +1,15 @@
 package com.ahmedaziz.mediatranscriptionplatform.service;
 
+import com.ahmedaziz.mediatranscriptionplatform.datasource.ReplicaRoutingContext;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaStatusRecord;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaUploadEvent;
+import com.ahmedaziz.mediatranscriptionplatform.dto.CursorPage;
 import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
 import com.ahmedaziz.mediatranscriptionplatform.service.kafka.KafkaProducerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -14,6 +18,7 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -21,8 +26,11 @@ import java.util.List;
 public class MediaUploadService {
 
     private final MediaFileRepository mediaFileRepository;
-    private final MinioStorageService minioStorageService;
+    private final MediaStorage mediaStorage;
     private final KafkaProducerService kafkaProducerService;
+    private final MediaStatusService mediaStatusService;
+    private final MediaStatusStore mediaStatusStore;
+    private final TranscriptionDispatcher transcriptionDispatcher;
 
     private static final List<String> ALLOWED_AUDIO_TYPES = Arrays.asList(
             "audio/mpeg", "audio/wav", "audio/mp3", "audio/mp4", "audio/ogg",
@@ -48,14 +56,17 @@ public class MediaUploadService {
     public MediaFile uploadMedia(MultipartFile file) throws IOException {
         log.info("Starting media upload process for file: {}", file.getOriginalFilename());
 
+        // Refuse before storing anything if the transcription backlog is already full
+        transcriptionDispatcher.checkAdmission();
+
         // Validation
         validateFile(file);
 
         // Determine media type
         MediaFile.MediaType mediaType = determineMediaType(file.getContentType(), file.getOriginalFilename());
-        // Upload to MinIO
-        String storageUrl = minioStorageService.uploadFile(file);
-        log.info("File uploaded to MinIO: {}", storageUrl);
+        // Upload to media storage
+        String storageUrl = mediaStorage.uploadFile(file);
+        log.info("File uploaded to storage: {}", storageUrl);
 
         // Save metadata to database
         MediaFile mediaFile = MediaFile.builder()
@@ -71,6 +82,7 @@ public class MediaUploadService {
 
         mediaFile = mediaFileRepository.save(mediaFile);
         log.info("Media file metadata saved with ID: {}", mediaFile.getId());
+        mediaStatusService.onTransition(mediaFile.getId());
 
         // Send Kafka event
         MediaUploadEvent event = MediaUploadEvent.builder()
@@ -164,15 +176,34 @@ public class MediaUploadService {
     }
 
     public MediaFile getMediaFile(Long id) {
-        return mediaFileRepository.findById(id)
+        return ReplicaRoutingContext.withPrimaryFallback(() -> mediaFileRepository.findById(id))
                 .orElseThrow(() -> new IllegalArgumentException("Media file not found with ID: " + id));
     }
 
-    public List<MediaFile> getAllMediaFiles() {
-        return mediaFileRepository.findAll();
+    public CursorPage<MediaFile> getMediaFilesPage(MediaFile.ProcessingStatus status, Long after, int limit) {
+        CursorPage.checkLimit(limit);
+        long cursor = after != null ? after : 0L;
+        if (mediaStatusStore.isCurrent()) {
+            List<MediaFile> rows = mediaStatusStore.list(status, cursor, limit + 1).stream()
+                    .map(MediaStatusRecord::toMediaFile)
+                    .toList();
+            return CursorPage.of(rows, limit, MediaFile::getId, Function.identity());
+        }
+
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<MediaFile> rows = status != null
+                ? mediaFileRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, cursor, fetchLimit)
+                : mediaFileRepository.findByIdGreaterThanOrderByIdAsc(cursor, fetchLimit);
+
+        return CursorPage.of(rows, limit, MediaFile::getId, Function.identity());
     }
 
     public List<MediaFile> getMediaFilesByStatus(MediaFile.ProcessingStatus status) {
+        if (mediaStatusStore.isCurrent()) {
+            return mediaStatusStore.list(status, 0L, Integer.MAX_VALUE).stream()
+                    .map(MediaStatusRecord::toMediaFile)
+                    .toList();
+        }
         return mediaFileRepository.findByStatus(status);
     }
 }
@@ -1,58 +1,86 @@
 package com.ahmedaziz.mediatranscriptionplatform.service;
 
+import com.ahmedaziz.mediatranscriptionplatform.service.DownstreamLimiter.Downstream;
+import com.ahmedaziz.mediatranscriptionplatform.service.DownstreamLimiter.Permit;
 import io.minio.*;
 import io.minio.errors.*;
 import io.minio.http.Method;
-import lombok.RequiredArgsConstructor;
+import io.minio.messages.Item;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import jakarta.annotation.PostConstruct;
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * {@link MediaStorage} on a MinIO bucket. The bucket is checked, and created if missing, on the
+ * first write rather than at startup, so the application starts while MinIO is unreachable.
+ */
 @Service
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "minio", matchIfMissing = true)
 @Slf4j
-public class MinioStorageService {
+public class MinioStorageService implements MediaStorage {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
 
     private final MinioClient minioClient;
+    private final DownstreamLimiter downstreamLimiter;
+    private final SimpleAsyncTaskExecutor rangeExecutor;
 
     @Value("${minio.bucket-name}")
     private String bucketName;
 
-    @PostConstruct
-    public void init() {
-        try {
-            boolean bucketExists = minioClient.bucketExists(
-                    BucketExistsArgs.builder().bucket(bucketName).build()
-            );
+    @Value("${app.media-download.range-size-bytes:16777216}")
+    private long rangeSizeBytes;
 
-            if (!bucketExists) {
-                minioClient.makeBucket(
-                        MakeBucketArgs.builder().bucket(bucketName).build()
-                );
-                log.info("Created MinIO bucket: {}", bucketName);
-            } else {
-                log.info("MinIO bucket already exists: {}", bucketName);
-            }
-        } catch (Exception e) {
-            log.error("Error initializing MinIO bucket", e);
-            throw new RuntimeException("Failed to initialize MinIO bucket", e);
-        }
+    @Value("${app.media-download.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.media-download.max-attempts:3}")
+    private int maxAttempts;
+
+    private volatile boolean bucketReady;
+
+    public MinioStorageService(MinioClient minioClient, DownstreamLimiter downstreamLimiter,
+                               Environment environment) {
+        this.minioClient = minioClient;
+        this.downstreamLimiter = downstreamLimiter;
+        this.rangeExecutor = new SimpleAsyncTaskExecutor("minio-range-");
+        rangeExecutor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        rangeExecutor.setDaemon(true);
     }
 
+    @Override
     public String uploadFile(MultipartFile file) throws IOException {
-        String objectName = generateObjectName(file.getOriginalFilename());
+        String objectName = MediaStorage.generateObjectName(file.getOriginalFilename());
 
-        try (InputStream inputStream = file.getInputStream()) {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit; InputStream inputStream = file.getInputStream()) {
+            ensureBucket();
             minioClient.putObject(
                     PutObjectArgs.builder()
                             .bucket(bucketName)
@@ -72,9 +100,11 @@ public class MinioStorageService {
     }
 
     public String uploadFile(InputStream inputStream, String filename, String contentType, long size) throws IOException {
-        String objectName = generateObjectName(filename);
+        String objectName = MediaStorage.generateObjectName(filename);
 
-        try {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit) {
+            ensureBucket();
             minioClient.putObject(
                     PutObjectArgs.builder()
                             .bucket(bucketName)
@@ -93,28 +123,289 @@ public class MinioStorageService {
         }
     }
 
+    @Override
+    public void uploadBytes(String objectName, byte[] data, String contentType) throws IOException {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit) {
+            ensureBucket();
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName)
+                            .stream(new ByteArrayInputStream(data), data.length, -1)
+                            .contentType(contentType)
+                            .build()
+            );
+
+            log.debug("Object uploaded successfully: {} ({} bytes)", objectName, data.length);
+
+        } catch (Exception e) {
+            log.error("Error uploading object to MinIO: {}", objectName, e);
+            throw new IOException("Failed to upload object to MinIO", e);
+        }
+    }
+
+    @Override
+    public void uploadFile(String objectName, Path file, String contentType,
+                           Map<String, String> userMetadata) throws IOException {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit) {
+            ensureBucket();
+            minioClient.uploadObject(
+                    UploadObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName)
+                            .filename(file.toString())
+                            .contentType(contentType)
+                            .userMetadata(userMetadata)
+                            .build()
+            );
+
+            log.info("Object uploaded successfully: {} ({} bytes)", objectName, Files.size(file));
+
+        } catch (Exception e) {
+            log.error("Error uploading object to MinIO: {}", objectName, e);
+            throw new IOException("Failed to upload object to MinIO", e);
+        }
+    }
+
+    /**
+     * Streams an object. The MinIO permit is held until the returned stream is closed.
+     */
+    @Override
     public InputStream downloadFile(String objectName) throws IOException {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
         try {
-            return minioClient.getObject(
+            InputStream object = minioClient.getObject(
                     GetObjectArgs.builder()
                             .bucket(bucketName)
                             .object(objectName)
                             .build()
             );
+            return new FilterInputStream(object) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        permit.close();
+                    }
+                }
+            };
         } catch (Exception e) {
+            permit.close();
             log.error("Error downloading file from MinIO: {}", objectName, e);
             throw new IOException("Failed to download file from MinIO", e);
         }
     }
 
-    public byte[] downloadFileAsBytes(String objectName) throws IOException {
-        try (InputStream stream = downloadFile(objectName)) {
-            return stream.readAllBytes();
+    /**
+     * Downloads an object to a local file in ranges of {@code range-size-bytes}, fetched over up to
+     * {@code parallelism} connections and written in place. The first range's response also gives
+     * the object's size, so objects within one range still take a single request. A failed range is
+     * resumed from its last written byte, up to {@code max-attempts} times, and later requests only
+     * match the ETag of the first response. Each connection holds its own MinIO permit. The calling
+     * thread waits for its permits; helper connections are only opened for permits that are free
+     * right away and keep theirs until they finish, so a busy node downloads over fewer connections
+     * instead of parking helpers behind callers that already hold a permit.
+     *
+     * @return the object's ETag, without quotes
+     */
+    @Override
+    public String downloadToFile(String objectName, Path target) throws IOException {
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            GetObjectResponse first;
+            try {
+                first = openRange(objectName, null, 0, rangeSizeBytes, null);
+            } catch (ErrorResponseException e) {
+                if ("InvalidRange".equals(e.errorResponse().code())) {
+                    // Empty object; there is no byte 0 to ask for
+                    return downloadWhole(objectName, file);
+                }
+                throw downloadFailed(objectName, e);
+            } catch (Exception e) {
+                throw downloadFailed(objectName, e);
+            }
+
+            String etag = unquote(first.headers().get("ETag"));
+            long size = objectSize(first);
+            List<Range> ranges = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += rangeSizeBytes) {
+                ranges.add(new Range(offset, Math.min(rangeSizeBytes, size - offset)));
+            }
+
+            AtomicInteger nextRange = new AtomicInteger(1);
+            AtomicBoolean aborted = new AtomicBoolean();
+            List<CompletableFuture<Void>> helpers = new ArrayList<>();
+            try {
+                for (int i = 0; i < Math.min(parallelism - 1, ranges.size() - 1); i++) {
+                    Permit permit = downstreamLimiter.tryAcquire(Downstream.MINIO).orElse(null);
+                    if (permit == null) {
+                        break;
+                    }
+                    helpers.add(CompletableFuture.runAsync(() -> {
+                        try (permit) {
+                            fetchRanges(objectName, etag, ranges, nextRange, aborted, file, permit);
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, rangeExecutor));
+                }
+                if (!ranges.isEmpty()) {
+                    fetchRange(objectName, etag, ranges.get(0), first, file, null);
+                }
+                fetchRanges(objectName, etag, ranges, nextRange, aborted, file, null);
+                CompletableFuture.allOf(helpers.toArray(CompletableFuture[]::new)).join();
+            } catch (IOException | RuntimeException e) {
+                aborted.set(true);
+                helpers.forEach(helper -> helper.exceptionally(error -> null).join());
+                throw downloadFailed(objectName, e instanceof CompletionException && e.getCause() instanceof Exception
+                        ? (Exception) e.getCause() : e);
+            } finally {
+                first.close();
+            }
+            return etag;
+        }
+    }
+
+    private void fetchRanges(String objectName, String etag, List<Range> ranges, AtomicInteger nextRange,
+                             AtomicBoolean aborted, FileChannel file, Permit held) throws IOException {
+        for (int i = nextRange.getAndIncrement(); i < ranges.size() && !aborted.get(); i = nextRange.getAndIncrement()) {
+            fetchRange(objectName, etag, ranges.get(i), null, file, held);
         }
     }
 
-    public void deleteFile(String objectName) throws IOException {
+    /**
+     * Writes one range into the file with positional writes, so ranges can be written concurrently.
+     * {@code opened} is a response already streaming the range's first byte, or null. {@code held}
+     * is a permit the connection already holds, or null to take one per request.
+     */
+    private void fetchRange(String objectName, String etag, Range range, InputStream opened,
+                            FileChannel file, Permit held) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        long written = 0;
+        for (int attempt = 1; ; attempt++) {
+            InputStream reused = opened;
+            opened = null;
+            try (InputStream body = reused != null ? reused
+                    : openRange(objectName, etag, range.offset() + written, range.length() - written, held)) {
+                int read;
+                while (written < range.length()
+                        && (read = body.read(buffer, 0, (int) Math.min(buffer.length, range.length() - written))) > 0) {
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        written += file.write(chunk, range.offset() + written);
+                    }
+                }
+                if (written == range.length()) {
+                    return;
+                }
+                throw new IOException("Range ended after " + written + " of " + range.length() + " bytes");
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    throw new IOException("Failed to download bytes " + range.offset() + "-"
+                            + (range.end()) + " of " + objectName + " after " + attempt + " attempts", e);
+                }
+                log.warn("Retrying bytes {}-{} of {} from byte {} (attempt {}): {}", range.offset(), range.end(),
+                        objectName, range.offset() + written, attempt + 1, e.getMessage());
+            }
+        }
+    }
+
+    /** A ranged GET under {@code held}, or under a MinIO permit of its own until the response is closed. */
+    private GetObjectResponse openRange(String objectName, String etag, long offset, long length,
+                                        Permit held) throws Exception {
+        Permit permit = held != null ? null : downstreamLimiter.acquire(Downstream.MINIO);
         try {
+            GetObjectArgs.Builder args = GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .offset(offset)
+                    .length(length);
+            if (etag != null) {
+                // A range of a replaced object must not be mixed into the file
+                args.matchETag(etag);
+            }
+            GetObjectResponse response = minioClient.getObject(args.build());
+            return new GetObjectResponse(response.headers(), response.bucket(), response.region(),
+                    response.object(), response) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (permit != null) {
+                            permit.close();
+                        }
+                    }
+                }
+            };
+        } catch (Exception e) {
+            if (permit != null) {
+                permit.close();
+            }
+            throw e;
+        }
+    }
+
+    private String downloadWhole(String objectName, FileChannel file) throws IOException {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit; GetObjectResponse object = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .build())) {
+            file.transferFrom(Channels.newChannel(object), 0, Long.MAX_VALUE);
+            return unquote(object.headers().get("ETag"));
+        } catch (Exception e) {
+            throw downloadFailed(objectName, e);
+        }
+    }
+
+    // "Content-Range: bytes 0-16777215/524288000"; without it the server sent the whole object
+    private static long objectSize(GetObjectResponse response) {
+        String contentRange = response.headers().get("Content-Range");
+        if (contentRange != null) {
+            return Long.parseLong(contentRange.substring(contentRange.lastIndexOf('/') + 1).trim());
+        }
+        return Long.parseLong(response.headers().get("Content-Length"));
+    }
+
+    private static IOException downloadFailed(String objectName, Exception e) {
+        log.error("Error downloading file from MinIO: {}", objectName, e);
+        return e instanceof IOException io ? io : new IOException("Failed to download file from MinIO", e);
+    }
+
+    private record Range(long offset, long length) {
+        long end() {
+            return offset + length - 1;
+        }
+    }
+
+    /**
+     * @return the object's current ETag, without quotes
+     */
+    @Override
+    public String getEtag(String objectName) throws IOException {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit) {
+            return unquote(minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName)
+                            .build()
+            ).etag());
+        } catch (Exception e) {
+            log.error("Error reading ETag from MinIO: {}", objectName, e);
+            throw new IOException("Failed to stat file in MinIO", e);
+        }
+    }
+
+    @Override
+    public void deleteFile(String objectName) throws IOException {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit) {
             minioClient.removeObject(
                     RemoveObjectArgs.builder()
                             .bucket(bucketName)
@@ -144,8 +435,10 @@ public class MinioStorageService {
         }
     }
 
+    @Override
     public boolean fileExists(String objectName) {
-        try {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit) {
             minioClient.statObject(
                     StatObjectArgs.builder()
                             .bucket(bucketName)
@@ -158,15 +451,65 @@ public class MinioStorageService {
         }
     }
 
-    private String generateObjectName(String originalFilename) {
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+    @Override
+    public Map<String, String> getUserMetadata(String objectName) throws IOException {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit) {
+            return minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName)
+                            .build()
+            ).userMetadata();
+        } catch (Exception e) {
+            log.error("Error reading metadata from MinIO: {}", objectName, e);
+            throw new IOException("Failed to read object metadata from MinIO", e);
+        }
+    }
+
+    @Override
+    public List<String> listObjects(String prefix) throws IOException {
+        Permit permit = downstreamLimiter.acquire(Downstream.MINIO);
+        try (permit) {
+            List<String> names = new ArrayList<>();
+            for (Result<Item> result : minioClient.listObjects(
+                    ListObjectsArgs.builder()
+                            .bucket(bucketName)
+                            .prefix(prefix)
+                            .recursive(true)
+                            .build())) {
+                names.add(result.get().objectName());
+            }
+            return names;
+        } catch (Exception e) {
+            log.error("Error listing objects in MinIO under: {}", prefix, e);
+            throw new IOException("Failed to list objects in MinIO", e);
+        }
+    }
+
+    private void ensureBucket() throws Exception {
+        if (bucketReady) {
+            return;
+        }
+        synchronized (this) {
+            if (bucketReady) {
+                return;
+            }
+            if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build())) {
+                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+                log.info("Created MinIO bucket: {}", bucketName);
+            }
+            bucketReady = true;
         }
-        return UUID.randomUUID().toString() + extension;
     }
 
     public String getBucketName() {
         return bucketName;
     }
-}
\ No newline at end of file
+
+    private static String unquote(String etag) {
+        return etag != null && etag.length() > 1 && etag.startsWith("\"") && etag.endsWith("\"")
+                ? etag.substring(1, etag.length() - 1)
+                : etag;
+    }
+}
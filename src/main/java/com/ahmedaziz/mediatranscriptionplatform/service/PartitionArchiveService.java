@@ -0,0 +1,383 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.dto.RetentionRunResponse;
+import com.ahmedaziz.mediatranscriptionplatform.service.TablePartitionService.PartitionInfo;
+import com.ahmedaziz.mediatranscriptionplatform.service.TablePartitionService.PartitionedTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives expired monthly partitions to MinIO as gzipped NDJSON and restores them on demand.
+ * <p>
+ * A partition is detached with {@code DETACH PARTITION ... CONCURRENTLY}, so neither readers nor
+ * writers of the parent table are blocked. Its bounds are kept in a table comment until it has been
+ * exported and dropped, which makes an interrupted run resumable. Both directions re-publish the
+ * affected media files to the status topic so every node's {@link MediaStatusStore} follows.
+ */
+@Service
+@Slf4j
+public class PartitionArchiveService {
+
+    private static final String ARCHIVE_PENDING = "archive-pending:";
+    private static final String RESTORED_AT = "restored-at:";
+    private static final int FETCH_SIZE = 1000;
+    private static final int RESTORE_BATCH_SIZE = 1000;
+    private static final Pattern BOUND = Pattern.compile(
+            "FOR VALUES FROM \\((MINVALUE|'[0-9: -]+'|\\d+)\\) TO \\((MAXVALUE|'[0-9: -]+'|\\d+)\\)");
+    private static final Pattern PARTITION_NAME = Pattern.compile("[a-z_]+_(p\\d{6}|legacy)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TablePartitionService tablePartitionService;
+    private final MediaStorage mediaStorage;
+    private final MediaStatusService mediaStatusService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.retention.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${app.retention.restored-hold-days:7}")
+    private int restoredHoldDays;
+
+    @Value("${app.retention.archive-prefix:archive/}")
+    private String archivePrefix;
+
+    public PartitionArchiveService(JdbcTemplate jdbcTemplate,
+                                   TablePartitionService tablePartitionService,
+                                   MediaStorage mediaStorage,
+                                   MediaStatusService mediaStatusService,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tablePartitionService = tablePartitionService;
+        this.mediaStorage = mediaStorage;
+        this.mediaStatusService = mediaStatusService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Detaches every partition whose range ended more than retention-days ago, then exports
+     * and drops every detached partition still waiting to be archived.
+     */
+    public RetentionRunResponse runRetention() {
+        return jdbcTemplate.execute((ConnectionCallback<RetentionRunResponse>) connection -> {
+            RetentionRunResponse report = new RetentionRunResponse(new ArrayList<>(), new ArrayList<>(), 0);
+            if (!tryLock(connection)) {
+                log.info("Partition maintenance is running elsewhere, skipping retention");
+                return report;
+            }
+
+            try {
+                LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+                for (PartitionedTable table : TablePartitionService.TABLES) {
+                    for (PartitionInfo partition : tablePartitionService.listPartitions(table)) {
+                        if (isExpired(partition, cutoff)) {
+                            detach(connection, table, partition);
+                            report.getDetached().add(partition.name());
+                        }
+                    }
+
+                    for (Map.Entry<String, String> pending : findArchivePending(connection, table).entrySet()) {
+                        long rows = archive(connection, table, pending.getKey(), pending.getValue());
+                        report.getArchived().add(pending.getKey());
+                        report.setRowsArchived(report.getRowsArchived() + rows);
+                    }
+                }
+            } catch (IOException e) {
+                throw new SQLException("Partition archival failed", e);
+            } finally {
+                unlock(connection);
+            }
+
+            log.info("Retention run finished: detached {}, archived {} ({} rows)",
+                    report.getDetached(), report.getArchived(), report.getRowsArchived());
+            return report;
+        });
+    }
+
+    /**
+     * Loads an archived partition back into its table under its original bounds.
+     * Restored partitions are left alone by retention for restored-hold-days.
+     *
+     * @return number of rows restored
+     */
+    public long restore(String tableName, String partition) throws IOException {
+        PartitionedTable table = tablePartitionService.findTable(tableName)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown partitioned table: " + tableName));
+        if (!PARTITION_NAME.matcher(partition).matches() || !partition.startsWith(tableName + "_")) {
+            throw new IllegalArgumentException("Invalid partition name: " + partition);
+        }
+
+        String objectName = archiveObjectName(table, partition);
+        if (!mediaStorage.fileExists(objectName)) {
+            throw new IllegalArgumentException("No archive found for partition: " + partition);
+        }
+        String bound = mediaStorage.getUserMetadata(objectName).get("bound");
+        if (bound == null || !BOUND.matcher(bound).matches()) {
+            throw new IllegalStateException("Archive " + objectName + " has no valid partition bound");
+        }
+
+        Long restored = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            if (!tryLock(connection)) {
+                throw new IllegalStateException("Partition maintenance is running, retry later");
+            }
+            try {
+                if (tableExists(connection, partition)) {
+                    throw new IllegalStateException("Partition already exists: " + partition);
+                }
+                long rows = load(connection, table, partition, bound, objectName);
+                republishStatuses(connection, table, partition);
+                return rows;
+            } catch (IOException e) {
+                throw new SQLException("Restoring " + partition + " failed", e);
+            } finally {
+                unlock(connection);
+            }
+        });
+
+        log.info("Restored {} rows into {} from {}", restored, partition, objectName);
+        return restored != null ? restored : 0;
+    }
+
+    public List<String> listArchives() throws IOException {
+        return mediaStorage.listObjects(archivePrefix);
+    }
+
+    private boolean isExpired(PartitionInfo partition, LocalDateTime cutoff) {
+        if (partition.upperBound() == null || partition.upperBound().isAfter(cutoff)) {
+            return false;
+        }
+        String comment = partition.comment();
+        if (comment != null && comment.startsWith(RESTORED_AT)) {
+            LocalDateTime restoredAt = LocalDateTime.parse(comment.substring(RESTORED_AT.length()));
+            return restoredAt.plusDays(restoredHoldDays).isBefore(LocalDateTime.now());
+        }
+        return true;
+    }
+
+    private void detach(Connection connection, PartitionedTable table, PartitionInfo partition) throws SQLException {
+        execute(connection, "COMMENT ON TABLE " + partition.name() + " IS "
+                + literal(ARCHIVE_PENDING + partition.bound()));
+        // CONCURRENTLY cannot run inside a transaction block; FINALIZE completes an interrupted detach
+        execute(connection, "ALTER TABLE " + table.name() + " DETACH PARTITION " + partition.name()
+                + (partition.detachPending() ? " FINALIZE" : " CONCURRENTLY"));
+        log.info("Detached partition {} ({})", partition.name(), partition.bound());
+    }
+
+    private Map<String, String> findArchivePending(Connection connection, PartitionedTable table) throws SQLException {
+        Map<String, String> pending = new TreeMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relname, obj_description(c.oid, 'pg_class') FROM pg_class c " +
+                        "WHERE c.relkind = 'r' AND NOT c.relispartition AND c.relname LIKE ? " +
+                        "AND obj_description(c.oid, 'pg_class') LIKE ?")) {
+            statement.setString(1, table.name().replace("_", "\\_") + "\\_%");
+            statement.setString(2, ARCHIVE_PENDING + "%");
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    pending.put(rows.getString(1), rows.getString(2).substring(ARCHIVE_PENDING.length()));
+                }
+            }
+        }
+        return pending;
+    }
+
+    private long archive(Connection connection, PartitionedTable table, String partition, String bound)
+            throws SQLException, IOException {
+        Path file = Files.createTempFile(partition, ".ndjson.gz");
+        try {
+            long rows = 0;
+            connection.setAutoCommit(false);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8));
+                 Statement statement = connection.createStatement()) {
+                // A fetch size only streams with autocommit off
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery(
+                        "SELECT row_to_json(t)::text FROM " + partition + " t")) {
+                    while (resultSet.next()) {
+                        out.write(resultSet.getString(1));
+                        out.write('\n');
+                        rows++;
+                    }
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(true);
+            }
+
+            String objectName = archiveObjectName(table, partition);
+            mediaStorage.uploadFile(objectName, file, "application/gzip", Map.of(
+                    "table", table.name(),
+                    "partition", partition,
+                    "bound", bound,
+                    "rows", Long.toString(rows)));
+
+            // Detached rows are no longer visible through the parent, so these publish the post-archive state
+            republishStatuses(connection, table, partition);
+            dropArchived(connection, table, partition);
+
+            meterRegistry.counter("retention.partitions.archived", "table", table.name()).increment();
+            meterRegistry.counter("retention.rows.archived", "table", table.name()).increment(rows);
+            log.info("Archived {} rows of {} to {} and dropped the partition", rows, partition, objectName);
+            return rows;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // The archived files may be transcribed again, so their keys go with the rows
+    private static void dropArchived(Connection connection, PartitionedTable table, String partition)
+            throws SQLException {
+        if (table.keyTable() == null) {
+            execute(connection, "DROP TABLE " + partition);
+            return;
+        }
+        connection.setAutoCommit(false);
+        try {
+            execute(connection, "DELETE FROM " + table.keyTable() + " k USING " + partition + " p WHERE k."
+                    + table.mediaFileIdColumn() + " = p." + table.mediaFileIdColumn());
+            execute(connection, "DROP TABLE " + partition);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private long load(Connection connection, PartitionedTable table, String partition, String bound,
+                      String objectName) throws SQLException, IOException {
+        long rows = 0;
+        connection.setAutoCommit(false);
+        try (InputStream archive = mediaStorage.downloadFile(objectName);
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     new GZIPInputStream(archive), StandardCharsets.UTF_8))) {
+            execute(connection, "CREATE TABLE " + partition + " (LIKE " + table.name()
+                    + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING STORAGE)");
+
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + partition
+                    + " SELECT * FROM json_populate_recordset(NULL::" + partition + ", CAST(? AS json))")) {
+                List<String> batch = new ArrayList<>(RESTORE_BATCH_SIZE);
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        batch.add(line);
+                    }
+                    if (batch.size() == RESTORE_BATCH_SIZE) {
+                        rows += insertBatch(insert, batch);
+                    }
+                }
+                rows += insertBatch(insert, batch);
+            }
+
+            // Fails the restore if a file was transcribed again after its result was archived
+            if (table.keyTable() != null) {
+                execute(connection, "INSERT INTO " + table.keyTable() + " SELECT " + table.mediaFileIdColumn()
+                        + " FROM " + partition);
+            }
+            // The new table is not visible to anyone else yet, so validating the bound only locks it
+            execute(connection, "ALTER TABLE " + table.name() + " ATTACH PARTITION " + partition + " " + bound);
+            execute(connection, "COMMENT ON TABLE " + partition + " IS "
+                    + literal(RESTORED_AT + LocalDateTime.now()));
+            connection.commit();
+            return rows;
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void republishStatuses(Connection connection, PartitionedTable table, String partition)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery(
+                    "SELECT DISTINCT " + table.mediaFileIdColumn() + " FROM " + partition)) {
+                List<Long> batch = new ArrayList<>(RESTORE_BATCH_SIZE);
+                while (resultSet.next()) {
+                    batch.add(resultSet.getLong(1));
+                    if (batch.size() == RESTORE_BATCH_SIZE) {
+                        mediaStatusService.republish(batch);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    mediaStatusService.republish(batch);
+                }
+            }
+            connection.commit();
+        } catch (RuntimeException e) {
+            // Best effort: the partition operation itself has already succeeded
+            connection.rollback();
+            log.warn("Failed to re-publish statuses for {}: {}", partition, e.getMessage());
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static long insertBatch(PreparedStatement insert, List<String> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        insert.setString(1, "[" + String.join(",", batch) + "]");
+        insert.executeUpdate();
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    private String archiveObjectName(PartitionedTable table, String partition) {
+        return archivePrefix + table.name() + "/" + partition + ".ndjson.gz";
+    }
+
+    private static boolean tableExists(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            statement.setString(1, name);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() && rows.getBoolean(1);
+            }
+        }
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT pg_try_advisory_lock(" + TablePartitionService.ADVISORY_LOCK_KEY + ")")) {
+            return rows.next() && rows.getBoolean(1);
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        execute(connection, "SELECT pg_advisory_unlock(" + TablePartitionService.ADVISORY_LOCK_KEY + ")");
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,269 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code media_files} and {@code transcription_results} range-partitioned by month.
+ * Hibernate creates both as plain tables, so on first start each one is converted in a single
+ * transaction: the existing table becomes the {@code _legacy} partition covering everything
+ * before next month, and monthly partitions are created ahead of time from then on.
+ * <p>
+ * {@code transcription_results} is partitioned by {@code completed_at}. {@code media_files} is
+ * read and updated by id on every status transition, so it is partitioned by id instead: at the
+ * start of each month its sequence jumps to {@code yyyyMM * IDS_PER_MONTH}, and each monthly
+ * partition covers the ids of one month. Lookups by id then touch a single partition.
+ * <p>
+ * A unique index on a partitioned table must include the partition key, so it cannot keep a
+ * column unique on its own. Tables that need that get a small non-partitioned key table holding
+ * the column as its primary key, written in the same transaction as the row.
+ */
+@Service
+@Slf4j
+public class TablePartitionService {
+
+    // Serialises partition DDL, retention and restore across instances
+    public static final long ADVISORY_LOCK_KEY = 0x6d7470L;
+
+    // Ids stay below 2^53 until the year 9007, so JSON clients keep them exact
+    public static final long IDS_PER_MONTH = 10_000_000_000L;
+
+    public static final List<PartitionedTable> TABLES = List.of(
+            new PartitionedTable("media_files", "id", "media_files_seq", "id", null),
+            new PartitionedTable("transcription_results", "completed_at", null, "media_file_id",
+                    "transcription_result_keys"));
+
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\((?:'([^']+)'|(\\d+))\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.partitioning.premake-months:3}")
+    private int premakeMonths;
+
+    public TablePartitionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void initialisePartitions() {
+        for (PartitionedTable table : TABLES) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + ADVISORY_LOCK_KEY + ")");
+                if (!isPartitioned(table.name())) {
+                    convertToPartitioned(table);
+                } else if (!hasPartitionKey(table)) {
+                    log.warn("{} is partitioned by another column than {}; leaving its partitions alone",
+                            table.name(), table.partitionColumn());
+                    return;
+                }
+                if (table.keyTable() != null) {
+                    ensureKeyTable(table);
+                }
+                createUpcomingPartitions(table);
+            });
+        }
+    }
+
+    @Scheduled(cron = "${app.partitioning.maintenance-cron:0 30 0 * * *}")
+    public void createUpcomingPartitions() {
+        for (PartitionedTable table : TABLES) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + ADVISORY_LOCK_KEY + ")");
+                if (hasPartitionKey(table)) {
+                    createUpcomingPartitions(table);
+                }
+            });
+        }
+    }
+
+    public List<PartitionInfo> listPartitions(PartitionedTable table) {
+        return jdbcTemplate.query(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), i.inhdetachpending, " +
+                        "obj_description(c.oid, 'pg_class'), GREATEST(c.reltuples, 0)::bigint " +
+                        "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = CAST(? AS regclass) ORDER BY c.relname",
+                (rs, rowNum) -> new PartitionInfo(
+                        table.name(),
+                        rs.getString(1),
+                        rs.getString(2),
+                        upperBound(rs.getString(2)),
+                        rs.getBoolean(3),
+                        rs.getString(4),
+                        rs.getLong(5)),
+                table.name());
+    }
+
+    public Optional<PartitionedTable> findTable(String name) {
+        return TABLES.stream().filter(table -> table.name().equals(name)).findFirst();
+    }
+
+    private boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT relkind = 'p' FROM pg_class WHERE oid = CAST(? AS regclass)", Boolean.class, table));
+    }
+
+    private boolean hasPartitionKey(PartitionedTable table) {
+        return table.partitionColumn().equals(jdbcTemplate.queryForObject(
+                "SELECT a.attname FROM pg_partitioned_table p JOIN pg_attribute a " +
+                        "ON a.attrelid = p.partrelid AND a.attnum = p.partattrs[0] " +
+                        "WHERE p.partrelid = CAST(? AS regclass)", String.class, table.name()));
+    }
+
+    private void convertToPartitioned(PartitionedTable table) {
+        String name = table.name();
+        String legacy = name + "_legacy";
+        LocalDateTime boundary = LocalDate.now().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+
+        // Secondary index definitions still say "ON public.<name>", so they apply to the new parent
+        List<Map<String, Object>> indexes = jdbcTemplate.queryForList(
+                "SELECT c.relname AS name, pg_get_indexdef(i.indexrelid) AS definition " +
+                        "FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                        "WHERE i.indrelid = CAST(? AS regclass) AND NOT i.indisunique", name);
+        List<String> primaryKeys = jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conrelid = CAST(? AS regclass) AND contype = 'p'",
+                String.class, name);
+
+        log.info("Converting {} to a monthly partitioned table; existing rows become {}", name, legacy);
+
+        jdbcTemplate.execute("ALTER TABLE " + name + " RENAME TO " + legacy);
+        for (String primaryKey : primaryKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + legacy + " RENAME CONSTRAINT " + primaryKey
+                    + " TO " + legacy + "_pkey");
+        }
+        for (Map<String, Object> index : indexes) {
+            jdbcTemplate.execute("ALTER INDEX " + index.get("name") + " RENAME TO " + index.get("name") + "_legacy");
+        }
+
+        // CHECK constraints, such as Hibernate's enum checks, go to the parent and so to every partition
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + legacy
+                + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING STORAGE) "
+                + "PARTITION BY RANGE (" + table.partitionColumn() + ")");
+        String primaryKey = table.idRanges() ? "id" : "id, " + table.partitionColumn();
+        jdbcTemplate.execute("ALTER TABLE " + name + " ADD PRIMARY KEY (" + primaryKey + ")");
+        if (!table.idRanges() && !primaryKeys.isEmpty()) {
+            // ATTACH reuses the partition's own key only if it matches the parent's
+            jdbcTemplate.execute("ALTER TABLE " + legacy + " DROP CONSTRAINT " + legacy + "_pkey, "
+                    + "ADD CONSTRAINT " + legacy + "_pkey PRIMARY KEY (" + primaryKey + ")");
+        }
+        for (Map<String, Object> index : indexes) {
+            jdbcTemplate.execute((String) index.get("definition"));
+        }
+
+        // A validated CHECK lets ATTACH skip its own scan of the legacy rows
+        String upper = table.bound(boundary);
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ADD CONSTRAINT " + legacy + "_bound CHECK ("
+                + table.partitionColumn() + " IS NOT NULL AND " + table.partitionColumn() + " < " + upper + ")");
+        jdbcTemplate.execute("ALTER TABLE " + name + " ATTACH PARTITION " + legacy
+                + " FOR VALUES FROM (MINVALUE) TO (" + upper + ")");
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " DROP CONSTRAINT " + legacy + "_bound");
+    }
+
+    // Filled from the existing rows when created; a file with several rows already keeps one key
+    private void ensureKeyTable(PartitionedTable table) {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table.keyTable()))) {
+            return;
+        }
+        log.info("Creating {} to keep {}.{} unique across partitions",
+                table.keyTable(), table.name(), table.mediaFileIdColumn());
+        jdbcTemplate.execute("CREATE TABLE " + table.keyTable() + " ("
+                + table.mediaFileIdColumn() + " bigint PRIMARY KEY)");
+        jdbcTemplate.execute("INSERT INTO " + table.keyTable() + " SELECT DISTINCT " + table.mediaFileIdColumn()
+                + " FROM " + table.name() + " ON CONFLICT DO NOTHING");
+    }
+
+    // Continues from the highest existing upper bound, so downtime never leaves a gap
+    private void createUpcomingPartitions(PartitionedTable table) {
+        if (table.idRanges()) {
+            advanceSequence(table);
+        }
+        LocalDateTime from = listPartitions(table).stream()
+                .map(PartitionInfo::upperBound)
+                .filter(bound -> bound != null)
+                .max(LocalDateTime::compareTo)
+                .orElse(LocalDate.now().withDayOfMonth(1).atStartOfDay());
+        LocalDateTime until = LocalDate.now().withDayOfMonth(1).plusMonths(premakeMonths + 1L).atStartOfDay();
+
+        for (LocalDateTime start = from; start.isBefore(until); start = start.plusMonths(1)) {
+            String partition = table.name() + "_p" + MONTH_SUFFIX.format(start);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table.name()
+                    + " FOR VALUES FROM (" + table.bound(start) + ") TO (" + table.bound(start.plusMonths(1)) + ")");
+            log.info("Created partition {}", partition);
+        }
+    }
+
+    // Ids handed out from now on fall into this month's partition; never moves the sequence back
+    private void advanceSequence(PartitionedTable table) {
+        long monthStart = monthStartId(LocalDate.now().withDayOfMonth(1).atStartOfDay());
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + table.idSequence(), Long.class);
+        if (lastValue != null && lastValue < monthStart) {
+            jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, table.idSequence(), monthStart);
+            log.info("Advanced {} to {} for this month's partition", table.idSequence(), monthStart);
+        }
+    }
+
+    static LocalDateTime upperBound(String bound) {
+        Matcher matcher = UPPER_BOUND.matcher(bound != null ? bound : "");
+        if (!matcher.find()) {
+            return null;
+        }
+        // pg_get_expr quotes bigint bounds too, e.g. TO ('2026110000000000')
+        String value = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+        if (!value.chars().allMatch(Character::isDigit)) {
+            return LocalDateTime.parse(value, BOUND_FORMAT);
+        }
+        long month = Long.parseLong(value) / IDS_PER_MONTH;
+        return LocalDate.of((int) (month / 100), (int) (month % 100), 1).atStartOfDay();
+    }
+
+    static long monthStartId(LocalDateTime monthStart) {
+        return (monthStart.getYear() * 100L + monthStart.getMonthValue()) * IDS_PER_MONTH;
+    }
+
+    /**
+     * @param idSequence        for tables partitioned by monthly id ranges, the sequence their ids come
+     *                          from; null for tables partitioned by a timestamp
+     * @param mediaFileIdColumn column holding the media file each row belongs to
+     * @param keyTable          non-partitioned table keeping mediaFileIdColumn unique, or null
+     */
+    public record PartitionedTable(String name, String partitionColumn, String idSequence,
+                                   String mediaFileIdColumn, String keyTable) {
+
+        public boolean idRanges() {
+            return idSequence != null;
+        }
+
+        /** The partition bound for the month starting at monthStart, as a SQL literal. */
+        String bound(LocalDateTime monthStart) {
+            return idRanges() ? Long.toString(monthStartId(monthStart)) : "'" + BOUND_FORMAT.format(monthStart) + "'";
+        }
+    }
+
+    public record PartitionInfo(String table,
+                                String name,
+                                String bound,
+                                LocalDateTime upperBound,
+                                boolean detachPending,
+                                String comment,
+                                long estimatedRows) {
+    }
+}
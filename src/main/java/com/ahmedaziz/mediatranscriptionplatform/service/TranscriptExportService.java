@@ -0,0 +1,88 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptExportRow;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionResultRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams transcripts as NDJSON straight from a JDBC cursor to the caller's output stream.
+ * Rows are written one at a time, so memory stays flat regardless of the export size.
+ */
+@Service
+@Slf4j
+public class TranscriptExportService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int FLUSH_EVERY = 500;
+
+    private final TranscriptionResultRepository transcriptionResultRepository;
+    private final TranscriptStorageService transcriptStorageService;
+    private final ObjectWriter ndjsonWriter;
+
+    public TranscriptExportService(TranscriptionResultRepository transcriptionResultRepository,
+                                   TranscriptStorageService transcriptStorageService) {
+        this.transcriptionResultRepository = transcriptionResultRepository;
+        this.transcriptStorageService = transcriptStorageService;
+
+        // Plain mapper: the export must not carry the Redis mapper's type metadata
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.ndjsonWriter = mapper.writer().withRootValueSeparator("\n");
+    }
+
+    @Transactional(readOnly = true)
+    public long exportNdjson(LocalDateTime from, LocalDateTime to, String language, OutputStream out)
+            throws IOException {
+        LocalDateTime start = from != null ? from : EPOCH;
+        LocalDateTime end = to != null ? to : LocalDateTime.now().plusDays(1);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        log.info("Exporting transcripts completed between {} and {} (language: {})",
+                start, end, language != null ? language : "any");
+
+        long count = 0;
+        try (Stream<TranscriptExportRow> rows = transcriptionResultRepository.streamForExport(start, end, language);
+             SequenceWriter writer = ndjsonWriter.writeValues(out)) {
+
+            Iterator<TranscriptExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TranscriptExportRow row = iterator.next();
+                row.setTranscript(transcriptStorageService.readTranscript(row.getStorageTier(),
+                        row.getTranscript(), row.getTranscriptCompressed(),
+                        row.getTranscriptObjectKey(), row.getTranscriptSizeBytes()));
+                row.setTranscriptCompressed(null);
+                writer.write(row);
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            // Terminate the last record too, so every line is a complete JSON document
+            writer.flush();
+            if (count > 0) {
+                out.write('\n');
+            }
+        }
+
+        log.info("Exported {} transcripts", count);
+        return count;
+    }
+}
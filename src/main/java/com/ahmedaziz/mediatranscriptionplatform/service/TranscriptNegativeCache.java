@@ -0,0 +1,112 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Short-lived Redis entries remembering that a transcript lookup found nothing, so premature
+ * polls stop reaching Postgres. Writing a result or changing a file's status replaces the entry
+ * with a {@code PRESENT} marker. Misses are only recorded with SET NX, so a lookup that raced with
+ * the write cannot leave a stale negative entry behind.
+ */
+@Service
+@Slf4j
+public class TranscriptNegativeCache {
+
+    private static final String KEY_PREFIX = "transcript-miss::";
+    private static final String PRESENT = "PRESENT";
+
+    public enum Miss {
+        NOT_FOUND,
+        IN_PROGRESS
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<Miss, Counter> hits = new EnumMap<>(Miss.class);
+    private final Map<Miss, Counter> recorded = new EnumMap<>(Miss.class);
+
+    @Value("${app.cache.negative.not-found-ttl:30}")
+    private long notFoundTtlSeconds;
+
+    @Value("${app.cache.negative.in-progress-ttl:60}")
+    private long inProgressTtlSeconds;
+
+    @Value("${app.cache.negative.write-guard-ms:5000}")
+    private long writeGuardMs;
+
+    public TranscriptNegativeCache(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        for (Miss miss : Miss.values()) {
+            String tag = miss.name().toLowerCase();
+            hits.put(miss, Counter.builder("transcript.lookup.negative")
+                    .description("Transcript lookups answered by a cached miss instead of the database")
+                    .tags("kind", tag, "result", "hit")
+                    .register(meterRegistry));
+            recorded.put(miss, Counter.builder("transcript.lookup.negative")
+                    .tags("kind", tag, "result", "recorded")
+                    .register(meterRegistry));
+        }
+    }
+
+    public Optional<Miss> find(Long mediaFileId) {
+        try {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + mediaFileId);
+            if (value == null || PRESENT.equals(value)) {
+                return Optional.empty();
+            }
+            Miss miss = Miss.valueOf(value);
+            hits.get(miss).increment();
+            return Optional.of(miss);
+        } catch (Exception e) {
+            log.debug("Negative cache lookup failed for media file ID: {}: {}", mediaFileId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void record(Long mediaFileId, Miss miss) {
+        Duration ttl = Duration.ofSeconds(miss == Miss.NOT_FOUND ? notFoundTtlSeconds : inProgressTtlSeconds);
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + mediaFileId, miss.name(), ttl))) {
+                recorded.get(miss).increment();
+            }
+        } catch (Exception e) {
+            log.debug("Could not record transcript miss for media file ID: {}: {}", mediaFileId, e.getMessage());
+        }
+    }
+
+    /**
+     * Clears any cached miss for the file. Inside a transaction this happens once the transaction commits.
+     */
+    public void invalidate(Long mediaFileId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markPresent(mediaFileId);
+                }
+            });
+        } else {
+            markPresent(mediaFileId);
+        }
+    }
+
+    // Only needs to outlast a lookup that read the database before the write
+    private void markPresent(Long mediaFileId) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + mediaFileId, PRESENT, Duration.ofMillis(writeGuardMs));
+        } catch (Exception e) {
+            log.warn("Could not clear cached transcript miss for media file ID: {}: {}", mediaFileId, e.getMessage());
+        }
+    }
+}
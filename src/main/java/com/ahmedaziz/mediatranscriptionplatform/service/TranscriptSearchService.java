@@ -0,0 +1,287 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.datasource.ReplicaRoutingContext;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptSearchResponse;
+import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptSearchResponse.Highlight;
+import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptSearchResponse.Hit;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptSearchHit;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptSearchRepository;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionResultRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over transcripts, backed by a Postgres {@code tsvector} column with a GIN index.
+ * The vector is written by the application when a transcript is stored, because compressed and
+ * offloaded transcripts are not readable by a database trigger.
+ */
+@Service
+@Slf4j
+public class TranscriptSearchService {
+
+    public static final int MAX_LIMIT = 100;
+    private static final int MAX_QUERY_LENGTH = 256;
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    private static final char START_SEL = '\u0002';
+    private static final char STOP_SEL = '\u0003';
+    private static final String FRAGMENT_DELIMITER = " ... ";
+    private static final String HEADLINE_OPTIONS = "StartSel=" + START_SEL + ", StopSel=" + STOP_SEL
+            + ", MaxWords=35, MinWords=15, MaxFragments=2, FragmentDelimiter=\"" + FRAGMENT_DELIMITER + "\"";
+    private static final String BATCH_HEADLINE_SQL = "SELECT ts_headline(CAST(? AS regconfig), x.text, " +
+            "websearch_to_tsquery('simple', ?) || websearch_to_tsquery(CAST(? AS regconfig), ?), ?) " +
+            "FROM unnest(?) WITH ORDINALITY AS x(text, n) ORDER BY x.n";
+
+    // Whisper language codes with a built-in Postgres text search configuration
+    private static final Map<String, String> TEXT_SEARCH_CONFIGS = Map.ofEntries(
+            Map.entry("ar", "arabic"), Map.entry("da", "danish"), Map.entry("de", "german"),
+            Map.entry("el", "greek"), Map.entry("en", "english"), Map.entry("es", "spanish"),
+            Map.entry("fi", "finnish"), Map.entry("fr", "french"), Map.entry("hu", "hungarian"),
+            Map.entry("id", "indonesian"), Map.entry("it", "italian"), Map.entry("nl", "dutch"),
+            Map.entry("no", "norwegian"), Map.entry("pt", "portuguese"), Map.entry("ro", "romanian"),
+            Map.entry("ru", "russian"), Map.entry("sv", "swedish"), Map.entry("tr", "turkish"));
+
+    private final TranscriptSearchRepository searchRepository;
+    private final TranscriptionResultRepository transcriptionResultRepository;
+    private final TranscriptStorageService transcriptStorageService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer searchTimer;
+    private final ThreadPoolTaskExecutor backfillExecutor;
+
+    @Value("${app.search.default-text-config:english}")
+    private String defaultTextConfig;
+
+    @Value("${app.search.max-indexed-chars:500000}")
+    private int maxIndexedChars;
+
+    public TranscriptSearchService(TranscriptSearchRepository searchRepository,
+                                   TranscriptionResultRepository transcriptionResultRepository,
+                                   TranscriptStorageService transcriptStorageService,
+                                   JdbcTemplate jdbcTemplate,
+                                   MeterRegistry meterRegistry) {
+        this.searchRepository = searchRepository;
+        this.transcriptionResultRepository = transcriptionResultRepository;
+        this.transcriptStorageService = transcriptStorageService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.searchTimer = Timer.builder("transcript.search")
+                .description("Full-text search latency including snippet generation")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        this.backfillExecutor = new ThreadPoolTaskExecutor();
+        this.backfillExecutor.setCorePoolSize(1);
+        this.backfillExecutor.setMaxPoolSize(1);
+        this.backfillExecutor.setThreadNamePrefix("search-backfill-");
+        this.backfillExecutor.initialize();
+    }
+
+    // ddl-auto cannot declare a GIN index, so the column and index are created here
+    @PostConstruct
+    void ensureSearchIndex() {
+        jdbcTemplate.execute("ALTER TABLE transcription_results ADD COLUMN IF NOT EXISTS search_vector tsvector");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_transcription_search " +
+                "ON transcription_results USING GIN (search_vector)");
+    }
+
+    /**
+     * Indexes a freshly stored transcript. Must run after the result has an id.
+     */
+    public void index(TranscriptionResult result, String text) {
+        String indexed = text.length() > maxIndexedChars ? text.substring(0, maxIndexedChars) : text;
+        searchRepository.updateSearchVector(result.getId(), textSearchConfig(result.getLanguage()), indexed);
+    }
+
+    @Transactional(readOnly = true)
+    public TranscriptSearchResponse search(String query, String language, int offset, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        return searchTimer.record(() -> {
+            String config = language != null ? textSearchConfig(language) : defaultTextConfig;
+            List<TranscriptSearchHit> rows = searchRepository.search(
+                    query, config, language, HEADLINE_OPTIONS, offset, limit + 1);
+
+            boolean hasMore = rows.size() > limit;
+            List<TranscriptSearchHit> pageRows = hasMore ? rows.subList(0, limit) : rows;
+
+            List<Hit.HitBuilder> builders = new ArrayList<>(pageRows.size());
+            Map<Long, Hit.HitBuilder> withoutHeadline = new LinkedHashMap<>();
+            for (TranscriptSearchHit row : pageRows) {
+                Hit.HitBuilder hit = Hit.builder()
+                        .id(row.getId())
+                        .mediaFileId(row.getMediaFileId())
+                        .language(row.getLanguage())
+                        .confidence(row.getConfidence())
+                        .completedAt(row.getCompletedAt())
+                        .rank(row.getRank());
+                if (row.getHeadline() != null) {
+                    parseHeadline(row.getHeadline(), hit);
+                } else {
+                    withoutHeadline.put(row.getId(), hit);
+                }
+                builders.add(hit);
+            }
+            if (!withoutHeadline.isEmpty()) {
+                headlineStoredTranscripts(withoutHeadline, config, query);
+            }
+            List<Hit> hits = builders.stream().map(Hit.HitBuilder::build).toList();
+
+            return TranscriptSearchResponse.builder()
+                    .query(query)
+                    .items(hits)
+                    .offset(offset)
+                    .limit(limit)
+                    .nextOffset(hasMore ? offset + limit : null)
+                    .hasMore(hasMore)
+                    .build();
+        });
+    }
+
+    /**
+     * Indexes transcripts stored before search existed, on this service's own thread so it does
+     * not compete with transcription work. Idempotent, so several instances running it at once
+     * only duplicate work.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        backfillExecutor.execute(this::backfillSearchIndex);
+    }
+
+    @PreDestroy
+    void stopBackfill() {
+        backfillExecutor.shutdown();
+    }
+
+    void backfillSearchIndex() {
+        long indexed = 0;
+        long failed = 0;
+        long afterId = 0;
+        try {
+            List<Long> ids;
+            while (!(ids = findIdsWithoutSearchVector(afterId)).isEmpty()) {
+                for (TranscriptionResult result : transcriptionResultRepository.findAllById(ids)) {
+                    try {
+                        index(result, transcriptStorageService.readTranscript(result));
+                        indexed++;
+                    } catch (Exception e) {
+                        // e.g. an offloaded transcript whose object is gone; skipped until the next startup
+                        failed++;
+                        log.warn("Search index backfill skipped transcript {}: {}", result.getId(), e.getMessage());
+                    }
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+        } catch (Exception e) {
+            log.error("Search index backfill stopped after {} transcripts ({} skipped); it resumes on next startup",
+                    indexed, failed, e);
+            return;
+        }
+        if (indexed > 0 || failed > 0) {
+            log.info("Search index backfill indexed {} transcripts, skipped {}", indexed, failed);
+        }
+    }
+
+    // On the primary, so rows indexed a moment ago are not picked up again from a lagging replica
+    private List<Long> findIdsWithoutSearchVector(long afterId) {
+        return ReplicaRoutingContext.onPrimary(
+                () -> searchRepository.findIdsWithoutSearchVector(afterId, BACKFILL_BATCH_SIZE));
+    }
+
+    // Compressed and offloaded transcripts are inflated here and headlined in one statement
+    private void headlineStoredTranscripts(Map<Long, Hit.HitBuilder> hits, String config, String query) {
+        Map<Long, TranscriptionResult> results = transcriptionResultRepository.findAllById(hits.keySet())
+                .stream()
+                .collect(Collectors.toMap(TranscriptionResult::getId, Function.identity()));
+        List<Long> ids = new ArrayList<>(hits.keySet());
+        String[] texts = ids.stream()
+                .map(id -> results.containsKey(id) ? readForHeadline(results.get(id)) : "")
+                .toArray(String[]::new);
+
+        List<String> headlines = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(BATCH_HEADLINE_SQL);
+            statement.setString(1, config);
+            statement.setString(2, query);
+            statement.setString(3, config);
+            statement.setString(4, query);
+            statement.setString(5, HEADLINE_OPTIONS);
+            statement.setArray(6, connection.createArrayOf("text", texts));
+            return statement;
+        }, (row, rowNum) -> row.getString(1));
+
+        for (int i = 0; i < ids.size(); i++) {
+            String marked = i < headlines.size() ? headlines.get(i) : null;
+            parseHeadline(marked != null ? marked : "", hits.get(ids.get(i)));
+        }
+    }
+
+    // A transcript that cannot be read leaves its hit without a snippet rather than failing the search
+    private String readForHeadline(TranscriptionResult result) {
+        try {
+            return transcriptStorageService.readTranscript(result);
+        } catch (Exception e) {
+            log.warn("No search snippet for transcript {}: {}", result.getId(), e.getMessage());
+            return "";
+        }
+    }
+
+    /**
+     * Strips the selection markers from a {@code ts_headline} result, recording
+     * where each highlighted term starts and ends in the cleaned snippet.
+     */
+    static void parseHeadline(String marked, Hit.HitBuilder hit) {
+        StringBuilder snippet = new StringBuilder(marked.length());
+        List<Highlight> highlights = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < marked.length(); i++) {
+            char c = marked.charAt(i);
+            if (c == START_SEL) {
+                start = snippet.length();
+            } else if (c == STOP_SEL) {
+                if (start >= 0) {
+                    highlights.add(new Highlight(start, snippet.length()));
+                    start = -1;
+                }
+            } else {
+                snippet.append(c);
+            }
+        }
+        hit.snippet(snippet.toString()).highlights(highlights);
+    }
+
+    String textSearchConfig(String language) {
+        if (language == null) {
+            return "simple";
+        }
+        return TEXT_SEARCH_CONFIGS.getOrDefault(language.toLowerCase(Locale.ROOT), "simple");
+    }
+}
@@ -0,0 +1,237 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult.StorageTier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Decides where a transcript lives and reads it back on demand.
+ * <ul>
+ *   <li>INLINE: below the compression threshold, plain TEXT column</li>
+ *   <li>COMPRESSED: Deflate-compressed into a bytea column</li>
+ *   <li>OBJECT: above the offload threshold, compressed into a MinIO object with only the key in Postgres</li>
+ * </ul>
+ * Decompression only happens in {@link #readTranscript}, i.e. when the text is actually requested.
+ */
+@Service
+@Slf4j
+public class TranscriptStorageService {
+
+    private static final String OBJECT_PREFIX = "transcripts/";
+
+    private final MediaStorage mediaStorage;
+    private final Counter originalBytes;
+    private final Counter savedBytes;
+    private final Map<StorageTier, Counter> storedBytes = new EnumMap<>(StorageTier.class);
+    private final Map<StorageTier, Timer> readTimers = new EnumMap<>(StorageTier.class);
+
+    @Value("${app.transcription.storage.compress-threshold-bytes:4096}")
+    private int compressThresholdBytes;
+
+    @Value("${app.transcription.storage.offload-threshold-bytes:1048576}")
+    private int offloadThresholdBytes;
+
+    public TranscriptStorageService(MediaStorage mediaStorage, MeterRegistry meterRegistry) {
+        this.mediaStorage = mediaStorage;
+        this.originalBytes = Counter.builder("transcript.storage.original.bytes")
+                .description("Uncompressed size of stored transcripts")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.savedBytes = Counter.builder("transcript.storage.saved.bytes")
+                .description("Bytes saved by compressing transcripts")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        for (StorageTier tier : StorageTier.values()) {
+            storedBytes.put(tier, Counter.builder("transcript.storage.stored.bytes")
+                    .description("Bytes actually written for transcripts, by storage tier")
+                    .baseUnit("bytes")
+                    .tag("tier", tier.name())
+                    .register(meterRegistry));
+            readTimers.put(tier, Timer.builder("transcript.storage.read")
+                    .description("Time to materialise transcript text, including decompression")
+                    .tag("tier", tier.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Places the transcript text on the result according to its size.
+     * OBJECT-tier transcripts are uploaded to MinIO before the row is saved; if the surrounding
+     * transaction rolls back, the object is deleted again.
+     */
+    public void storeTranscript(TranscriptionResult result, String text) throws IOException {
+        String safeText = text != null ? text : "";
+        byte[] utf8 = safeText.getBytes(StandardCharsets.UTF_8);
+
+        result.setTranscriptSizeBytes(utf8.length);
+        result.setWordCount(safeText.isBlank() ? 0 : safeText.trim().split("\\s+").length);
+        originalBytes.increment(utf8.length);
+
+        if (utf8.length < compressThresholdBytes) {
+            result.setStorageTier(StorageTier.INLINE);
+            result.setTranscript(safeText);
+            storedBytes.get(StorageTier.INLINE).increment(utf8.length);
+            return;
+        }
+
+        byte[] compressed = compress(utf8);
+        savedBytes.increment(Math.max(0, utf8.length - compressed.length));
+        // The TEXT column stays NOT NULL for databases created before the storage tiers
+        result.setTranscript("");
+
+        if (utf8.length >= offloadThresholdBytes) {
+            String objectKey = OBJECT_PREFIX + result.getMediaFileId() + "-" + UUID.randomUUID() + ".deflate";
+            mediaStorage.uploadBytes(objectKey, compressed, "application/octet-stream");
+            deleteOnRollback(objectKey);
+            result.setStorageTier(StorageTier.OBJECT);
+            result.setTranscriptObjectKey(objectKey);
+            storedBytes.get(StorageTier.OBJECT).increment(compressed.length);
+        } else {
+            result.setStorageTier(StorageTier.COMPRESSED);
+            result.setTranscriptCompressed(compressed);
+            storedBytes.get(StorageTier.COMPRESSED).increment(compressed.length);
+        }
+
+        log.debug("Stored transcript for media file ID: {} as {} ({} -> {} bytes)",
+                result.getMediaFileId(), result.getStorageTier(), utf8.length, compressed.length);
+    }
+
+    /**
+     * A detached copy of the result for the transcript cache, holding the text in one form only:
+     * COMPRESSED rows are inflated into {@code transcript} and their bytes left out, so cache hits
+     * skip the inflate and neither cache tier stores the transcript twice. OBJECT rows keep only the key.
+     */
+    public TranscriptionResult cacheableCopy(TranscriptionResult result) {
+        boolean inflate = result.getStorageTier() == StorageTier.COMPRESSED && result.getTranscriptCompressed() != null;
+        return TranscriptionResult.builder()
+                .id(result.getId())
+                .mediaFileId(result.getMediaFileId())
+                .transcript(inflate ? readTranscript(result) : result.getTranscript())
+                .storageTier(result.getStorageTier())
+                .transcriptCompressed(inflate ? null : result.getTranscriptCompressed())
+                .transcriptObjectKey(result.getTranscriptObjectKey())
+                .transcriptSizeBytes(result.getTranscriptSizeBytes())
+                .language(result.getLanguage())
+                .confidence(result.getConfidence())
+                .wordCount(result.getWordCount())
+                .processingTimeMs(result.getProcessingTimeMs())
+                .completedAt(result.getCompletedAt())
+                .build();
+    }
+
+    public String readTranscript(TranscriptionResult result) {
+        return readTranscript(result.getStorageTier(), result.getTranscript(),
+                result.getTranscriptCompressed(), result.getTranscriptObjectKey(),
+                result.getTranscriptSizeBytes());
+    }
+
+    public String readTranscript(StorageTier tier, String inline, byte[] compressed,
+                                 String objectKey, Integer sizeBytes) {
+        // Rows written before the storage tiers have no tier and plain text
+        StorageTier effectiveTier = tier != null ? tier : StorageTier.INLINE;
+
+        return readTimers.get(effectiveTier).record(() -> switch (effectiveTier) {
+            case INLINE -> inline;
+            // No bytes: a cached copy that already holds the inflated text
+            case COMPRESSED -> compressed != null ? decompress(compressed, sizeBytes) : inline;
+            case OBJECT -> {
+                try {
+                    yield decompress(mediaStorage.downloadFileAsBytes(objectKey), sizeBytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read transcript object " + objectKey, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the MinIO object backing an OBJECT-tier transcript, if any.
+     */
+    public void deleteStoredObject(TranscriptionResult result) {
+        if (result.getStorageTier() != StorageTier.OBJECT || result.getTranscriptObjectKey() == null) {
+            return;
+        }
+        try {
+            mediaStorage.deleteFile(result.getTranscriptObjectKey());
+        } catch (IOException e) {
+            log.warn("Failed to delete transcript object {}: {}", result.getTranscriptObjectKey(), e.getMessage());
+        }
+    }
+
+    private void deleteOnRollback(String objectKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    mediaStorage.deleteFile(objectKey);
+                    log.debug("Deleted transcript object {} after rollback", objectKey);
+                } catch (IOException e) {
+                    log.warn("Failed to delete orphaned transcript object {}: {}", objectKey, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static byte[] compress(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 3));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String decompress(byte[] input, Integer sizeBytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(
+                    sizeBytes != null ? sizeBytes : input.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed transcript");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed transcript", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
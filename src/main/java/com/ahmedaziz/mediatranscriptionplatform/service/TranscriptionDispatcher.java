@@ -0,0 +1,184 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.datasource.ReplicaRoutingContext;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.exception.BackpressureException;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded hand-off of transcription jobs to the transcription pipeline. A file is marked
+ * QUEUED before it is handed over, so the database always holds the job. When this node is at
+ * capacity the file just stays QUEUED (spilled) and {@link #drainQueued()} dispatches it once a
+ * slot frees up, on this node or any other. Overload and restarts therefore delay jobs but never
+ * lose them; callers see {@link DispatchResult#SPILLED} and can slow down.
+ */
+@Service
+@Slf4j
+public class TranscriptionDispatcher {
+
+    public enum DispatchResult {
+        DISPATCHED,
+        SPILLED
+    }
+
+    private final MediaFileRepository mediaFileRepository;
+    private final TranscriptionProcessingService transcriptionProcessingService;
+    private final MediaStatusService mediaStatusService;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger occupied = new AtomicInteger();
+    private volatile long queuedRows;
+    private volatile long pendingBacklog;
+
+    private final Counter dispatched;
+    private final Counter spilled;
+    private final Counter drained;
+    private final Counter rejected;
+    private final Counter refused;
+
+    @Value("${app.dispatch.capacity:110}")
+    private int capacity;
+
+    @Value("${app.dispatch.resume-ratio:0.5}")
+    private double resumeRatio;
+
+    @Value("${app.dispatch.max-backlog:1000}")
+    private long maxBacklog;
+
+    @Value("${app.dispatch.retry-after-seconds:30}")
+    private long retryAfterSeconds;
+
+    public TranscriptionDispatcher(MediaFileRepository mediaFileRepository,
+                                   TranscriptionProcessingService transcriptionProcessingService,
+                                   MediaStatusService mediaStatusService,
+                                   MeterRegistry meterRegistry) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.transcriptionProcessingService = transcriptionProcessingService;
+        this.mediaStatusService = mediaStatusService;
+
+        this.dispatched = dispatchCounter(meterRegistry, "dispatched");
+        this.spilled = dispatchCounter(meterRegistry, "spilled");
+        this.drained = dispatchCounter(meterRegistry, "drained");
+        this.rejected = dispatchCounter(meterRegistry, "rejected");
+        this.refused = Counter.builder("transcription.dispatch.admission.refused")
+                .description("Uploads answered with 429 because the backlog was full")
+                .register(meterRegistry);
+
+        Gauge.builder("transcription.dispatch.in.flight", occupied, AtomicInteger::get)
+                .description("Jobs handed to the pipeline on this node, in any stage")
+                .register(meterRegistry);
+        Gauge.builder("transcription.dispatch.db.queued", this, d -> d.queuedRows)
+                .description("QUEUED media files across all nodes, refreshed on every drain")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a media file for transcription and starts it right away if this node has room.
+     */
+    public DispatchResult dispatch(Long mediaFileId) {
+        if (mediaFileRepository.markQueued(mediaFileId) > 0) {
+            mediaStatusService.onTransition(mediaFileId);
+        }
+        if (submit(mediaFileId)) {
+            dispatched.increment();
+            return DispatchResult.DISPATCHED;
+        }
+        spilled.increment();
+        return DispatchResult.SPILLED;
+    }
+
+    /**
+     * Refuses new uploads while the backlog of files waiting for transcription is over max-backlog.
+     *
+     * @throws BackpressureException carrying the Retry-After hint for the client
+     */
+    public void checkAdmission() {
+        if (pendingBacklog >= maxBacklog) {
+            refused.increment();
+            throw new BackpressureException("Transcription backlog is full ("
+                    + pendingBacklog + " files waiting), retry later", retryAfterSeconds);
+        }
+    }
+
+    /** True once in-flight work has dropped to the resume watermark. */
+    public boolean hasHeadroom() {
+        return occupied.get() <= capacity * resumeRatio;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dispatch.drain-interval-ms:2000}")
+    public void drainQueued() {
+        try {
+            queuedRows = count(MediaFile.ProcessingStatus.QUEUED);
+            pendingBacklog = queuedRows + count(MediaFile.ProcessingStatus.UPLOADED);
+
+            int room = capacity - occupied.get();
+            if (room <= 0 || queuedRows == 0) {
+                return;
+            }
+            // Over-fetch by what is already in flight here, since those rows are still QUEUED too
+            int fetch = room + inFlight.size();
+            List<Long> ids = ReplicaRoutingContext.onPrimary(
+                    () -> mediaFileRepository.findIdsByStatus(MediaFile.ProcessingStatus.QUEUED, Limit.of(fetch)));
+            for (Long id : ids) {
+                if (inFlight.contains(id)) {
+                    continue;
+                }
+                if (!submit(id)) {
+                    break;
+                }
+                drained.increment();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to drain queued transcriptions: {}", e.getMessage());
+        }
+    }
+
+    private boolean submit(Long mediaFileId) {
+        if (!inFlight.add(mediaFileId)) {
+            return true;
+        }
+        if (occupied.incrementAndGet() > capacity) {
+            release(mediaFileId);
+            return false;
+        }
+        try {
+            transcriptionProcessingService.processTranscription(mediaFileId)
+                    .whenComplete((ignored, error) -> release(mediaFileId));
+            return true;
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            release(mediaFileId);
+            return false;
+        }
+    }
+
+    private void release(Long mediaFileId) {
+        inFlight.remove(mediaFileId);
+        occupied.decrementAndGet();
+    }
+
+    private long count(MediaFile.ProcessingStatus status) {
+        Long count = mediaFileRepository.countByStatus(status);
+        return count != null ? count : 0;
+    }
+
+    private static Counter dispatchCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("transcription.dispatch")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -2,104 +2,111 @@ package com.ahmedaziz.mediatranscriptionplatform.service;
 
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionCompletedEvent;
-import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.pipeline.TranscriptionPipeline;
 import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
 import com.ahmedaziz.mediatranscriptionplatform.service.kafka.KafkaProducerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs dispatched transcription jobs through the {@link TranscriptionPipeline} and applies the
+ * retry policy when one fails. Jobs are handed over by {@link TranscriptionDispatcher}, which
+ * bounds how many are in flight.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TranscriptionProcessingService {
 
+    private static final List<MediaFile.ProcessingStatus> CLAIMABLE_STATUSES =
+            List.of(MediaFile.ProcessingStatus.UPLOADED, MediaFile.ProcessingStatus.QUEUED);
+
     private final MediaFileRepository mediaFileRepository;
-    private final TranscriptionService transcriptionService;
     private final KafkaProducerService kafkaProducerService;
+    private final MediaStatusService mediaStatusService;
+    private final TranscriptionPipeline transcriptionPipeline;
 
     @Value("${app.transcription.max-retries}")
     private int maxRetries;
 
-    @Async
-    @Transactional
-    public void processTranscriptionAsync(Long mediaFileId) {
-        log.info("Starting async transcription processing for file ID: {}", mediaFileId);
-
-        MediaFile mediaFile = mediaFileRepository.findById(mediaFileId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Media file not found with ID: " + mediaFileId));
-
-        try {
-            // Update status to PROCESSING
-            mediaFile.setStatus(MediaFile.ProcessingStatus.PROCESSING);
-            mediaFile.setProcessingStartedAt(LocalDateTime.now());
-            mediaFileRepository.save(mediaFile);
-
-            log.info("Processing media file ID: {} - {}", mediaFile.getId(), mediaFile.getOriginalFilename());
-
-            // Perform transcription
-            TranscriptionResult result = transcriptionService.transcribe(mediaFile);
-
-            // Update status to COMPLETED
-            mediaFile.setStatus(MediaFile.ProcessingStatus.COMPLETED);
-            mediaFile.setCompletedAt(LocalDateTime.now());
-            mediaFile.setErrorMessage(null);
-            mediaFileRepository.save(mediaFile);
-
-            // Send completion event
-            TranscriptionCompletedEvent event = TranscriptionCompletedEvent.builder()
-                    .mediaFileId(mediaFile.getId())
-                    .transcriptionResultId(result.getId())
-                    .status("COMPLETED")
-                    .completedAt(LocalDateTime.now())
-                    .build();
-
-            kafkaProducerService.sendTranscriptionCompletedEvent(event);
-
-            log.info("Transcription completed successfully for file ID: {}", mediaFileId);
+    @Value("${app.transcription.stale-timeout-minutes:60}")
+    private long staleTimeoutMinutes;
+
+    @Value("${app.transcription.stale-batch-size:100}")
+    private int staleBatchSize;
+
+    /**
+     * @return completes once the job has finished or its failure has been recorded
+     * @throws org.springframework.core.task.TaskRejectedException if the pipeline is full
+     */
+    public CompletableFuture<Void> processTranscription(Long mediaFileId) {
+        log.info("Starting transcription processing for file ID: {}", mediaFileId);
+
+        return transcriptionPipeline.submit(mediaFileId, CLAIMABLE_STATUSES)
+                .handle((result, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        log.error("Error processing transcription for file ID: {}", mediaFileId, cause);
+                        handleTranscriptionError(mediaFileId, cause);
+                    }
+                    return null;
+                });
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing transcription for file ID: {}", mediaFileId, e);
-            handleTranscriptionError(mediaFile, e);
+    /**
+     * Applies the retry policy to files left PROCESSING for longer than stale-timeout-minutes, e.g.
+     * by a node that exited mid-job. If the job is in fact still running, its result is discarded
+     * when it finishes, since the file is no longer PROCESSING.
+     */
+    @Scheduled(fixedDelayString = "${app.transcription.stale-check-interval-ms:60000}")
+    public void requeueStaleJobs() {
+        LocalDateTime startedBefore = LocalDateTime.now().minusMinutes(staleTimeoutMinutes);
+        List<Long> stale = mediaFileRepository.findIdsProcessingSince(startedBefore, Limit.of(staleBatchSize));
+        for (Long mediaFileId : stale) {
+            log.warn("File ID: {} has been PROCESSING since before {}, treating it as failed",
+                    mediaFileId, startedBefore);
+            handleTranscriptionError(mediaFileId, new TimeoutException(
+                    "Processing did not finish within " + staleTimeoutMinutes + " minutes"));
         }
     }
 
-    @Transactional
-    protected void handleTranscriptionError(MediaFile mediaFile, Exception error) {
-        mediaFile.setRetryCount(mediaFile.getRetryCount() + 1);
-
-        if (mediaFile.getRetryCount() >= maxRetries) {
-            // Max retries reached - mark as failed
-            mediaFile.setStatus(MediaFile.ProcessingStatus.FAILED);
-            mediaFile.setErrorMessage(error.getMessage());
-            mediaFile.setCompletedAt(LocalDateTime.now());
-
-            log.error("Max retries reached for file ID: {}. Marking as FAILED", mediaFile.getId());
-
-            // Send failure event
-            TranscriptionCompletedEvent event = TranscriptionCompletedEvent.builder()
-                    .mediaFileId(mediaFile.getId())
-                    .status("FAILED")
-                    .completedAt(LocalDateTime.now())
-                    .errorMessage(error.getMessage())
-                    .build();
-
-            kafkaProducerService.sendTranscriptionCompletedEvent(event);
-
-        } else {
-            // Retry - set back to UPLOADED status
-            mediaFile.setStatus(MediaFile.ProcessingStatus.UPLOADED);
-            log.warn("Transcription failed for file ID: {}. Retry count: {}/{}",
-                    mediaFile.getId(), mediaFile.getRetryCount(), maxRetries);
+    protected void handleTranscriptionError(Long mediaFileId, Throwable error) {
+        try {
+            if (mediaFileRepository.markFailedIfRetriesExhausted(
+                    mediaFileId, error.getMessage(), LocalDateTime.now(), maxRetries) > 0) {
+                // Max retries reached - marked as failed
+                log.error("Max retries reached for file ID: {}. Marking as FAILED", mediaFileId);
+                mediaStatusService.onTransition(mediaFileId);
+
+                // Send failure event
+                TranscriptionCompletedEvent event = TranscriptionCompletedEvent.builder()
+                        .mediaFileId(mediaFileId)
+                        .status("FAILED")
+                        .completedAt(LocalDateTime.now())
+                        .errorMessage(error.getMessage())
+                        .build();
+
+                kafkaProducerService.sendTranscriptionCompletedEvent(event);
+
+            } else if (mediaFileRepository.requeueForRetry(mediaFileId, error.getMessage(), maxRetries) > 0) {
+                // Retry - set back to QUEUED; the dispatcher picks it up on its next drain
+                log.warn("Transcription failed for file ID: {}. Retry scheduled (max {})",
+                        mediaFileId, maxRetries);
+                mediaStatusService.onTransition(mediaFileId);
+            }
+        } catch (Exception e) {
+            log.error("Error handling transcription failure for file ID: {}", mediaFileId, e);
         }
-
-        mediaFileRepository.save(mediaFile);
     }
 }
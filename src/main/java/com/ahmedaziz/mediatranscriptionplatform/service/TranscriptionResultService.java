@@ -1,51 +1,95 @@
 package com.ahmedaziz.mediatranscriptionplatform.service;
 
+import com.ahmedaziz.mediatranscriptionplatform.datasource.ReplicaRoutingContext;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
-import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import com.ahmedaziz.mediatranscriptionplatform.dto.CursorPage;
 import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionResultRepository;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionSummaryView;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionStatsAggregator.StatsSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TranscriptionResultService {
 
-    private final TranscriptionResultRepository transcriptionResultRepository;
-    private final MediaFileRepository mediaFileRepository;
+    private static final Set<String> IN_PROGRESS_STATUSES = Set.of(
+            MediaFile.ProcessingStatus.UPLOADED.name(),
+            MediaFile.ProcessingStatus.QUEUED.name(),
+            MediaFile.ProcessingStatus.PROCESSING.name());
 
-    @Cacheable(value = "transcriptions", key = "#mediaFileId")
-    @Transactional(readOnly = true)
+    private final TranscriptionResultRepository transcriptionResultRepository;
+    private final TranscriptStorageService transcriptStorageService;
+    private final TranscriptionStatsAggregator transcriptionStatsAggregator;
+    private final MediaStatusService mediaStatusService;
+    private final TranscriptNegativeCache transcriptNegativeCache;
+
+    // Single-query lookups run in the repository's own read-only transaction, so a miss on a
+    // lagging replica can be retried on the primary. sync: concurrent misses share one load.
+    @Cacheable(value = "transcriptions", key = "#mediaFileId", sync = true)
     public TranscriptionResult getTranscriptionByMediaFileId(Long mediaFileId) {
         log.info("Fetching transcription for media file ID: {}", mediaFileId);
 
-        TranscriptionResult result = transcriptionResultRepository.findByMediaFileId(mediaFileId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Transcription not found for media file ID: " + mediaFileId));
+        transcriptNegativeCache.find(mediaFileId).ifPresent(miss -> {
+            throw notAvailable(mediaFileId, miss);
+        });
+
+        TranscriptionResult result = ReplicaRoutingContext.withPrimaryFallback(
+                        () -> transcriptionResultRepository.findByMediaFileId(mediaFileId))
+                .orElseThrow(() -> {
+                    TranscriptNegativeCache.Miss miss = classifyMiss(mediaFileId);
+                    transcriptNegativeCache.record(mediaFileId, miss);
+                    return notAvailable(mediaFileId, miss);
+                });
 
         log.debug("Transcription found: {} words, language: {}",
                 result.getWordCount(), result.getLanguage());
 
-        return result;
+        return transcriptStorageService.cacheableCopy(result);
+    }
+
+    // Uses the status cache, so telling "not yet" from "never" costs no extra query
+    private TranscriptNegativeCache.Miss classifyMiss(Long mediaFileId) {
+        try {
+            String status = mediaStatusService.getStatus(mediaFileId).getStatus();
+            return IN_PROGRESS_STATUSES.contains(status)
+                    ? TranscriptNegativeCache.Miss.IN_PROGRESS
+                    : TranscriptNegativeCache.Miss.NOT_FOUND;
+        } catch (IllegalArgumentException e) {
+            return TranscriptNegativeCache.Miss.NOT_FOUND;
+        }
+    }
+
+    private static IllegalArgumentException notAvailable(Long mediaFileId, TranscriptNegativeCache.Miss miss) {
+        return new IllegalArgumentException(miss == TranscriptNegativeCache.Miss.IN_PROGRESS
+                ? "Transcription is still in progress for media file ID: " + mediaFileId
+                : "Transcription not found for media file ID: " + mediaFileId);
     }
 
-    @Transactional(readOnly = true)
     public TranscriptionResult getTranscriptionById(Long id) {
-        return transcriptionResultRepository.findById(id)
+        return ReplicaRoutingContext.withPrimaryFallback(() -> transcriptionResultRepository.findById(id))
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Transcription not found with ID: " + id));
     }
 
     @Transactional(readOnly = true)
-    public List<TranscriptionResult> getAllTranscriptions() {
-        return transcriptionResultRepository.findAll();
+    public CursorPage<TranscriptionSummaryView> getTranscriptionSummaries(Long after, int limit) {
+        CursorPage.checkLimit(limit);
+        List<TranscriptionSummaryView> rows = transcriptionResultRepository.findByIdGreaterThanOrderByIdAsc(
+                after != null ? after : 0L, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, TranscriptionSummaryView::getId, Function.identity());
     }
 
     @Transactional(readOnly = true)
@@ -59,57 +103,59 @@ public class TranscriptionResultService {
         transcriptionResultRepository.findByMediaFileId(mediaFileId)
                 .ifPresent(result -> {
                     transcriptionResultRepository.delete(result);
+                    transcriptionResultRepository.releaseResultKey(mediaFileId);
+                    transcriptionStatsAggregator.recordDeletion(result);
+                    transcriptStorageService.deleteStoredObject(result);
+                    mediaStatusService.onTransition(mediaFileId);
                     log.info("Deleted transcription for media file ID: {}", mediaFileId);
                 });
     }
 
-    @Transactional(readOnly = true)
+    // Served from the write-through status cache; Postgres is only read on a cache miss
     public TranscriptionStatusResponse getTranscriptionStatus(Long mediaFileId) {
-        MediaFile mediaFile = mediaFileRepository.findById(mediaFileId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Media file not found with ID: " + mediaFileId));
-
-        boolean hasTranscription = transcriptionResultRepository.existsByMediaFileId(mediaFileId);
-
-        String message = switch (mediaFile.getStatus()) {
-            case UPLOADED -> "File uploaded, waiting for processing";
-            case QUEUED -> "File queued for processing";
-            case PROCESSING -> "Transcription in progress";
-            case COMPLETED -> hasTranscription ?
-                    "Transcription completed successfully" :
-                    "Processing completed but transcription not found";
-            case FAILED -> "Transcription failed: " +
-                    (mediaFile.getErrorMessage() != null ? mediaFile.getErrorMessage() : "Unknown error");
-        };
-
-        return TranscriptionStatusResponse.builder()
-                .mediaFileId(mediaFileId)
-                .status(mediaFile.getStatus().name())
-                .hasTranscription(hasTranscription)
-                .message(message)
-                .processingStartedAt(mediaFile.getProcessingStartedAt())
-                .completedAt(mediaFile.getCompletedAt())
-                .errorMessage(mediaFile.getErrorMessage())
-                .retryCount(mediaFile.getRetryCount())
-                .build();
+        return mediaStatusService.getStatus(mediaFileId);
     }
 
-    @Transactional(readOnly = true)
     public TranscriptionStatistics getStatistics() {
-        long totalTranscriptions = transcriptionResultRepository.count();
-        Double avgProcessingTime = transcriptionResultRepository.getAverageProcessingTime();
-        Double avgConfidence = transcriptionResultRepository.getAverageConfidence();
+        return transcriptionStatsAggregator.getOverall()
+                .map(TranscriptionResultService::toStatistics)
+                .orElseGet(() -> TranscriptionStatistics.builder()
+                        .totalTranscriptions(0L)
+                        .averageProcessingTimeMs(0L)
+                        .averageConfidence(0.0)
+                        .p50ProcessingTimeMs(0L)
+                        .p95ProcessingTimeMs(0L)
+                        .p99ProcessingTimeMs(0L)
+                        .build());
+    }
+
+    public List<TranscriptionStatistics> getDailyStatistics(LocalDate from, LocalDate to, String language) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        return transcriptionStatsAggregator.getDaily(from, to, language).stream()
+                .map(TranscriptionResultService::toStatistics)
+                .toList();
+    }
 
+    private static TranscriptionStatistics toStatistics(StatsSnapshot snapshot) {
         return TranscriptionStatistics.builder()
-                .totalTranscriptions(totalTranscriptions)
-                .averageProcessingTimeMs(avgProcessingTime != null ? avgProcessingTime.longValue() : 0L)
-                .averageConfidence(avgConfidence != null ? avgConfidence : 0.0)
+                .date(snapshot.day())
+                .language(snapshot.language())
+                .totalTranscriptions(snapshot.transcriptionCount())
+                .averageProcessingTimeMs(snapshot.averageProcessingTimeMs())
+                .averageConfidence(snapshot.averageConfidence())
+                .p50ProcessingTimeMs(snapshot.p50ProcessingTimeMs())
+                .p95ProcessingTimeMs(snapshot.p95ProcessingTimeMs())
+                .p99ProcessingTimeMs(snapshot.p99ProcessingTimeMs())
                 .build();
     }
 
     // DTOs
     @lombok.Data
     @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
     public static class TranscriptionStatusResponse {
         private Long mediaFileId;
         private String status;
@@ -123,9 +169,15 @@ public class TranscriptionResultService {
 
     @lombok.Data
     @lombok.Builder
+    @com.fasterxml.jackson.annotation.JsonInclude(com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL)
     public static class TranscriptionStatistics {
+        private java.time.LocalDate date;
+        private String language;
         private Long totalTranscriptions;
         private Long averageProcessingTimeMs;
         private Double averageConfidence;
+        private Long p50ProcessingTimeMs;
+        private Long p95ProcessingTimeMs;
+        private Long p99ProcessingTimeMs;
     }
 }
\ No newline at end of file
@@ -2,12 +2,12 @@ package com.ahmedaziz.mediatranscriptionplatform.service;
 
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
 import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionResultRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +15,10 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 
 @Service
@@ -22,77 +26,33 @@ import java.time.LocalDateTime;
 @Slf4j
 public class TranscriptionService {
 
-    private final MinioStorageService minioStorageService;
+    private final MediaFileRepository mediaFileRepository;
     private final TranscriptionResultRepository transcriptionResultRepository;
+    private final TranscriptStorageService transcriptStorageService;
+    private final TranscriptionStatsAggregator transcriptionStatsAggregator;
+    private final TranscriptSearchService transcriptSearchService;
+    private final TranscriptNegativeCache transcriptNegativeCache;
     private final RestTemplate restTemplate;
 
     @Value("${app.transcription.ai-service-url}")
     private String aiServiceUrl;
 
-    @Transactional
-    public TranscriptionResult transcribe(MediaFile mediaFile) {
-        log.info("Starting transcription for media file ID: {}", mediaFile.getId());
-
-        long startTime = System.currentTimeMillis();
-
-        try {
-            // Download file from MinIO
-            log.info("Downloading file from MinIO: {}", mediaFile.getStorageUrl());
-            byte[] fileBytes = minioStorageService.downloadFileAsBytes(mediaFile.getStorageUrl());
-            log.info("Downloaded {} bytes", fileBytes.length);
-
-            // Call Whisper AI service
-            log.info("Calling Whisper AI service at: {}", aiServiceUrl);
-            WhisperResponse whisperResponse = callWhisperService(fileBytes, mediaFile.getOriginalFilename());
-
-            long processingTime = System.currentTimeMillis() - startTime;
-
-            log.info("Whisper transcription completed:");
-            log.info("  - Language: {}", whisperResponse.getLanguage());
-            log.info("  - Confidence: {}", whisperResponse.getConfidence());
-            log.info("  - Text length: {} characters", whisperResponse.getText().length());
-            log.info("  - Processing time: {}ms", processingTime);
-
-            // Save transcription result
-            TranscriptionResult result = TranscriptionResult.builder()
-                    .mediaFileId(mediaFile.getId())
-                    .transcript(whisperResponse.getText())
-                    .language(whisperResponse.getLanguage())
-                    .confidence(whisperResponse.getConfidence())
-                    .processingTimeMs(processingTime)
-                    .completedAt(LocalDateTime.now())
-                    .build();
-
-            result = transcriptionResultRepository.save(result);
-
-            log.info("Transcription result saved with ID: {}", result.getId());
-
-            return result;
-
-        } catch (Exception e) {
-            log.error("Error transcribing media file ID: {}", mediaFile.getId(), e);
-            throw new RuntimeException("Transcription failed: " + e.getMessage(), e);
-        }
-    }
-
-    private WhisperResponse callWhisperService(byte[] fileBytes, String filename) {
+    /**
+     * Sends a downloaded media file to the Whisper service. The file is streamed from disk rather
+     * than buffered in memory.
+     */
+    public WhisperResponse callWhisperService(Path media, String filename) {
         try {
             // Prepare multipart request
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.MULTIPART_FORM_DATA);
 
             MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            ByteArrayResource resource = new ByteArrayResource(fileBytes) {
-                @Override
-                public String getFilename() {
-                    return filename;
-                }
-            };
-            body.add("file", resource);
+            body.add("file", new MappedFileResource(media, filename));
 
             HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
 
-            log.info("Sending file to Whisper service: {} ({} bytes)", filename, fileBytes.length);
+            log.info("Sending file to Whisper service at {}: {} ({} bytes)", aiServiceUrl, filename, Files.size(media));
 
             // Call Whisper API
             ResponseEntity<WhisperResponse> response = restTemplate.postForEntity(
@@ -114,6 +74,60 @@ public class TranscriptionService {
         }
     }
 
+    /**
+     * Marks the file COMPLETED and stores the transcript and its result row in one transaction, and
+     * updates the search index and statistics.
+     *
+     * @return the saved result, or null if the file is no longer PROCESSING, e.g. because it was
+     * requeued as stale while this worker was still transcribing it; nothing is written then
+     */
+    @Transactional
+    public TranscriptionResult completeTranscription(MediaFile mediaFile, WhisperResponse whisperResponse,
+                                                     long processingTimeMs) {
+        // Status guard first: its row lock makes a concurrent worker for the same file wait, then find it COMPLETED
+        if (mediaFileRepository.markCompleted(mediaFile.getId(), LocalDateTime.now()) == 0) {
+            log.warn("Media file ID: {} is no longer PROCESSING, discarding its transcription", mediaFile.getId());
+            return null;
+        }
+
+        log.info("Whisper transcription completed for media file ID: {}", mediaFile.getId());
+        log.info("  - Language: {}", whisperResponse.getLanguage());
+        log.info("  - Confidence: {}", whisperResponse.getConfidence());
+        log.info("  - Text length: {} characters", whisperResponse.getText().length());
+        log.info("  - Processing time: {}ms", processingTimeMs);
+
+        // A retried or redelivered job keeps the result that was already saved
+        if (transcriptionResultRepository.claimResultKey(mediaFile.getId()) == 0) {
+            log.warn("Transcription result already exists for media file ID: {}", mediaFile.getId());
+            return transcriptionResultRepository.findByMediaFileId(mediaFile.getId())
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Result key held without a result for media file ID: " + mediaFile.getId()));
+        }
+
+        // Save transcription result
+        TranscriptionResult result = TranscriptionResult.builder()
+                .mediaFileId(mediaFile.getId())
+                .language(whisperResponse.getLanguage())
+                .confidence(whisperResponse.getConfidence())
+                .processingTimeMs(processingTimeMs)
+                .completedAt(LocalDateTime.now())
+                .build();
+        try {
+            transcriptStorageService.storeTranscript(result, whisperResponse.getText());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store transcript for media file ID: " + mediaFile.getId(), e);
+        }
+
+        result = transcriptionResultRepository.save(result);
+        transcriptSearchService.index(result, whisperResponse.getText());
+        transcriptionStatsAggregator.record(result);
+        transcriptNegativeCache.invalidate(result.getMediaFileId());
+
+        log.info("Transcription result saved with ID: {}", result.getId());
+
+        return result;
+    }
+
     @Data
     public static class WhisperResponse {
         private String text;
@@ -0,0 +1,439 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionStatsRollup;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionResultRepository;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionStatsRollupRepository;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionStatsSample;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+
+import static com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionStatsRollup.ALL_LANGUAGES;
+import static com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionStatsRollup.ALL_TIME;
+
+/**
+ * Maintains transcription statistics incrementally. Each completion is folded into an
+ * in-process accumulator keyed by (day, language); a scheduled flush merges the pending
+ * accumulators into the {@code transcription_stats_rollup} table, including the
+ * all-days and all-languages roll-ups, so reads never scan {@code transcription_results}.
+ * <p>
+ * Live counting and the one-off backfill split the results at a cutoff persisted on the
+ * all-time row: the backfill counts results completed before it, nodes count the results
+ * they complete at or after it. Until a node has read the cutoff, its samples wait.
+ * <p>
+ * A deleted transcription is subtracted from the buckets it was counted in. Results that
+ * are archived with their partition stay counted.
+ */
+@Service
+@Slf4j
+public class TranscriptionStatsAggregator {
+
+    private static final String UNKNOWN_LANGUAGE = "unknown";
+    private static final int HISTOGRAM_PRECISION = 2;
+
+    private final TranscriptionStatsRollupRepository rollupRepository;
+    private final TranscriptionResultRepository transcriptionResultRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<BucketKey, Accumulator> pending = new ConcurrentHashMap<>();
+    private final Queue<Sample> awaitingCutoff = new ConcurrentLinkedQueue<>();
+    private volatile LocalDateTime backfillCutoff;
+
+    public TranscriptionStatsAggregator(TranscriptionStatsRollupRepository rollupRepository,
+                                        TranscriptionResultRepository transcriptionResultRepository,
+                                        PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.transcriptionResultRepository = transcriptionResultRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Records a completed transcription. Inside a transaction the sample is only
+     * counted once the transaction commits.
+     */
+    public void record(TranscriptionResult result) {
+        submit(sample(result, false));
+    }
+
+    /**
+     * Subtracts a deleted transcription. Inside a transaction this only happens once
+     * the transaction commits.
+     */
+    public void recordDeletion(TranscriptionResult result) {
+        submit(sample(result, true));
+    }
+
+    private static Sample sample(TranscriptionResult result, boolean deleted) {
+        LocalDateTime completedAt = result.getCompletedAt() != null ? result.getCompletedAt() : LocalDateTime.now();
+        return new Sample(completedAt, normalizeLanguage(result.getLanguage()),
+                result.getProcessingTimeMs(), result.getConfidence(), deleted);
+    }
+
+    private void submit(Sample sample) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count(sample);
+                }
+            });
+        } else {
+            count(sample);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.statistics.flush-interval-ms:10000}")
+    public void flush() {
+        if (backfillCutoff == null) {
+            loadCutoff();
+        }
+        if (backfillCutoff != null) {
+            for (Sample sample; (sample = awaitingCutoff.poll()) != null; ) {
+                count(sample);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<BucketKey, Accumulator> drained = new HashMap<>();
+        for (BucketKey key : new ArrayList<>(pending.keySet())) {
+            Accumulator accumulator = pending.remove(key);
+            if (accumulator != null) {
+                drained.put(key, accumulator);
+            }
+        }
+
+        try {
+            mergeIntoRollups(drained);
+            log.debug("Flushed statistics for {} buckets", drained.size());
+        } catch (Exception e) {
+            log.warn("Failed to flush transcription statistics, will retry: {}", e.getMessage());
+            drained.forEach((key, accumulator) -> pending.merge(key, accumulator, Accumulator::mergeFrom));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Folds every result completed before the backfill cutoff into the roll-ups, exactly once per
+     * database. The first node to lock the all-time row fixes the cutoff; the results are then read
+     * without holding that lock, and merged under it only if no other node has merged them meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnce() {
+        try {
+            ensureRowExists(new BucketKey(ALL_TIME, ALL_LANGUAGES));
+            TranscriptionStatsRollup global = transactionTemplate.execute(status -> {
+                TranscriptionStatsRollup row = rollupRepository.findForUpdate(ALL_TIME, ALL_LANGUAGES).orElseThrow();
+                if (row.getBackfillCutoff() == null) {
+                    row.setBackfillCutoff(LocalDateTime.now());
+                }
+                return row;
+            });
+            backfillCutoff = global.getBackfillCutoff();
+            if (global.getBackfilledAt() != null) {
+                return;
+            }
+
+            log.info("Backfilling transcription statistics from results completed before {}", backfillCutoff);
+            Map<BucketKey, Accumulator> historical = new HashMap<>();
+            // Read-write so the cursor stays on the primary rather than a lagging replica
+            long rows = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                long read = 0;
+                try (Stream<TranscriptionStatsSample> samples =
+                             transcriptionResultRepository.streamStatsSamples(backfillCutoff)) {
+                    for (Iterator<TranscriptionStatsSample> it = samples.iterator(); it.hasNext(); read++) {
+                        TranscriptionStatsSample sample = it.next();
+                        BucketKey key = new BucketKey(sample.getCompletedAt().toLocalDate(),
+                                normalizeLanguage(sample.getLanguage()));
+                        historical.computeIfAbsent(key, k -> new Accumulator())
+                                .add(sample.getProcessingTimeMs(), sample.getConfidence());
+                    }
+                }
+                return read;
+            }));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                TranscriptionStatsRollup row = rollupRepository.findForUpdate(ALL_TIME, ALL_LANGUAGES).orElseThrow();
+                if (row.getBackfilledAt() != null) {
+                    log.info("Statistics were backfilled by another node meanwhile");
+                    return;
+                }
+                mergeIntoRollupsInTransaction(historical);
+                row.setBackfilledAt(LocalDateTime.now());
+                log.info("Backfilled statistics from {} historical results into {} buckets", rows, historical.size());
+            });
+        } catch (Exception e) {
+            log.error("Statistics backfill failed; it will be retried on next startup", e);
+        }
+    }
+
+    public Optional<StatsSnapshot> getOverall() {
+        return getBucket(ALL_TIME, ALL_LANGUAGES);
+    }
+
+    public Optional<StatsSnapshot> getForLanguage(String language) {
+        return getBucket(ALL_TIME, normalizeLanguage(language));
+    }
+
+    public Optional<StatsSnapshot> getBucket(LocalDate day, String language) {
+        return rollupRepository.findByBucketDateAndLanguage(day, language).map(StatsSnapshot::of);
+    }
+
+    public List<StatsSnapshot> getDaily(LocalDate from, LocalDate to, String language) {
+        String bucketLanguage = language != null ? normalizeLanguage(language) : ALL_LANGUAGES;
+        return rollupRepository.findByLanguageAndBucketDateBetweenOrderByBucketDateAsc(bucketLanguage, from, to)
+                .stream()
+                .map(StatsSnapshot::of)
+                .toList();
+    }
+
+    // Results before the cutoff belong to the backfill, which has counted them once a deletion can see them
+    private void count(Sample sample) {
+        LocalDateTime cutoff = backfillCutoff;
+        if (cutoff == null) {
+            awaitingCutoff.add(sample);
+        } else if (sample.deleted() || !sample.completedAt().isBefore(cutoff)) {
+            BucketKey key = new BucketKey(sample.completedAt().toLocalDate(), sample.language());
+            pending.compute(key, (k, accumulator) -> {
+                Accumulator target = accumulator != null ? accumulator : new Accumulator();
+                if (sample.deleted()) {
+                    target.remove(sample.processingTimeMs(), sample.confidence());
+                } else {
+                    target.add(sample.processingTimeMs(), sample.confidence());
+                }
+                return target;
+            });
+        }
+    }
+
+    private void loadCutoff() {
+        try {
+            rollupRepository.findByBucketDateAndLanguage(ALL_TIME, ALL_LANGUAGES)
+                    .map(TranscriptionStatsRollup::getBackfillCutoff)
+                    .ifPresent(cutoff -> backfillCutoff = cutoff);
+        } catch (Exception e) {
+            log.warn("Failed to read the statistics backfill cutoff, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void mergeIntoRollups(Map<BucketKey, Accumulator> perDayAndLanguage) {
+        Map<BucketKey, Accumulator> expanded = expand(perDayAndLanguage);
+        expanded.keySet().forEach(this::ensureRowExists);
+        transactionTemplate.executeWithoutResult(status -> applyToRows(expanded, false));
+    }
+
+    // Used while the global row is locked, so missing rows are created in the same transaction
+    private void mergeIntoRollupsInTransaction(Map<BucketKey, Accumulator> perDayAndLanguage) {
+        applyToRows(expand(perDayAndLanguage), true);
+    }
+
+    // Fans each (day, language) sample out to its day/all-languages, all-time/language and global roll-ups
+    private static Map<BucketKey, Accumulator> expand(Map<BucketKey, Accumulator> perDayAndLanguage) {
+        Map<BucketKey, Accumulator> expanded = new TreeMap<>();
+        perDayAndLanguage.forEach((key, accumulator) -> {
+            for (BucketKey target : List.of(
+                    key,
+                    new BucketKey(key.day(), ALL_LANGUAGES),
+                    new BucketKey(ALL_TIME, key.language()),
+                    new BucketKey(ALL_TIME, ALL_LANGUAGES))) {
+                expanded.computeIfAbsent(target, k -> new Accumulator()).mergeFrom(accumulator);
+            }
+        });
+        return expanded;
+    }
+
+    // Rows are locked in key order so concurrent flushes from several nodes cannot deadlock
+    private void applyToRows(Map<BucketKey, Accumulator> expanded, boolean createMissing) {
+        expanded.forEach((key, accumulator) -> {
+            TranscriptionStatsRollup row = rollupRepository.findForUpdate(key.day(), key.language())
+                    .orElseGet(() -> {
+                        if (!createMissing) {
+                            throw new IllegalStateException("Missing statistics row for " + key);
+                        }
+                        return rollupRepository.save(TranscriptionStatsRollup.builder()
+                                .bucketDate(key.day())
+                                .language(key.language())
+                                .build());
+                    });
+            accumulator.applyTo(row);
+        });
+    }
+
+    private void ensureRowExists(BucketKey key) {
+        if (rollupRepository.findByBucketDateAndLanguage(key.day(), key.language()).isPresent()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> rollupRepository.saveAndFlush(
+                    TranscriptionStatsRollup.builder()
+                            .bucketDate(key.day())
+                            .language(key.language())
+                            .build()));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the row first
+            log.debug("Statistics row {} created concurrently", key);
+        }
+    }
+
+    private static String normalizeLanguage(String language) {
+        return language != null && !language.isBlank() ? language.toLowerCase(Locale.ROOT) : UNKNOWN_LANGUAGE;
+    }
+
+    private record Sample(LocalDateTime completedAt, String language, Long processingTimeMs, Double confidence,
+                          boolean deleted) {
+    }
+
+    record BucketKey(LocalDate day, String language) implements Comparable<BucketKey> {
+        @Override
+        public int compareTo(BucketKey other) {
+            int byDay = day.compareTo(other.day);
+            return byDay != 0 ? byDay : language.compareTo(other.language);
+        }
+    }
+
+    static final class Accumulator {
+        private long count;
+        private long processingTimeSumMs;
+        private long confidenceCount;
+        private double confidenceSum;
+        private final Histogram processingTimes = newHistogram();
+        // Histograms cannot hold negative counts, so deletions are kept apart until applied
+        private final Histogram removedProcessingTimes = newHistogram();
+
+        synchronized void add(Long processingTimeMs, Double confidence) {
+            count++;
+            if (processingTimeMs != null && processingTimeMs >= 0) {
+                processingTimeSumMs += processingTimeMs;
+                processingTimes.recordValue(processingTimeMs);
+            }
+            if (confidence != null) {
+                confidenceCount++;
+                confidenceSum += confidence;
+            }
+        }
+
+        synchronized void remove(Long processingTimeMs, Double confidence) {
+            count--;
+            if (processingTimeMs != null && processingTimeMs >= 0) {
+                processingTimeSumMs -= processingTimeMs;
+                removedProcessingTimes.recordValue(processingTimeMs);
+            }
+            if (confidence != null) {
+                confidenceCount--;
+                confidenceSum -= confidence;
+            }
+        }
+
+        synchronized Accumulator mergeFrom(Accumulator other) {
+            synchronized (other) {
+                count += other.count;
+                processingTimeSumMs += other.processingTimeSumMs;
+                confidenceCount += other.confidenceCount;
+                confidenceSum += other.confidenceSum;
+                processingTimes.add(other.processingTimes);
+                removedProcessingTimes.add(other.removedProcessingTimes);
+            }
+            return this;
+        }
+
+        // Deletions never take a row below zero, e.g. for a result deleted before the backfill read it
+        synchronized void applyTo(TranscriptionStatsRollup row) {
+            row.setTranscriptionCount(Math.max(0, row.getTranscriptionCount() + count));
+            row.setProcessingTimeSumMs(Math.max(0, row.getProcessingTimeSumMs() + processingTimeSumMs));
+            row.setConfidenceCount(Math.max(0, row.getConfidenceCount() + confidenceCount));
+            row.setConfidenceSum(row.getConfidenceCount() > 0 ? Math.max(0, row.getConfidenceSum() + confidenceSum) : 0);
+
+            Histogram merged = decodeHistogram(row.getProcessingTimeHistogram());
+            merged.add(processingTimes);
+            if (removedProcessingTimes.getTotalCount() > 0) {
+                Histogram removable = newHistogram();
+                for (HistogramIterationValue removed : removedProcessingTimes.recordedValues()) {
+                    long value = removed.getValueIteratedTo();
+                    long present = Math.min(removed.getCountAtValueIteratedTo(), merged.getCountAtValue(value));
+                    if (present > 0) {
+                        removable.recordValueWithCount(value, present);
+                    }
+                }
+                merged.subtract(removable);
+            }
+            row.setProcessingTimeHistogram(encodeHistogram(merged));
+        }
+    }
+
+    /**
+     * Read-side view of one roll-up row.
+     */
+    public record StatsSnapshot(LocalDate day,
+                                String language,
+                                long transcriptionCount,
+                                long averageProcessingTimeMs,
+                                double averageConfidence,
+                                long p50ProcessingTimeMs,
+                                long p95ProcessingTimeMs,
+                                long p99ProcessingTimeMs) {
+
+        static StatsSnapshot of(TranscriptionStatsRollup row) {
+            Histogram histogram = decodeHistogram(row.getProcessingTimeHistogram());
+            long count = row.getTranscriptionCount();
+            return new StatsSnapshot(
+                    ALL_TIME.equals(row.getBucketDate()) ? null : row.getBucketDate(),
+                    ALL_LANGUAGES.equals(row.getLanguage()) ? null : row.getLanguage(),
+                    count,
+                    count > 0 ? row.getProcessingTimeSumMs() / count : 0L,
+                    row.getConfidenceCount() > 0 ? row.getConfidenceSum() / row.getConfidenceCount() : 0.0,
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(95),
+                    histogram.getValueAtPercentile(99));
+        }
+    }
+
+    private static Histogram newHistogram() {
+        Histogram histogram = new Histogram(HISTOGRAM_PRECISION);
+        histogram.setAutoResize(true);
+        return histogram;
+    }
+
+    private static Histogram decodeHistogram(byte[] encoded) {
+        if (encoded == null || encoded.length == 0) {
+            return newHistogram();
+        }
+        try {
+            Histogram histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0);
+            histogram.setAutoResize(true);
+            return histogram;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt processing time histogram", e);
+        }
+    }
+
+    private static byte[] encodeHistogram(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+}
@@ -1,39 +1,51 @@
 package com.ahmedaziz.mediatranscriptionplatform.service.kafka;
 
-import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaUploadEvent;
-import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionCompletedEvent;
-import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
-
-import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
-import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionService;
-import lombok.RequiredArgsConstructor;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionDispatcher;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionDispatcher.DispatchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.CacheManager;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.time.LocalDateTime;
 
+/**
+ * Hands upload events to the {@link TranscriptionDispatcher}. When the dispatcher spills, the
+ * listener is paused so this node stops pulling events it cannot run; the spilled file stays
+ * QUEUED in the database, and consumption resumes once in-flight work has drained.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class KafkaConsumerService {
 
-    private final MediaFileRepository mediaFileRepository;
-    private final TranscriptionService transcriptionService;
-    private final KafkaProducerService kafkaProducerService;
-    private final CacheManager cacheManager;
+    public static final String UPLOAD_LISTENER_ID = "media-uploaded-listener";
+
+    private final TranscriptionDispatcher transcriptionDispatcher;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final Counter pauses;
+
+    public KafkaConsumerService(TranscriptionDispatcher transcriptionDispatcher,
+                                KafkaListenerEndpointRegistry listenerRegistry,
+                                MeterRegistry meterRegistry) {
+        this.transcriptionDispatcher = transcriptionDispatcher;
+        this.listenerRegistry = listenerRegistry;
+        this.pauses = Counter.builder("transcription.dispatch.listener.pauses")
+                .description("Times the upload listener was paused because the dispatcher spilled")
+                .register(meterRegistry);
+    }
 
     @KafkaListener(
+            id = UPLOAD_LISTENER_ID,
+            idIsGroup = false,
             topics = "${kafka.topics.media-uploaded}",
             groupId = "${spring.kafka.consumer.group-id}"
     )
-    @Transactional
     public void consumeMediaUploadedEvent(
             @Payload MediaUploadEvent event,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition) {
@@ -41,83 +53,24 @@ public class KafkaConsumerService {
         log.info("Received media upload event - File ID: {}, Partition: {}",
                 event.getMediaFileId(), partition);
 
-        try {
-            // Fetch media file from database
-            MediaFile mediaFile = mediaFileRepository.findById(event.getMediaFileId())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Media file not found with ID: " + event.getMediaFileId()));
-
-            // Update status to PROCESSING
-            mediaFile.setStatus(MediaFile.ProcessingStatus.PROCESSING);
-            mediaFile.setProcessingStartedAt(LocalDateTime.now());
-            mediaFileRepository.save(mediaFile);
-
-            log.info("Processing media file: {}", mediaFile.getOriginalFilename());
-
-            // Perform transcription
-            TranscriptionResult result = transcriptionService.transcribe(mediaFile);
-
-            // Update status to COMPLETED
-            mediaFile.setStatus(MediaFile.ProcessingStatus.COMPLETED);
-            mediaFile.setCompletedAt(LocalDateTime.now());
-            mediaFile.setErrorMessage(null);
-            mediaFileRepository.save(mediaFile);
-
-            // Cache the result
-            cacheTranscriptionResult(result);
-
-            // Send completion event
-            TranscriptionCompletedEvent completionEvent = TranscriptionCompletedEvent.builder()
-                    .mediaFileId(mediaFile.getId())
-                    .transcriptionResultId(result.getId())
-                    .status("COMPLETED")
-                    .completedAt(LocalDateTime.now())
-                    .build();
-
-            kafkaProducerService.sendTranscriptionCompletedEvent(completionEvent);
-
-            log.info("Transcription completed successfully for file ID: {}", mediaFile.getId());
-
-        } catch (Exception e) {
-            log.error("Error processing media upload event for file ID: {}",
-                    event.getMediaFileId(), e);
-            handleTranscriptionError(event.getMediaFileId(), e);
-        }
-    }
-
-    private void handleTranscriptionError(Long mediaFileId, Exception error) {
-        try {
-            MediaFile mediaFile = mediaFileRepository.findById(mediaFileId).orElse(null);
-            if (mediaFile != null) {
-                mediaFile.setStatus(MediaFile.ProcessingStatus.FAILED);
-                mediaFile.setErrorMessage(error.getMessage());
-                mediaFile.setCompletedAt(LocalDateTime.now());
-                mediaFileRepository.save(mediaFile);
-
-                // Send failure event
-                TranscriptionCompletedEvent event = TranscriptionCompletedEvent.builder()
-                        .mediaFileId(mediaFileId)
-                        .status("FAILED")
-                        .completedAt(LocalDateTime.now())
-                        .errorMessage(error.getMessage())
-                        .build();
-
-                kafkaProducerService.sendTranscriptionCompletedEvent(event);
+        // Failures here propagate so the container's error handler redelivers the event
+        if (transcriptionDispatcher.dispatch(event.getMediaFileId()) == DispatchResult.SPILLED) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(UPLOAD_LISTENER_ID);
+            if (container != null && !container.isPauseRequested()) {
+                log.warn("Transcription capacity exhausted, pausing upload listener; file ID: {} stays QUEUED",
+                        event.getMediaFileId());
+                container.pause();
+                pauses.increment();
             }
-        } catch (Exception e) {
-            log.error("Error handling transcription failure", e);
         }
     }
 
-    private void cacheTranscriptionResult(TranscriptionResult result) {
-        try {
-            var cache = cacheManager.getCache("transcriptions");
-            if (cache != null) {
-                cache.put(result.getMediaFileId(), result);
-                log.debug("Cached transcription result for media file ID: {}", result.getMediaFileId());
-            }
-        } catch (Exception e) {
-            log.warn("Failed to cache transcription result: {}", e.getMessage());
+    @Scheduled(fixedDelayString = "${app.dispatch.drain-interval-ms:2000}")
+    public void resumeUploadsWhenDrained() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(UPLOAD_LISTENER_ID);
+        if (container != null && container.isPauseRequested() && transcriptionDispatcher.hasHeadroom()) {
+            log.info("Transcription capacity available again, resuming upload listener");
+            container.resume();
         }
     }
-}
\ No newline at end of file
+}
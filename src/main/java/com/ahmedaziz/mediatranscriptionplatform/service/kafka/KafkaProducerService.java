@@ -1,5 +1,6 @@
 package com.ahmedaziz.mediatranscriptionplatform.service.kafka;
 
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaStatusRecord;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaUploadEvent;
 import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionCompletedEvent;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Service
@@ -27,6 +29,9 @@ public class KafkaProducerService {
     @Value("${kafka.topics.media-failed}")
     private String mediaFailedTopic;
 
+    @Value("${kafka.topics.media-status}")
+    private String mediaStatusTopic;
+
     public void sendMediaUploadedEvent(MediaUploadEvent event) {
         log.info("Sending media uploaded event for file ID: {}", event.getMediaFileId());
 
@@ -71,4 +76,52 @@ public class KafkaProducerService {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Sends a group of completion events as one producer batch.
+     * The records are handed to the producer back to back and flushed together,
+     * so the returned future completes once every send has been acknowledged.
+     */
+    public CompletableFuture<Void> sendTranscriptionCompletedEvents(List<TranscriptionCompletedEvent> events) {
+        if (events.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        log.debug("Sending {} transcription completed events as one batch", events.size());
+
+        CompletableFuture<?>[] futures = events.stream()
+                .map(event -> {
+                    String topic = "FAILED".equals(event.getStatus()) ? mediaFailedTopic : mediaTranscribedTopic;
+                    return kafkaTemplate.send(topic, event.getMediaFileId().toString(), event)
+                            .whenComplete((result, ex) -> {
+                                if (ex != null) {
+                                    log.error("Failed to send transcription completed event for file ID: {}",
+                                            event.getMediaFileId(), ex);
+                                }
+                            });
+                })
+                .toArray(CompletableFuture[]::new);
+
+        kafkaTemplate.flush();
+
+        return CompletableFuture.allOf(futures);
+    }
+
+    public void sendMediaStatus(MediaStatusRecord record) {
+        sendMediaStatus(record.getMediaFileId(), record);
+    }
+
+    /** Removes a media file from every node's status store once compaction runs. */
+    public void sendMediaStatusTombstone(Long mediaFileId) {
+        sendMediaStatus(mediaFileId, null);
+    }
+
+    private void sendMediaStatus(Long mediaFileId, MediaStatusRecord record) {
+        kafkaTemplate.send(mediaStatusTopic, mediaFileId.toString(), record)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish status for file ID: {}", mediaFileId, ex);
+                    }
+                });
+    }
+}
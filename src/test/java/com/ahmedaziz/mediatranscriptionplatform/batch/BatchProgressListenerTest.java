@@ -0,0 +1,117 @@
+package com.ahmedaziz.mediatranscriptionplatform.batch;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.dto.BatchProgressResponse;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchProgressListenerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private MediaFileRepository mediaFileRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private BatchProgressListener listener;
+    private final AtomicLong clock = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        mediaFileRepository = mock(MediaFileRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new BatchProgressListener(mediaFileRepository, meterRegistry);
+        ReflectionTestUtils.setField(listener, "nanoClock", (LongSupplier) clock::get);
+        when(mediaFileRepository.countByStatus(MediaFile.ProcessingStatus.UPLOADED)).thenReturn(100L);
+        listener.beforeStep(new StepExecution("transcriptionStep", new JobExecution(1L)));
+    }
+
+    @Test
+    void derivesThroughputP95AndEtaFromTheWindow() {
+        // 20 items finishing 100 ms apart, the i-th taking i ms
+        for (int i = 1; i <= 20; i++) {
+            long end = i * 100 * MS;
+            listener.recordItem(end - i * MS, end);
+        }
+        clock.set(2_000 * MS);
+
+        BatchProgressResponse progress = listener.snapshot();
+
+        assertThat(progress.getItemsPerSecond()).isCloseTo(10.0, within(1e-9));
+        assertThat(progress.getP95ItemLatencyMs()).isCloseTo(19.0, within(1e-9));
+        assertThat(progress.getRemainingUploaded()).isEqualTo(100);
+        assertThat(progress.getEtaSeconds()).isEqualTo(10L);
+        assertThat(meterRegistry.get("transcription.batch.eta").gauge().value()).isEqualTo(10.0);
+    }
+
+    @Test
+    void showsAStalledDrainAsFallingThroughputAndGrowingIdleTime() {
+        for (int i = 1; i <= 20; i++) {
+            listener.recordItem(null, i * 100 * MS);
+        }
+
+        // Nothing finishes for 17.1 s after the last item: 19 items in the 19 s since the first
+        clock.set(19_100 * MS);
+
+        assertThat(listener.snapshot().getItemsPerSecond()).isCloseTo(1.0, within(1e-9));
+        assertThat(listener.snapshot().getEtaSeconds()).isEqualTo(100L);
+        assertThat(meterRegistry.get("transcription.batch.idle").gauge().value()).isCloseTo(17.1, within(1e-9));
+    }
+
+    @Test
+    void reportsNoThroughputOrEtaOnceTheStepHasEnded() {
+        for (int i = 1; i <= 20; i++) {
+            listener.recordItem(null, i * 100 * MS);
+        }
+        clock.set(2_000 * MS);
+
+        listener.afterStep(new StepExecution("transcriptionStep", new JobExecution(1L)));
+
+        assertThat(meterRegistry.get("transcription.batch.throughput").gauge().value()).isZero();
+        assertThat(meterRegistry.get("transcription.batch.eta").gauge().value()).isNaN();
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentItemsInTheWindow() {
+        // 50 slow items followed by 50 fast ones push the slow ones out of the window
+        for (int i = 1; i <= 100; i++) {
+            long end = i * 100 * MS;
+            listener.recordItem(end - (i <= 50 ? 90 : 10) * MS, end);
+        }
+
+        assertThat(listener.snapshot().getP95ItemLatencyMs()).isCloseTo(10.0, within(1e-9));
+    }
+
+    @Test
+    void estimatesFromP95LatencyUntilThereIsARate() {
+        listener.recordItem(0L, 250 * MS);
+        clock.set(250 * MS);
+
+        BatchProgressResponse progress = listener.snapshot();
+
+        assertThat(progress.getItemsPerSecond()).isZero();
+        assertThat(progress.getEtaSeconds()).isEqualTo(25L);
+    }
+
+    @Test
+    void hasNoEtaBeforeAnyItemAndZeroOnceDrained() {
+        assertThat(listener.snapshot().getEtaSeconds()).isNull();
+        assertThat(meterRegistry.get("transcription.batch.eta").gauge().value()).isNaN();
+
+        when(mediaFileRepository.countByStatus(MediaFile.ProcessingStatus.UPLOADED)).thenReturn(0L);
+        listener.afterChunk(null);
+
+        assertThat(listener.snapshot().getEtaSeconds()).isZero();
+    }
+}
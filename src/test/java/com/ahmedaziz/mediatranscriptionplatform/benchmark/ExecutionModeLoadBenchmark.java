@@ -0,0 +1,131 @@
+package com.ahmedaziz.mediatranscriptionplatform.benchmark;
+
+import com.ahmedaziz.mediatranscriptionplatform.service.DownstreamLimiter;
+import com.ahmedaziz.mediatranscriptionplatform.service.DownstreamLimiter.Downstream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the two execution modes on the same request mix: a burst of status polls (short
+ * blocking Redis/JDBC-like calls, no permit) interleaved with uploads that each hold a MinIO
+ * permit for longer. Platform mode runs them on a 200-thread pool, Tomcat's default; virtual mode
+ * runs one virtual thread per request. Both use the real {@link DownstreamLimiter}. Needs a Java
+ * 21 runtime:
+ *
+ * <pre>
+ * JAVA_HOME=/path/to/jdk21 mvn test -Dtest=ExecutionModeLoadBenchmark -Dbenchmark.execution-mode=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.execution-mode", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class ExecutionModeLoadBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.execution-mode.requests", 50_000);
+    private static final long POLL_MS = 10;
+    private static final long UPLOAD_MS = 50;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int MINIO_PERMITS = 32;
+
+    @Test
+    void compareExecutionModes() throws Exception {
+        // Warm-up pass so JIT and class loading do not count against the first mode
+        run("warm-up", new VirtualThreadTaskExecutor("bench-warmup-"), REQUESTS / 10, 0.1, false);
+
+        for (double uploadShare : new double[] {0.0, 0.1}) {
+            System.out.printf("%n%,d requests, %.0f%% uploads (%d ms under %d MinIO permits), polls %d ms%n",
+                    REQUESTS, uploadShare * 100, UPLOAD_MS, MINIO_PERMITS, POLL_MS);
+            System.out.printf("  %-24s %10s %10s %10s %10s %10s %10s%n",
+                    "mode", "req/s", "poll p50", "poll p99", "upload p99", "threads", "heap MB");
+
+            ThreadPoolTaskExecutor platform = new ThreadPoolTaskExecutor();
+            platform.setCorePoolSize(PLATFORM_THREADS);
+            platform.setMaxPoolSize(PLATFORM_THREADS);
+            platform.setThreadNamePrefix("bench-platform-");
+            platform.initialize();
+            run("platform (200 threads)", platform, REQUESTS, uploadShare, true);
+            platform.shutdown();
+
+            run("virtual", new VirtualThreadTaskExecutor("bench-virtual-"), REQUESTS, uploadShare, true);
+        }
+    }
+
+    private void run(String mode, TaskExecutor executor, int requests, double uploadShare, boolean report)
+            throws Exception {
+        DownstreamLimiter limiter = new DownstreamLimiter(1, 60_000, MINIO_PERMITS, 60_000, new SimpleMeterRegistry());
+        Histogram polls = new Histogram(3);
+        Histogram uploads = new Histogram(3);
+        CountDownLatch done = new CountDownLatch(requests);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Thread.sleep(200);
+        System.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+        threads.resetPeakThreadCount();
+        AtomicLong peakHeap = new AtomicLong(baselineHeap);
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            boolean upload = ThreadLocalRandom.current().nextDouble() < uploadShare;
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                try {
+                    if (upload) {
+                        try (DownstreamLimiter.Permit permit = limiter.acquire(Downstream.MINIO)) {
+                            Thread.sleep(UPLOAD_MS);
+                        }
+                    } else {
+                        Thread.sleep(POLL_MS);
+                    }
+                    long micros = (System.nanoTime() - submitted) / 1_000;
+                    synchronized (upload ? uploads : polls) {
+                        (upload ? uploads : polls).recordValue(micros);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.interrupt();
+
+        if (report) {
+            System.out.printf("  %-24s %10.0f %10.1f %10.1f %10.1f %10d %10.1f%n", mode,
+                    requests / seconds,
+                    polls.getValueAtPercentile(50) / 1000.0,
+                    polls.getValueAtPercentile(99) / 1000.0,
+                    uploads.getTotalCount() > 0 ? uploads.getValueAtPercentile(99) / 1000.0 : 0.0,
+                    threads.getPeakThreadCount(),
+                    (peakHeap.get() - baselineHeap) / (1024.0 * 1024.0));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ahmedaziz.mediatranscriptionplatform.benchmark;
+
+import com.ahmedaziz.mediatranscriptionplatform.service.DownstreamLimiter;
+import com.ahmedaziz.mediatranscriptionplatform.service.LocalStorageService;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaStorage;
+import com.ahmedaziz.mediatranscriptionplatform.service.MinioStorageService;
+import com.ahmedaziz.mediatranscriptionplatform.support.MinioStandIn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ingest ({@code uploadFile} from a local file) and serve ({@code downloadToFile}) throughput of the
+ * two {@link MediaStorage} backends. MinIO is the in-process {@link MinioStandIn}, unthrottled, so
+ * its numbers are an upper bound for a real network. A plain stream copy through a heap buffer is
+ * shown next to the local backend's {@code transferTo}. Run with:
+ *
+ * <pre>
+ * mvn test -Dtest=MediaStorageBenchmark -Dbenchmark.media-storage=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.media-storage", matches = "true")
+class MediaStorageBenchmark {
+
+    private static final int FILE_MB = Integer.getInteger("benchmark.media-storage.file-mb", 256);
+    private static final int ROUNDS = Integer.getInteger("benchmark.media-storage.rounds", 5);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareBackends() throws Exception {
+        Path source = dir.resolve("source.mp4");
+        byte[] media = new byte[FILE_MB * 1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(media);
+        Files.write(source, media);
+        media = null;
+
+        LocalStorageService local = new LocalStorageService();
+        ReflectionTestUtils.setField(local, "rootDir", dir.resolve("local").toString());
+        local.init();
+
+        System.out.printf("%n%d MB file, best of %d rounds%n", FILE_MB, ROUNDS);
+        System.out.printf("  %-22s %12s %12s%n", "backend", "ingest MB/s", "serve MB/s");
+        report("stream copy (baseline)", streamCopy(source), streamCopy(source));
+        report("local (transferTo)", ingest(local, source), serve(local));
+
+        try (MinioStandIn minio = new MinioStandIn()) {
+            MinioStorageService storage = new MinioStorageService(minio.client(),
+                    new DownstreamLimiter(1, 60_000, 32, 60_000, new SimpleMeterRegistry()), new MockEnvironment());
+            ReflectionTestUtils.setField(storage, "bucketName", "media-files");
+            ReflectionTestUtils.setField(storage, "rangeSizeBytes", 16L * 1024 * 1024);
+            ReflectionTestUtils.setField(storage, "parallelism", 4);
+            ReflectionTestUtils.setField(storage, "maxAttempts", 3);
+            report("minio (stand-in)", ingest(storage, source), serve(storage));
+        }
+    }
+
+    private double ingest(MediaStorage storage, Path source) throws Exception {
+        return best(() -> storage.uploadFile("bench/video.mp4", source, "video/mp4", Map.of()));
+    }
+
+    private double serve(MediaStorage storage) throws Exception {
+        Path target = dir.resolve("served.mp4");
+        return best(() -> storage.downloadToFile("bench/video.mp4", target));
+    }
+
+    private double streamCopy(Path source) throws Exception {
+        Path target = dir.resolve("copied.mp4");
+        return best(() -> {
+            try (InputStream in = Files.newInputStream(source); OutputStream out = Files.newOutputStream(target)) {
+                in.transferTo(out);
+            }
+        });
+    }
+
+    private double best(Round round) throws Exception {
+        double bestSeconds = Double.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            round.run();
+            bestSeconds = Math.min(bestSeconds, (System.nanoTime() - start) / 1e9);
+        }
+        return FILE_MB / bestSeconds;
+    }
+
+    private static void report(String backend, double ingest, double serve) {
+        System.out.printf("  %-22s %12.0f %12.0f%n", backend, ingest, serve);
+    }
+
+    private interface Round {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ahmedaziz.mediatranscriptionplatform.benchmark;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+import java.util.function.IntFunction;
+
+/**
+ * Inserts 100k media_files rows with the legacy settings (IDENTITY ids, no JDBC batching,
+ * SQL logging on) and with the current ones (pooled sequence ids, batch_size 50, ordered
+ * inserts, reWriteBatchedInserts). Needs a scratch Postgres database:
+ *
+ * <pre>
+ * mvn test -Dtest=PersistenceBatchingBenchmark \
+ *     -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=postgres
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class PersistenceBatchingBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int FLUSH_EVERY = 50;
+
+    @Test
+    void insertHundredThousandRows() {
+        long legacyMs;
+        try (SessionFactory factory = legacySettings().buildSessionFactory()) {
+            legacyMs = insertRows(factory, i -> {
+                LegacyMediaFile row = new LegacyMediaFile();
+                fill(row, i);
+                return row;
+            });
+        }
+
+        long tunedMs;
+        try (SessionFactory factory = tunedSettings().buildSessionFactory()) {
+            tunedMs = insertRows(factory, i -> MediaFile.builder()
+                    .filename("bench-" + i + ".mp3")
+                    .originalFilename("bench-" + i + ".mp3")
+                    .mediaType(MediaFile.MediaType.AUDIO)
+                    .storageUrl("bench-" + i + ".mp3")
+                    .fileSize(1024L * i)
+                    .contentType("audio/mpeg")
+                    .status(MediaFile.ProcessingStatus.UPLOADED)
+                    .build());
+        }
+
+        System.out.printf("%nInserted %,d rows%n", ROWS);
+        System.out.printf("  IDENTITY, no batching, show_sql : %,8d ms (%,.0f rows/s)%n",
+                legacyMs, ROWS * 1000.0 / legacyMs);
+        System.out.printf("  pooled sequence, batch_size 50  : %,8d ms (%,.0f rows/s)%n",
+                tunedMs, ROWS * 1000.0 / tunedMs);
+        System.out.printf("  speed-up                        : %.1fx%n", (double) legacyMs / tunedMs);
+    }
+
+    private long insertRows(SessionFactory factory, IntFunction<Object> rowFactory) {
+        long start = System.nanoTime();
+        try (Session session = factory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(rowFactory.apply(i));
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private Configuration legacySettings() {
+        return baseSettings()
+                .addAnnotatedClass(LegacyMediaFile.class)
+                .setProperty("hibernate.show_sql", "true")
+                .setProperty("hibernate.format_sql", "true");
+    }
+
+    private Configuration tunedSettings() {
+        return baseSettings()
+                .addAnnotatedClass(MediaFile.class)
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.order_updates", "true")
+                .setProperty("hibernate.connection.reWriteBatchedInserts", "true");
+    }
+
+    private Configuration baseSettings() {
+        return new Configuration()
+                .setProperty("hibernate.connection.url", System.getProperty("benchmark.jdbc.url"))
+                .setProperty("hibernate.connection.username", System.getProperty("benchmark.jdbc.user", "postgres"))
+                .setProperty("hibernate.connection.password", System.getProperty("benchmark.jdbc.password", "postgres"))
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop");
+    }
+
+    private static void fill(LegacyMediaFile row, int i) {
+        row.setFilename("bench-" + i + ".mp3");
+        row.setOriginalFilename("bench-" + i + ".mp3");
+        row.setMediaType(MediaFile.MediaType.AUDIO);
+        row.setStorageUrl("bench-" + i + ".mp3");
+        row.setFileSize(1024L * i);
+        row.setContentType("audio/mpeg");
+        row.setStatus(MediaFile.ProcessingStatus.UPLOADED);
+        row.setUploadedAt(LocalDateTime.now());
+        row.setRetryCount(0);
+    }
+
+    /**
+     * Same columns as {@link MediaFile} with the previous IDENTITY mapping.
+     */
+    @Entity
+    @Table(name = "media_files_identity_bench")
+    @Getter
+    @Setter
+    static class LegacyMediaFile {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private String filename;
+        private String originalFilename;
+
+        @Enumerated(EnumType.STRING)
+        private MediaFile.MediaType mediaType;
+
+        private String storageUrl;
+        private Long fileSize;
+        private String contentType;
+
+        @Enumerated(EnumType.STRING)
+        private MediaFile.ProcessingStatus status;
+
+        private String errorMessage;
+        private LocalDateTime uploadedAt;
+        private LocalDateTime processingStartedAt;
+        private LocalDateTime completedAt;
+        private Integer retryCount;
+    }
+}
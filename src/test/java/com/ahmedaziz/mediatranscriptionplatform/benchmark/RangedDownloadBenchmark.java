@@ -0,0 +1,70 @@
+package com.ahmedaziz.mediatranscriptionplatform.benchmark;
+
+import com.ahmedaziz.mediatranscriptionplatform.service.DownstreamLimiter;
+import com.ahmedaziz.mediatranscriptionplatform.service.MinioStorageService;
+import com.ahmedaziz.mediatranscriptionplatform.support.MinioStandIn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Downloads one large object through {@link MinioStorageService#downloadToFile} at several
+ * parallelism levels. The object is served by {@link MinioStandIn}, which caps every connection at
+ * the same rate, so a single stream is bound by per-connection throughput as it is against a
+ * remote MinIO. Run with:
+ *
+ * <pre>
+ * mvn test -Dtest=RangedDownloadBenchmark -Dbenchmark.ranged-download=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.ranged-download", matches = "true")
+class RangedDownloadBenchmark {
+
+    private static final int OBJECT_MB = Integer.getInteger("benchmark.ranged-download.object-mb", 256);
+    private static final int CONNECTION_MB_PER_SECOND = Integer.getInteger("benchmark.ranged-download.connection-mbps", 50);
+    private static final long RANGE_SIZE = 16L * 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareParallelism() throws Exception {
+        byte[] media = new byte[OBJECT_MB * 1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(media);
+
+        try (MinioStandIn minio = new MinioStandIn()) {
+            minio.putObject("media-files", "video.mp4", media);
+            minio.throttle(CONNECTION_MB_PER_SECOND * 1024L * 1024);
+            MinioStorageService storage = new MinioStorageService(minio.client(),
+                    new DownstreamLimiter(1, 60_000, 32, 60_000, new SimpleMeterRegistry()), new MockEnvironment());
+            ReflectionTestUtils.setField(storage, "bucketName", "media-files");
+            ReflectionTestUtils.setField(storage, "rangeSizeBytes", RANGE_SIZE);
+            ReflectionTestUtils.setField(storage, "maxAttempts", 3);
+
+            System.out.printf("%n%d MB object, 16 MB ranges, each connection capped at %d MB/s%n",
+                    OBJECT_MB, CONNECTION_MB_PER_SECOND);
+            System.out.printf("  %-12s %10s %10s%n", "parallelism", "seconds", "MB/s");
+            for (int parallelism : new int[] {1, 2, 4, 8}) {
+                ReflectionTestUtils.setField(storage, "parallelism", parallelism);
+                Path target = dir.resolve("video-" + parallelism + ".mp4");
+
+                long start = System.nanoTime();
+                storage.downloadToFile("video.mp4", target);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                if (Files.size(target) != media.length) {
+                    throw new AssertionError("Downloaded " + Files.size(target) + " bytes");
+                }
+                System.out.printf("  %-12d %10.2f %10.1f%n", parallelism, seconds, OBJECT_MB / seconds);
+                Files.delete(target);
+            }
+        }
+    }
+}
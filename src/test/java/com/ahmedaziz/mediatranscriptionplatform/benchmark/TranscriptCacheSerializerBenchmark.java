@@ -0,0 +1,105 @@
+package com.ahmedaziz.mediatranscriptionplatform.benchmark;
+
+import com.ahmedaziz.mediatranscriptionplatform.cache.TranscriptionResultRedisSerializer;
+import com.ahmedaziz.mediatranscriptionplatform.cache.TranscriptionResultRedisSerializer.Codec;
+import com.ahmedaziz.mediatranscriptionplatform.config.CacheConfig;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Encode/decode cost and stored size of a cached transcript for the JSON serializer the
+ * {@code transcriptions} cache used before, and for the binary serializer with each codec.
+ * Transcript lengths follow speech at ~150 words a minute, from a one-minute clip to a
+ * three-hour recording. Each case is warmed up before it is measured on one thread:
+ *
+ * <pre>
+ * mvn test -Dtest=TranscriptCacheSerializerBenchmark -Dbenchmark.serializer=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.serializer", matches = "true")
+class TranscriptCacheSerializerBenchmark {
+
+    private static final int WORDS_PER_MINUTE = 150;
+    private static final int[] MINUTES = {1, 10, 60, 180};
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+
+    private long sink;
+
+    @Test
+    void compareSerializers() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer(new CacheConfig().redisObjectMapper());
+        Map<String, RedisSerializer<Object>> serializers = new LinkedHashMap<>();
+        serializers.put("jackson default typing", json);
+        serializers.put("binary", new TranscriptionResultRedisSerializer(Codec.NONE, Integer.MAX_VALUE, json));
+        serializers.put("binary + lz4", new TranscriptionResultRedisSerializer(Codec.LZ4, 1024, json));
+        serializers.put("binary + zstd", new TranscriptionResultRedisSerializer(Codec.ZSTD, 1024, json));
+
+        System.out.printf("%n  %-8s %-24s %12s %12s %12s%n", "clip", "serializer", "bytes", "encode ns", "decode ns");
+        for (int minutes : MINUTES) {
+            TranscriptionResult result = sample(minutes);
+            for (Map.Entry<String, RedisSerializer<Object>> entry : serializers.entrySet()) {
+                RedisSerializer<Object> serializer = entry.getValue();
+                byte[] encoded = serializer.serialize(result);
+                double encodeNs = nanosPerOp(() -> sink += serializer.serialize(result).length);
+                double decodeNs = nanosPerOp(() -> sink += serializer.deserialize(encoded).hashCode());
+                System.out.printf("  %-8s %-24s %,12d %,12.0f %,12.0f%n",
+                        minutes + " min", entry.getKey(), encoded.length, encodeNs, decodeNs);
+            }
+        }
+        System.out.println("  (sink " + (sink & 1) + ")");
+    }
+
+    private static double nanosPerOp(Runnable operation) {
+        run(operation, WARMUP_NANOS);
+        return run(operation, MEASURE_NANOS);
+    }
+
+    private static double run(Runnable operation, long budgetNanos) {
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 16; i++) {
+                operation.run();
+            }
+            operations += 16;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < budgetNanos);
+        return (double) elapsed / operations;
+    }
+
+    // Zipf-like picks from a small vocabulary compress roughly like real speech transcripts
+    private static TranscriptionResult sample(int minutes) {
+        String[] vocabulary = ("the of and to a in that is it you we for this on with so be have are not but " +
+                "what can just like about think know going right people really yeah one there time would " +
+                "meeting project budget customer release question data team because quarter review").split(" ");
+        Random random = new Random(minutes);
+        StringBuilder transcript = new StringBuilder();
+        for (int word = 0; word < minutes * WORDS_PER_MINUTE; word++) {
+            double skew = Math.pow(random.nextDouble(), 2.5);
+            transcript.append(vocabulary[(int) (skew * vocabulary.length)]).append(word % 14 == 13 ? ". " : " ");
+        }
+
+        return TranscriptionResult.builder()
+                .id((long) minutes)
+                .mediaFileId(1_000L + minutes)
+                .transcript(transcript.toString())
+                .storageTier(TranscriptionResult.StorageTier.INLINE)
+                .transcriptSizeBytes(transcript.length())
+                .language("en")
+                .confidence(0.91)
+                .wordCount(minutes * WORDS_PER_MINUTE)
+                .processingTimeMs(minutes * 4_000L)
+                .completedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.ahmedaziz.mediatranscriptionplatform.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Loads a synthetic corpus of one million transcripts (120 Zipf-distributed words each) into
+ * a scratch table shaped like {@code transcription_results}, builds the GIN index and measures
+ * ranked search latency, snippets included, with the same SQL as {@code TranscriptSearchRepository},
+ * next to an ILIKE scan. Needs a scratch Postgres database; loading takes a few minutes:
+ *
+ * <pre>
+ * mvn test -Dtest=TranscriptSearchBenchmark \
+ *     -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=postgres
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class TranscriptSearchBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.search.rows", 1_000_000);
+    private static final int WORDS_PER_TRANSCRIPT = 120;
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int RUNS = 200;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String QUERY =
+            "(websearch_to_tsquery('simple', ?) || websearch_to_tsquery('english', ?))";
+    // Snippets are computed for the page only, after ranking, as in TranscriptSearchRepository
+    private static final String SEARCH_SQL =
+            "SELECT p.id, p.rank, ts_headline('english', t.transcript, p.query, " +
+            "'MaxWords=35, MinWords=15, MaxFragments=2') " +
+            "FROM (SELECT t.id, q.query, ts_rank_cd(t.search_vector, q.query, 32) AS rank " +
+            "      FROM search_bench t, (SELECT " + QUERY + " AS query) q " +
+            "      WHERE t.search_vector @@ q.query ORDER BY rank DESC, t.id DESC LIMIT ?) p " +
+            "JOIN search_bench t ON t.id = p.id ORDER BY p.rank DESC, p.id DESC";
+    private static final String ILIKE_SQL =
+            "SELECT t.id FROM search_bench t WHERE t.transcript ILIKE ? ORDER BY t.id DESC LIMIT ?";
+
+    @Test
+    void searchOneMillionTranscripts() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url"),
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", "postgres"))) {
+
+            List<String> vocabulary = vocabulary();
+            loadCorpus(connection, vocabulary);
+
+            System.out.printf("%nRanked search over %,d transcripts, %d runs each (ms)%n", ROWS, RUNS);
+            System.out.printf("  %-34s %8s %8s %8s %8s%n", "query", "p50", "p95", "p99", "ILIKE");
+            report(connection, "common word", vocabulary.get(3), vocabulary.get(3));
+            report(connection, "mid-frequency word", vocabulary.get(500), vocabulary.get(500));
+            report(connection, "rare word", vocabulary.get(VOCABULARY_SIZE - 10), vocabulary.get(VOCABULARY_SIZE - 10));
+            report(connection, "two words (AND)",
+                    vocabulary.get(40) + " " + vocabulary.get(900), vocabulary.get(40));
+            report(connection, "phrase",
+                    "\"" + vocabulary.get(1) + " " + vocabulary.get(2) + "\"",
+                    vocabulary.get(1) + " " + vocabulary.get(2));
+        }
+    }
+
+    private void loadCorpus(Connection connection, List<String> vocabulary) throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS search_bench");
+            ddl.execute("CREATE TABLE search_bench (id bigint PRIMARY KEY, transcript text NOT NULL, " +
+                    "search_vector tsvector)");
+        }
+
+        long start = System.nanoTime();
+        // random()^3 skews picks towards the head of the vocabulary, roughly like natural text
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO search_bench (id, transcript) " +
+                "SELECT g, (SELECT string_agg(v[1 + floor(power(random(), 3) * array_length(v, 1))::int], ' ') " +
+                "           FROM generate_series(1, ?) w WHERE g > 0) " +
+                "FROM generate_series(1, ?) g, (SELECT ?::text[] AS v) vocab")) {
+            insert.setInt(1, WORDS_PER_TRANSCRIPT);
+            insert.setInt(2, ROWS);
+            insert.setArray(3, connection.createArrayOf("text", vocabulary.toArray()));
+            insert.execute();
+        }
+        long loadedMs = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("UPDATE search_bench SET search_vector = to_tsvector('english', transcript)");
+            ddl.execute("CREATE INDEX search_bench_gin ON search_bench USING GIN (search_vector)");
+            ddl.execute("VACUUM ANALYZE search_bench");
+        }
+        long indexedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%nLoaded %,d transcripts in %,d ms, vectorised and indexed in %,d ms%n",
+                ROWS, loadedMs, indexedMs);
+    }
+
+    private void report(Connection connection, String label, String query, String substring) throws SQLException {
+        Histogram latencies = new Histogram(3);
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            search(connection, query);
+            latencies.recordValue((System.nanoTime() - start) / 1_000);
+        }
+
+        long start = System.nanoTime();
+        try (PreparedStatement scan = connection.prepareStatement(ILIKE_SQL)) {
+            scan.setString(1, "%" + substring + "%");
+            scan.setInt(2, PAGE_SIZE);
+            try (ResultSet rows = scan.executeQuery()) {
+                while (rows.next()) {
+                    rows.getLong(1);
+                }
+            }
+        }
+        double ilikeMs = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.printf("  %-34s %8.2f %8.2f %8.2f %8.1f%n", label,
+                latencies.getValueAtPercentile(50) / 1000.0,
+                latencies.getValueAtPercentile(95) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0,
+                ilikeMs);
+    }
+
+    private List<Long> search(Connection connection, String query) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SEARCH_SQL)) {
+            statement.setString(1, query);
+            statement.setString(2, query);
+            statement.setInt(3, PAGE_SIZE + 1);
+            List<Long> ids = new ArrayList<>(PAGE_SIZE + 1);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next() && ids.size() < PAGE_SIZE) {
+                    ids.add(rows.getLong(1));
+                    rows.getString(3);
+                }
+            }
+            return ids;
+        }
+    }
+
+    // Pronounceable pseudo-words so the English stemmer has something to work on
+    private static List<String> vocabulary() {
+        String[] onsets = {"b", "c", "d", "f", "g", "h", "k", "l", "m", "n", "p", "r", "s", "t", "v", "br", "st", "tr"};
+        String[] vowels = {"a", "e", "i", "o", "u", "ea", "ou"};
+        String[] endings = {"", "s", "ing", "ed", "er", "tion", "ly"};
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>(VOCABULARY_SIZE);
+        Set<String> seen = new HashSet<>();
+        while (words.size() < VOCABULARY_SIZE) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 1 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                word.append(onsets[random.nextInt(onsets.length)]).append(vowels[random.nextInt(vowels.length)]);
+            }
+            word.append(endings[random.nextInt(endings.length)]);
+            if (seen.add(word.toString())) {
+                words.add(word.toString());
+            }
+        }
+        return words;
+    }
+}
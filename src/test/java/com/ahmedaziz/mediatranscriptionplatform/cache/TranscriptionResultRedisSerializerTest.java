@@ -0,0 +1,88 @@
+package com.ahmedaziz.mediatranscriptionplatform.cache;
+
+import com.ahmedaziz.mediatranscriptionplatform.cache.TranscriptionResultRedisSerializer.Codec;
+import com.ahmedaziz.mediatranscriptionplatform.config.CacheConfig;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranscriptionResultRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer jsonSerializer =
+            new GenericJackson2JsonRedisSerializer(new CacheConfig().redisObjectMapper());
+
+    @ParameterizedTest
+    @EnumSource(Codec.class)
+    void roundTripsEveryField(Codec codec) {
+        TranscriptionResultRedisSerializer serializer = new TranscriptionResultRedisSerializer(codec, 64, jsonSerializer);
+        TranscriptionResult result = sample("café au lait, s'il vous plaît ".repeat(200));
+
+        TranscriptionResult decoded = (TranscriptionResult) serializer.deserialize(serializer.serialize(result));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(result);
+    }
+
+    @Test
+    void keepsAbsentFieldsNull() {
+        TranscriptionResultRedisSerializer serializer = new TranscriptionResultRedisSerializer(Codec.LZ4, 64, jsonSerializer);
+        TranscriptionResult result = TranscriptionResult.builder().mediaFileId(3L)
+                .storageTier(TranscriptionResult.StorageTier.OBJECT).transcriptObjectKey("transcripts/3.gz").build();
+
+        TranscriptionResult decoded = (TranscriptionResult) serializer.deserialize(serializer.serialize(result));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(result);
+        assertThat(decoded.getTranscript()).isNull();
+    }
+
+    @Test
+    void compressesLargeTranscriptsWellBelowJson() {
+        TranscriptionResultRedisSerializer serializer = new TranscriptionResultRedisSerializer(Codec.LZ4, 1024, jsonSerializer);
+        TranscriptionResult result = sample("so the next item on the agenda is the quarterly budget review ".repeat(300));
+
+        byte[] binary = serializer.serialize(result);
+
+        assertThat(binary[2]).isEqualTo((byte) 1);
+        assertThat(binary.length).isLessThan(jsonSerializer.serialize(result).length / 4);
+    }
+
+    @Test
+    void readsEntriesWrittenByTheJsonSerializer() {
+        TranscriptionResultRedisSerializer serializer = new TranscriptionResultRedisSerializer(Codec.LZ4, 1024, jsonSerializer);
+        TranscriptionResult result = sample("hello world");
+
+        Object decoded = serializer.deserialize(jsonSerializer.serialize(result));
+
+        assertThat(decoded).isInstanceOf(TranscriptionResult.class);
+        assertThat(((TranscriptionResult) decoded).getTranscript()).isEqualTo("hello world");
+    }
+
+    @Test
+    void treatsUnknownVersionsAsMisses() {
+        TranscriptionResultRedisSerializer serializer = new TranscriptionResultRedisSerializer(Codec.LZ4, 1024, jsonSerializer);
+        byte[] bytes = serializer.serialize(sample("hello world"));
+        bytes[1] = 99;
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    private static TranscriptionResult sample(String transcript) {
+        return TranscriptionResult.builder()
+                .id(42L)
+                .mediaFileId(7L)
+                .transcript(transcript)
+                .storageTier(TranscriptionResult.StorageTier.INLINE)
+                .transcriptSizeBytes(transcript.length())
+                .language("fr")
+                .confidence(0.93)
+                .wordCount(1200)
+                .processingTimeMs(15_400L)
+                .completedAt(LocalDateTime.of(2025, 10, 18, 14, 3, 7, 123_000_000))
+                .build();
+    }
+}
@@ -0,0 +1,243 @@
+package com.ahmedaziz.mediatranscriptionplatform.cache;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TwoTierCacheManagerTest {
+
+    private static final int CONCURRENT_REQUESTS = 64;
+
+    private final Map<Object, Object> redis = new ConcurrentHashMap<>();
+    private RedisCache redisCache;
+    private StringRedisTemplate redisTemplate;
+    private CacheInvalidationPublisher publisher;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoTierCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        redisCache = mock(RedisCache.class);
+        when(redisCache.getCacheConfiguration())
+                .thenReturn(RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofDays(1)));
+        when(redisCache.get(any())).thenAnswer(call -> {
+            Object value = redis.get(call.getArgument(0));
+            return value != null ? new SimpleValueWrapper(value) : null;
+        });
+        doAnswer(call -> redis.put(call.getArgument(0), call.getArgument(1))).when(redisCache).put(any(), any());
+        doAnswer(call -> redis.remove(call.getArgument(0))).when(redisCache).evict(any());
+
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.getExpire(anyString(), any(TimeUnit.class))).thenReturn(Duration.ofDays(1).toMillis());
+        publisher = mock(CacheInvalidationPublisher.class);
+        when(publisher.getNodeId()).thenReturn("self");
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = manager(settings(1.0, false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.destroy();
+    }
+
+    @Test
+    void servesRepeatReadsFromHeapAfterFirstRedisHit() {
+        TranscriptionResult result = TranscriptionResult.builder().mediaFileId(7L).transcript("hello").build();
+        redis.put(7L, result);
+        Cache cache = cacheManager.getCache("transcriptions");
+
+        assertThat(cache.get(7L).get()).isSameAs(result);
+        assertThat(cache.get(7L).get()).isSameAs(result);
+
+        verify(redisCache, times(1)).get(7L);
+        assertThat(meterRegistry.get("cache.near.hit.ratio").tag("tier", "l1").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("cache.near.hit.ratio").tag("tier", "l2").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void dropsHeapCopyWhenAnotherNodeInvalidates() {
+        TranscriptionResult result = TranscriptionResult.builder().mediaFileId(7L).build();
+        Cache cache = cacheManager.getCache("transcriptions");
+        cache.put(7L, result);
+        verify(publisher).publish("transcriptions", "7");
+        redis.clear();
+
+        cacheManager.onMessage(message("self|transcriptions|7"), null);
+        assertThat(cache.get(7L).get()).isSameAs(result);
+
+        cacheManager.onMessage(message("other|transcriptions|7"), null);
+        assertThat(cache.get(7L)).isNull();
+        verify(redisCache).get(7L);
+    }
+
+    @Test
+    void evictionReachesBothTiersAndOtherNodes() {
+        Cache cache = cacheManager.getCache("transcriptions");
+        cache.put(7L, TranscriptionResult.builder().mediaFileId(7L).build());
+
+        cache.evict(7L);
+
+        verify(redisCache).evict(7L);
+        verify(publisher, times(2)).publish("transcriptions", "7");
+        assertThat(cache.get(7L)).isNull();
+    }
+
+    @Test
+    void weighsTranscriptsByTheirSize() {
+        TranscriptionResult small = TranscriptionResult.builder().transcript("a").build();
+        TranscriptionResult large = TranscriptionResult.builder().transcript("a".repeat(10_000)).build();
+
+        assertThat(TwoTierCacheManager.estimateBytes(large) - TwoTierCacheManager.estimateBytes(small))
+                .isEqualTo(9_999);
+    }
+
+    @Test
+    void coalescesConcurrentMissesIntoOneLoad() throws Exception {
+        Cache cache = cacheManager.getCache("transcriptions");
+        AtomicInteger databaseLoads = new AtomicInteger();
+
+        List<Object> results = concurrently(() -> cache.get(7L, () -> {
+            databaseLoads.incrementAndGet();
+            Thread.sleep(200);
+            return TranscriptionResult.builder().mediaFileId(7L).transcript("hello").build();
+        }));
+
+        double coalesced = meterRegistry.get("cache.near.loads").tag("result", "coalesced").counter().count();
+        assertThat(databaseLoads).hasValue(1);
+        assertThat(results).hasSize(CONCURRENT_REQUESTS).allMatch(result -> result == results.get(0));
+        assertThat(coalesced).isEqualTo(CONCURRENT_REQUESTS - 1);
+        verify(redisCache, times(1)).put(eq(7L), any());
+    }
+
+    @Test
+    void sharesLoaderFailureWithWaitingCallers() throws Exception {
+        Cache cache = cacheManager.getCache("transcriptions");
+        AtomicInteger databaseLoads = new AtomicInteger();
+
+        List<Object> outcomes = concurrently(() -> {
+            try {
+                return cache.get(7L, () -> {
+                    databaseLoads.incrementAndGet();
+                    Thread.sleep(200);
+                    throw new IllegalArgumentException("Transcription not found for media file ID: 7");
+                });
+            } catch (Cache.ValueRetrievalException e) {
+                return e.getCause();
+            }
+        });
+
+        assertThat(databaseLoads).hasValue(1);
+        assertThat(outcomes).allMatch(IllegalArgumentException.class::isInstance);
+        assertThat(redis).isEmpty();
+    }
+
+    @Test
+    void refreshesEntriesInTheBackgroundAsExpiryNears() {
+        when(redisTemplate.getExpire(anyString(), any(TimeUnit.class))).thenReturn(5L);
+        redis.put(7L, TranscriptionResult.builder().mediaFileId(7L).transcript("old").build());
+        Cache cache = cacheManager.getCache("transcriptions");
+        TranscriptionResult fresh = TranscriptionResult.builder().mediaFileId(7L).transcript("new").build();
+
+        TranscriptionResult served = cache.get(7L, () -> fresh);
+
+        assertThat(served.getTranscript()).isEqualTo("old");
+        await().atMost(Duration.ofSeconds(5)).until(() -> redis.get(7L) == fresh);
+        assertThat(meterRegistry.get("cache.near.early.refresh").counter().count()).isEqualTo(1);
+        // Other nodes keep their copy of a hot key across its refresh
+        verify(publisher, never()).publish(anyString(), anyString());
+    }
+
+    @Test
+    void waitsForAnotherNodesLoadWhenTheRedisLockIsTaken() {
+        cacheManager.destroy();
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = manager(settings(0, true));
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(call -> {
+            redis.put(7L, TranscriptionResult.builder().mediaFileId(7L).transcript("remote").build());
+            return false;
+        });
+        Cache cache = cacheManager.getCache("transcriptions");
+        AtomicInteger databaseLoads = new AtomicInteger();
+
+        TranscriptionResult result = cache.get(7L, () -> {
+            databaseLoads.incrementAndGet();
+            return TranscriptionResult.builder().mediaFileId(7L).transcript("local").build();
+        });
+
+        assertThat(result.getTranscript()).isEqualTo("remote");
+        assertThat(databaseLoads).hasValue(0);
+        assertThat(meterRegistry.get("cache.near.loads").tag("result", "remote").counter().count()).isEqualTo(1);
+    }
+
+    private List<Object> concurrently(Callable<Object> request) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return request.call();
+                }));
+            }
+            start.countDown();
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private TwoTierCacheManager manager(NearCacheSettings settings) {
+        RedisCacheManager redisCacheManager = mock(RedisCacheManager.class);
+        when(redisCacheManager.getCache("transcriptions")).thenReturn(redisCache);
+        return new TwoTierCacheManager(redisCacheManager, publisher, redisTemplate, meterRegistry, settings);
+    }
+
+    private static NearCacheSettings settings(double beta, boolean distributedLock) {
+        return new NearCacheSettings(1_000_000, Duration.ofMinutes(10), beta, distributedLock,
+                Duration.ofSeconds(5), Duration.ofSeconds(1));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("cache-invalidation".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,89 @@
+package com.ahmedaziz.mediatranscriptionplatform.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new ReadReplicaRoutingDataSource(pool("primary"),
+                List.of(pool("replica-1"), pool("replica-2")), 2000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void sendsWritesToThePrimary() {
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("primary");
+    }
+
+    @Test
+    void spreadsReadOnlyTransactionsOverReplicas() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(List.of(routing.determineCurrentLookupKey(), routing.determineCurrentLookupKey()))
+                .containsExactlyInAnyOrder("replica-1", "replica-2");
+        assertThat(meterRegistry.get("datasource.routing.connections").tag("pool", "replica-1")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void honoursPrimaryRequirementForReadOnlyTransactions() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object key = ReplicaRoutingContext.onPrimary(routing::determineCurrentLookupKey);
+
+        assertThat(key).isEqualTo("primary");
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenNoReplicaIsReachable() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        routing.refreshReplicaLag();
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.routing.replica.fallback").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("datasource.replica.lag").tag("pool", "replica-1").gauge().value())
+                .isEqualTo(-1.0);
+    }
+
+    @Test
+    void retriesMissesFromAReplicaOnThePrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        Optional<Object> result = ReplicaRoutingContext.withPrimaryFallback(() -> {
+            calls.incrementAndGet();
+            Object key = routing.determineCurrentLookupKey();
+            return "primary".equals(key) ? Optional.of(key) : Optional.empty();
+        });
+
+        assertThat(result).contains("primary");
+        assertThat(calls).hasValue(2);
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        return pool;
+    }
+}
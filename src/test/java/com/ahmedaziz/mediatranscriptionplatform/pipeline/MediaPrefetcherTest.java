@@ -0,0 +1,97 @@
+package com.ahmedaziz.mediatranscriptionplatform.pipeline;
+
+import com.ahmedaziz.mediatranscriptionplatform.config.PipelineProperties;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaCache;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MediaPrefetcherTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MediaFileRepository mediaFileRepository;
+    private MediaStorage mediaStorage;
+    private MediaPrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mediaFileRepository = mock(MediaFileRepository.class);
+        mediaStorage = mock(MediaStorage.class);
+        when(mediaFileRepository.findById(anyLong())).thenAnswer(call -> Optional.of(MediaFile.builder()
+                .id(call.getArgument(0))
+                .storageUrl("object-" + call.getArgument(0))
+                .fileSize(4L)
+                .build()));
+        when(mediaStorage.downloadToFile(anyString(), any())).thenAnswer(call -> {
+            Files.write(call.<Path>getArgument(1), new byte[] {1, 2, 3, 4});
+            return "etag";
+        });
+
+        MediaCache mediaCache = new MediaCache(mediaStorage, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mediaCache, "enabled", true);
+        ReflectionTestUtils.setField(mediaCache, "dir", cacheDir.toString());
+        ReflectionTestUtils.setField(mediaCache, "maxBytes", 4L);
+        mediaCache.init();
+
+        PipelineProperties properties = new PipelineProperties();
+        properties.getPrefetch().setMaxBytes(8);
+        // Not started, so there is no background thread; the test drives prefetchNext() itself
+        prefetcher = new MediaPrefetcher(mediaFileRepository, mediaCache, properties, meterRegistry);
+    }
+
+    @Test
+    void prefetchesThisNodesJobsInOrderWithinTheByteBudget() throws Exception {
+        prefetcher.expect(1L);
+        prefetcher.expect(2L);
+        prefetcher.expect(3L);
+
+        while (prefetcher.prefetchNext()) {
+            // fill the window
+        }
+
+        // Two 4-byte files fit in the 8-byte budget; file 3 waits for room
+        verify(mediaStorage).downloadToFile(eq("object-1"), any());
+        verify(mediaStorage).downloadToFile(eq("object-2"), any());
+        verify(mediaStorage, never()).downloadToFile(eq("object-3"), any());
+        // QUEUED files in the database may belong to any node, so they are never looked at
+        verify(mediaFileRepository, never()).findIdsByStatus(any(), any(Limit.class));
+
+        try (MediaCache.Lease media = prefetcher.take(1L).orElseThrow()) {
+            assertThat(Files.readAllBytes(media.path())).containsExactly(1, 2, 3, 4);
+        }
+        assertThat(prefetcher.take(4L)).isEmpty();
+        assertThat(meterRegistry.get("transcription.pipeline.prefetch.hit.ratio").gauge().value()).isEqualTo(0.5);
+
+        // Job 2 ended without reaching fetch, e.g. another node had claimed the file
+        prefetcher.forget(2L);
+        assertThat(prefetcher.prefetchNext()).isTrue();
+        verify(mediaStorage).downloadToFile(eq("object-3"), any());
+        // File 2's lease was released, so the 4-byte cache could evict it and only file 3 is left on disk
+        try (var cached = Files.list(cacheDir)) {
+            assertThat(cached).hasSize(1);
+        }
+        assertThat(meterRegistry.get("transcription.pipeline.prefetch.discarded").counter().count()).isEqualTo(1);
+        assertThat(prefetcher.prefetchNext()).isFalse();
+    }
+}
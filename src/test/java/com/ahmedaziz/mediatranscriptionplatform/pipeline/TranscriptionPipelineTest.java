@@ -0,0 +1,155 @@
+package com.ahmedaziz.mediatranscriptionplatform.pipeline;
+
+import com.ahmedaziz.mediatranscriptionplatform.config.PipelineProperties;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import com.ahmedaziz.mediatranscriptionplatform.service.DownstreamLimiter;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaCache;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaStatusService;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaStorage;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionService;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionService.WhisperResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TranscriptionPipelineTest {
+
+    private static final byte[] MEDIA = {1, 2, 3, 4};
+    private static final List<MediaFile.ProcessingStatus> CLAIMABLE = List.of(MediaFile.ProcessingStatus.QUEUED);
+
+    @TempDir
+    Path cacheDir;
+
+    private final CountDownLatch whisperReleased = new CountDownLatch(1);
+    private MediaFileRepository mediaFileRepository;
+    private MediaStorage mediaStorage;
+    private TranscriptionService transcriptionService;
+    private TranscriptionPublisher transcriptionPublisher;
+    private MediaStatusService mediaStatusService;
+    private TranscriptionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mediaFileRepository = mock(MediaFileRepository.class);
+        mediaStorage = mock(MediaStorage.class);
+        transcriptionService = mock(TranscriptionService.class);
+        transcriptionPublisher = mock(TranscriptionPublisher.class);
+        mediaStatusService = mock(MediaStatusService.class);
+
+        when(mediaFileRepository.findById(anyLong())).thenAnswer(call -> Optional.of(MediaFile.builder()
+                .id(call.getArgument(0))
+                .originalFilename("clip.mp3")
+                .storageUrl("object-" + call.getArgument(0))
+                .fileSize((long) MEDIA.length)
+                .build()));
+        when(mediaFileRepository.startProcessing(anyLong(), any(), any())).thenReturn(1);
+        when(mediaStorage.downloadToFile(anyString(), any())).thenAnswer(call -> {
+            Files.write(call.<Path>getArgument(1), MEDIA);
+            return "etag";
+        });
+        when(transcriptionService.callWhisperService(any(), anyString())).thenAnswer(call -> {
+            assertThat(Files.readAllBytes(call.<Path>getArgument(0))).isEqualTo(MEDIA);
+            whisperReleased.await();
+            return new WhisperResponse();
+        });
+        when(transcriptionService.completeTranscription(any(), any(), anyLong())).thenAnswer(call -> TranscriptionResult.builder()
+                .mediaFileId(call.<MediaFile>getArgument(0).getId())
+                .build());
+
+        // Caching disabled, so every lease deletes its download when it is closed
+        MediaCache mediaCache = new MediaCache(mediaStorage, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mediaCache, "enabled", false);
+        ReflectionTestUtils.setField(mediaCache, "dir", cacheDir.toString());
+        mediaCache.init();
+
+        PipelineProperties properties = new PipelineProperties();
+        properties.setInfer(new PipelineProperties.Stage(1, 8));
+
+        pipeline = new TranscriptionPipeline(mediaFileRepository, mediaCache, transcriptionService,
+                transcriptionPublisher, mock(MediaPrefetcher.class), mediaStatusService,
+                new DownstreamLimiter(1, 60_000, 4, 60_000, new SimpleMeterRegistry()),
+                properties, new MockEnvironment(), new SimpleMeterRegistry());
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void downloadsLaterJobsWhileInferenceIsBusy() throws Exception {
+        CompletableFuture<TranscriptionResult> first = pipeline.submit(1L, CLAIMABLE);
+        CompletableFuture<TranscriptionResult> second = pipeline.submit(2L, CLAIMABLE);
+
+        // The single Whisper worker is stuck on job 1, yet job 2 has already been fetched
+        verify(mediaStorage, timeout(5_000)).downloadToFile(eq("object-2"), any());
+        assertThat(first).isNotDone();
+
+        whisperReleased.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getMediaFileId()).isEqualTo(1L);
+        assertThat(second.get(5, TimeUnit.SECONDS).getMediaFileId()).isEqualTo(2L);
+        verify(transcriptionPublisher, atLeastOnce()).publish(anyList(), anyLong());
+        try (var downloads = Files.list(cacheDir)) {
+            assertThat(downloads).isEmpty();
+        }
+    }
+
+    @Test
+    void dropsTheResultOfAFileThatIsNoLongerProcessing() throws Exception {
+        doReturn(null).when(transcriptionService)
+                .completeTranscription(argThat(file -> file.getId() == 4L), any(), anyLong());
+        whisperReleased.countDown();
+
+        assertThat(pipeline.submit(4L, CLAIMABLE).get(5, TimeUnit.SECONDS)).isNull();
+        // Only the claim was published; the file's status belongs to whoever requeued it
+        verify(mediaStatusService, times(1)).onTransition(4L);
+        verify(transcriptionPublisher, never()).publish(anyList(), anyLong());
+    }
+
+    @Test
+    void failsQueuedAndInFlightJobsOnShutdown() throws Exception {
+        CompletableFuture<TranscriptionResult> first = pipeline.submit(1L, CLAIMABLE);
+        CompletableFuture<TranscriptionResult> second = pipeline.submit(2L, CLAIMABLE);
+        verify(mediaStorage, timeout(5_000)).downloadToFile(eq("object-2"), any());
+
+        pipeline.stop();
+        whisperReleased.countDown();
+
+        for (CompletableFuture<TranscriptionResult> job : List.of(first, second)) {
+            assertThatThrownBy(() -> job.get(5, TimeUnit.SECONDS))
+                    .hasRootCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("Transcription pipeline is shutting down");
+        }
+        assertThatThrownBy(() -> pipeline.submit(3L, CLAIMABLE)).isInstanceOf(TaskRejectedException.class);
+        verify(transcriptionService, never()).completeTranscription(any(), any(), anyLong());
+    }
+
+    @Test
+    void skipsFilesThatAreAlreadyClaimed() throws Exception {
+        when(mediaFileRepository.startProcessing(eq(3L), any(), any())).thenReturn(0);
+
+        assertThat(pipeline.submit(3L, CLAIMABLE).get(5, TimeUnit.SECONDS)).isNull();
+        verify(mediaStorage, never()).downloadToFile(anyString(), any());
+    }
+}
@@ -0,0 +1,51 @@
+package com.ahmedaziz.mediatranscriptionplatform.pipeline;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult.StorageTier;
+import com.ahmedaziz.mediatranscriptionplatform.service.MediaStorage;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptStorageService;
+import com.ahmedaziz.mediatranscriptionplatform.service.kafka.KafkaProducerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TranscriptionPublisherTest {
+
+    @Test
+    void cachesCompressedTranscriptsAsText() throws Exception {
+        TranscriptStorageService storageService = new TranscriptStorageService(mock(MediaStorage.class),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(storageService, "compressThresholdBytes", 100);
+        ReflectionTestUtils.setField(storageService, "offloadThresholdBytes", 10_000);
+        String text = "the quick brown fox jumps over the lazy dog ".repeat(20);
+        TranscriptionResult result = TranscriptionResult.builder().id(1L).mediaFileId(7L).build();
+        storageService.storeTranscript(result, text);
+
+        ConcurrentMapCache cache = new ConcurrentMapCache("transcriptions");
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache("transcriptions")).thenReturn(cache);
+        KafkaProducerService kafkaProducerService = mock(KafkaProducerService.class);
+        when(kafkaProducerService.sendTranscriptionCompletedEvents(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        TranscriptionPublisher publisher = new TranscriptionPublisher(kafkaProducerService, cacheManager,
+                mock(RedisConnectionFactory.class), storageService);
+
+        publisher.publish(List.of(result), 5);
+
+        TranscriptionResult cached = (TranscriptionResult) cache.get(7L).get();
+        assertThat(cached.getStorageTier()).isEqualTo(StorageTier.COMPRESSED);
+        assertThat(cached.getTranscript()).isEqualTo(text);
+        assertThat(cached.getTranscriptCompressed()).isNull();
+    }
+}
@@ -0,0 +1,83 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.batch.BatchProgressListener;
+import com.ahmedaziz.mediatranscriptionplatform.dto.BatchProgressResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchJobServiceTest {
+
+    private JobExplorer jobExplorer;
+    private BatchProgressListener batchProgressListener;
+    private BatchJobService batchJobService;
+
+    @BeforeEach
+    void setUp() {
+        jobExplorer = mock(JobExplorer.class);
+        batchProgressListener = mock(BatchProgressListener.class);
+        batchJobService = new BatchJobService(mock(JobLauncher.class), mock(Job.class),
+                jobExplorer, batchProgressListener);
+    }
+
+    @Test
+    void rejectsUnknownJobIds() {
+        when(jobExplorer.getJobInstance(42L)).thenReturn(null);
+
+        assertThatThrownBy(() -> batchJobService.getJobStatus(42L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Job not found with ID: 42");
+    }
+
+    @Test
+    void rejectsJobsThatNeverRan() {
+        JobInstance instance = new JobInstance(7L, "transcriptionJob");
+        when(jobExplorer.getJobInstance(7L)).thenReturn(instance);
+        when(jobExplorer.getLastJobExecution(instance)).thenReturn(null);
+
+        assertThatThrownBy(() -> batchJobService.getJobStatus(7L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No execution found");
+    }
+
+    @Test
+    void sumsStepCountsAndAttachesLiveProgressWhileRunning() {
+        JobInstance instance = new JobInstance(7L, "transcriptionJob");
+        JobExecution execution = new JobExecution(instance, 11L, new JobParameters());
+        execution.setStatus(BatchStatus.STARTED);
+        StepExecution step = execution.createStepExecution("transcriptionStep");
+        step.setReadCount(30);
+        step.setWriteCount(28);
+        step.setProcessSkipCount(2);
+        BatchProgressResponse progress = BatchProgressResponse.builder().running(true).build();
+        when(jobExplorer.getJobInstance(7L)).thenReturn(instance);
+        when(jobExplorer.getLastJobExecution(instance)).thenReturn(execution);
+        when(batchProgressListener.snapshot()).thenReturn(progress);
+
+        Map<String, Object> status = batchJobService.getJobStatus(7L);
+
+        assertThat(status).containsEntry("jobName", "transcriptionJob")
+                .containsEntry("executionId", 11L)
+                .containsEntry("status", "STARTED")
+                .containsEntry("readCount", 30L)
+                .containsEntry("writeCount", 28L)
+                .containsEntry("skipCount", 2L)
+                .containsEntry("progress", progress);
+        assertThat((List<?>) status.get("steps")).hasSize(1);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalStorageServiceTest extends MediaStorageContractTest {
+
+    private LocalStorageService storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new LocalStorageService();
+        ReflectionTestUtils.setField(storage, "rootDir", dir.resolve("storage").toString());
+        storage.init();
+    }
+
+    @Override
+    protected MediaStorage storage() {
+        return storage;
+    }
+
+    @Test
+    void rejectsNamesOutsideTheRoot() {
+        assertThatThrownBy(() -> storage.uploadBytes("../escape.bin", new byte[] {1}, "application/octet-stream"))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MediaCacheTest {
+
+    private static final byte[] MEDIA = {1, 2, 3, 4};
+
+    @TempDir
+    Path cacheDir;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MediaStorage mediaStorage;
+    private MediaCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mediaStorage = mock(MediaStorage.class);
+        when(mediaStorage.downloadToFile(anyString(), any())).thenAnswer(call -> {
+            Files.write(call.<Path>getArgument(1), MEDIA);
+            return "v1";
+        });
+        when(mediaStorage.getEtag(anyString())).thenReturn("v1");
+
+        cache = new MediaCache(mediaStorage, meterRegistry);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "dir", cacheDir.toString());
+        ReflectionTestUtils.setField(cache, "maxBytes", 8L);
+        cache.init();
+    }
+
+    @Test
+    void servesRepeatReadsFromDiskWhileTheEtagMatches() throws Exception {
+        try (MediaCache.Lease first = cache.open("a")) {
+            assertThat(Files.readAllBytes(first.path())).isEqualTo(MEDIA);
+        }
+        try (MediaCache.Lease second = cache.open("a")) {
+            assertThat(Files.readAllBytes(second.path())).isEqualTo(MEDIA);
+        }
+
+        verify(mediaStorage, times(1)).downloadToFile(eq("a"), any());
+        assertThat(meterRegistry.get("media.cache.bytes.saved").counter().count()).isEqualTo(MEDIA.length);
+        assertThat(meterRegistry.get("media.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void downloadsAgainWhenTheObjectChanged() throws Exception {
+        Path stalePath;
+        try (MediaCache.Lease lease = cache.open("a")) {
+            stalePath = lease.path();
+        }
+        when(mediaStorage.getEtag("a")).thenReturn("v2");
+
+        try (MediaCache.Lease lease = cache.open("a")) {
+            assertThat(lease.path()).isNotEqualTo(stalePath);
+        }
+
+        verify(mediaStorage, times(2)).downloadToFile(eq("a"), any());
+        assertThat(stalePath).doesNotExist();
+        assertThat(meterRegistry.get("media.cache.requests").tag("result", "stale").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesButNeverLeasedOnes() throws Exception {
+        MediaCache.Lease held = cache.open("a");
+        cache.open("b").close();
+        // Over the 8-byte budget; "a" is the oldest but still leased, so "b" goes
+        cache.open("c").close();
+
+        assertThat(held.path()).exists();
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.cachedBytes()).isEqualTo(8);
+        assertThat(meterRegistry.get("media.cache.evictions").counter().count()).isEqualTo(1);
+
+        held.close();
+        cache.open("b").close();
+        // "a" is no longer leased and is now the least recently used entry
+        assertThat(held.path()).doesNotExist();
+    }
+}
@@ -0,0 +1,119 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaStatusRecord;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionResultRepository;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionResultService.TranscriptionStatusResponse;
+import com.ahmedaziz.mediatranscriptionplatform.service.kafka.KafkaProducerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MediaStatusServiceTest {
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private MediaFileRepository mediaFileRepository;
+    private TranscriptionResultRepository transcriptionResultRepository;
+    private StringRedisTemplate redisTemplate;
+    private KafkaProducerService kafkaProducerService;
+    private MediaStatusStore mediaStatusStore;
+    private MediaStatusService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mediaFileRepository = mock(MediaFileRepository.class);
+        transcriptionResultRepository = mock(TranscriptionResultRepository.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        kafkaProducerService = mock(KafkaProducerService.class);
+        mediaStatusStore = mock(MediaStatusStore.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.get(anyString())).thenAnswer(call -> redis.get(call.<String>getArgument(0)));
+        doAnswer(call -> redis.put(call.getArgument(0), call.getArgument(1)))
+                .when(values).set(anyString(), anyString(), any(Duration.class));
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(call -> redis.putIfAbsent(call.getArgument(0), call.getArgument(1)) == null);
+
+        service = new MediaStatusService(mediaFileRepository, transcriptionResultRepository, redisTemplate,
+                mock(TranscriptNegativeCache.class), kafkaProducerService, mediaStatusStore, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(service, "channel", "media-status-updates");
+    }
+
+    @Test
+    void answersRepeatPollsWithoutQueryingTheDatabase() {
+        givenMediaFile(MediaFile.ProcessingStatus.PROCESSING);
+
+        service.getStatus(5L);
+        service.getStatus(5L);
+        TranscriptionStatusResponse status = service.getStatus(5L);
+
+        assertThat(status.getStatus()).isEqualTo("PROCESSING");
+        assertThat(status.getProcessingStartedAt()).isEqualTo(LocalDateTime.of(2025, 10, 18, 9, 30));
+        verify(mediaFileRepository, times(1)).findById(5L);
+        verify(transcriptionResultRepository, times(1)).existsByMediaFileId(5L);
+    }
+
+    @Test
+    void transitionOverwritesTheCachedStatusAndPublishesIt() {
+        givenMediaFile(MediaFile.ProcessingStatus.PROCESSING);
+        service.getStatus(5L);
+
+        givenMediaFile(MediaFile.ProcessingStatus.COMPLETED);
+        when(transcriptionResultRepository.existsByMediaFileId(5L)).thenReturn(true);
+        service.onTransition(5L);
+
+        TranscriptionStatusResponse status = service.getStatus(5L);
+        assertThat(status.getStatus()).isEqualTo("COMPLETED");
+        assertThat(status.isHasTranscription()).isTrue();
+        assertThat(MediaStatusService.isTerminal(status)).isTrue();
+        verify(redisTemplate).convertAndSend(eq("media-status-updates"), eq(redis.get("media-status::5")));
+        verify(kafkaProducerService).sendMediaStatus(argThat(record ->
+                record.getStatus() == MediaFile.ProcessingStatus.COMPLETED && record.isHasTranscription()));
+        verify(mediaFileRepository, times(2)).findById(5L);
+    }
+
+    @Test
+    void servesFromTheRestoredStatusStoreBeforeRedis() {
+        when(mediaStatusStore.find(5L)).thenReturn(Optional.of(MediaStatusRecord.builder()
+                .mediaFileId(5L)
+                .status(MediaFile.ProcessingStatus.FAILED)
+                .errorMessage("Unsupported codec")
+                .retryCount(3)
+                .build()));
+
+        TranscriptionStatusResponse status = service.getStatus(5L);
+
+        assertThat(status.getStatus()).isEqualTo("FAILED");
+        assertThat(status.getMessage()).isEqualTo("Transcription failed: Unsupported codec");
+        verifyNoInteractions(mediaFileRepository);
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    private void givenMediaFile(MediaFile.ProcessingStatus status) {
+        when(mediaFileRepository.findById(5L)).thenReturn(Optional.of(MediaFile.builder()
+                .id(5L)
+                .status(status)
+                .processingStartedAt(LocalDateTime.of(2025, 10, 18, 9, 30))
+                .retryCount(0)
+                .build()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile.ProcessingStatus;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaStatusRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class MediaStatusStoreTest {
+
+    private MediaStatusStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new MediaStatusStore(mock(ConsumerFactory.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "maxLagRecords", 1000L);
+        ReflectionTestUtils.setField(store, "maxStalenessMs", 5000L);
+    }
+
+    @Test
+    void servesNothingUntilTheChangelogHasBeenReplayed() {
+        store.apply(1L, record(1L, ProcessingStatus.UPLOADED, 0));
+
+        assertThat(store.find(1L)).isEmpty();
+
+        store.markRestored();
+        assertThat(store.find(1L)).map(MediaStatusRecord::getStatus).contains(ProcessingStatus.UPLOADED);
+    }
+
+    @Test
+    void servesNothingWhileFarBehindTheChangelog() {
+        store.apply(1L, record(1L, ProcessingStatus.UPLOADED, 0));
+        store.markRestored();
+
+        ReflectionTestUtils.setField(store, "lagRecords", 1001L);
+        assertThat(store.find(1L)).isEmpty();
+
+        // A few records behind, but the newest applied one was written long ago: the consumer is stuck
+        ReflectionTestUtils.setField(store, "lagRecords", 3L);
+        ReflectionTestUtils.setField(store, "lastAppliedTimestamp", System.currentTimeMillis() - 60_000);
+        assertThat(store.find(1L)).isEmpty();
+        assertThat(store.isCurrent()).isFalse();
+
+        ReflectionTestUtils.setField(store, "lastAppliedTimestamp", System.currentTimeMillis());
+        assertThat(store.find(1L)).isPresent();
+    }
+
+    @Test
+    void keepsTheStatusIndexInStepWithTransitionsAndTombstones() {
+        store.markRestored();
+        for (long id = 1; id <= 5; id++) {
+            store.apply(id, record(id, ProcessingStatus.UPLOADED, 0));
+        }
+        store.apply(2L, record(2L, ProcessingStatus.PROCESSING, 0));
+        store.apply(4L, record(4L, ProcessingStatus.COMPLETED, 0));
+        store.apply(5L, null);
+
+        assertThat(store.list(ProcessingStatus.UPLOADED, 0L, 10))
+                .extracting(MediaStatusRecord::getMediaFileId).containsExactly(1L, 3L);
+        assertThat(store.list(null, 1L, 2))
+                .extracting(MediaStatusRecord::getMediaFileId).containsExactly(2L, 3L);
+        assertThat(store.find(5L)).isEmpty();
+    }
+
+    @Test
+    void ignoresAnOlderTransitionThatArrivesLate() {
+        store.markRestored();
+        store.apply(7L, record(7L, ProcessingStatus.PROCESSING, 0));
+        store.apply(7L, record(7L, ProcessingStatus.UPLOADED, 0));
+        assertThat(store.find(7L)).map(MediaStatusRecord::getStatus).contains(ProcessingStatus.PROCESSING);
+
+        // A retry re-queues the file with a higher retry count, which does supersede PROCESSING
+        store.apply(7L, record(7L, ProcessingStatus.UPLOADED, 1));
+        assertThat(store.find(7L)).map(MediaStatusRecord::getStatus).contains(ProcessingStatus.UPLOADED);
+        assertThat(store.list(ProcessingStatus.PROCESSING, 0L, 10)).isEmpty();
+    }
+
+    private static MediaStatusRecord record(long id, ProcessingStatus status, int retryCount) {
+        return MediaStatusRecord.builder()
+                .mediaFileId(id)
+                .status(status)
+                .retryCount(retryCount)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour every {@link MediaStorage} backend must share. Each backend's test extends this class
+ * and returns its storage from {@link #storage()}.
+ */
+abstract class MediaStorageContractTest {
+
+    @TempDir
+    Path dir;
+
+    protected abstract MediaStorage storage();
+
+    @Test
+    void storesUploadsUnderAGeneratedName() throws Exception {
+        String name = storage().uploadFile(
+                new MockMultipartFile("file", "talk.mp3", "audio/mpeg", new byte[] {1, 2, 3}));
+
+        assertThat(name).endsWith(".mp3");
+        assertThat(storage().fileExists(name)).isTrue();
+        assertThat(storage().downloadFileAsBytes(name)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void copiesFilesWithTheirMetadata() throws Exception {
+        Path source = Files.write(dir.resolve("archive.gz"), new byte[] {4, 5, 6, 7});
+        storage().uploadFile("archives/2024_01.gz", source, "application/gzip", Map.of("bound", "2024-02-01"));
+
+        Path target = dir.resolve("copy.gz");
+        String etag = storage().downloadToFile("archives/2024_01.gz", target);
+
+        assertThat(Files.readAllBytes(target)).containsExactly(4, 5, 6, 7);
+        assertThat(etag).isEqualTo(storage().getEtag("archives/2024_01.gz"));
+        assertThat(storage().getUserMetadata("archives/2024_01.gz")).containsEntry("bound", "2024-02-01");
+    }
+
+    @Test
+    void changesTheEtagWhenAnObjectIsReplaced() throws Exception {
+        storage().uploadBytes("transcripts/1.zst", new byte[] {1}, "application/octet-stream");
+        String before = storage().getEtag("transcripts/1.zst");
+
+        storage().uploadBytes("transcripts/1.zst", new byte[] {2, 2}, "application/octet-stream");
+
+        assertThat(storage().getEtag("transcripts/1.zst")).isNotEqualTo(before);
+        assertThat(storage().downloadFileAsBytes("transcripts/1.zst")).containsExactly(2, 2);
+    }
+
+    @Test
+    void listsObjectsAtAnyDepthUnderAPrefix() throws Exception {
+        storage().uploadBytes("archives/a.gz", new byte[] {1}, "application/gzip");
+        storage().uploadBytes("archives/2024/b.gz", new byte[] {1}, "application/gzip");
+        storage().uploadBytes("transcripts/c.zst", new byte[] {1}, "application/octet-stream");
+
+        assertThat(storage().listObjects("archives/"))
+                .containsExactlyInAnyOrder("archives/a.gz", "archives/2024/b.gz");
+    }
+
+    @Test
+    void forgetsDeletedObjects() throws Exception {
+        storage().uploadBytes("transcripts/2.zst", new byte[] {1}, "application/octet-stream");
+
+        storage().deleteFile("transcripts/2.zst");
+
+        assertThat(storage().fileExists("transcripts/2.zst")).isFalse();
+        assertThat(storage().listObjects("transcripts/")).isEmpty();
+        assertThatThrownBy(() -> storage().downloadFileAsBytes("transcripts/2.zst")).isInstanceOf(IOException.class);
+    }
+}
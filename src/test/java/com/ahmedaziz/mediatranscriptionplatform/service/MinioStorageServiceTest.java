@@ -0,0 +1,119 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.support.MinioStandIn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MinioStorageServiceTest extends MediaStorageContractTest {
+
+    private static final byte[] MEDIA = new byte[10_500];
+
+    static {
+        new Random(42).nextBytes(MEDIA);
+    }
+
+    private MinioStandIn minio;
+    private MinioStorageService storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        minio = new MinioStandIn();
+        minio.putObject("media-files", "clip.mp4", MEDIA);
+
+        storage = new MinioStorageService(minio.client(),
+                new DownstreamLimiter(1, 60_000, 8, 60_000, new SimpleMeterRegistry()), new MockEnvironment());
+        ReflectionTestUtils.setField(storage, "bucketName", "media-files");
+        ReflectionTestUtils.setField(storage, "rangeSizeBytes", 1_000L);
+        ReflectionTestUtils.setField(storage, "parallelism", 4);
+        ReflectionTestUtils.setField(storage, "maxAttempts", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        minio.close();
+    }
+
+    @Override
+    protected MediaStorage storage() {
+        return storage;
+    }
+
+    @Test
+    void downloadsAnObjectInParallelRanges() throws Exception {
+        Path target = dir.resolve("clip.mp4");
+
+        String etag = storage.downloadToFile("clip.mp4", target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(MEDIA);
+        assertThat(etag).isEqualTo(storage.getEtag("clip.mp4"));
+        // 10,500 bytes in 1,000-byte ranges
+        assertThat(minio.getRequests()).isEqualTo(11);
+    }
+
+    @Test
+    void downloadsOverFewerConnectionsWhenNoPermitsAreFree() throws Exception {
+        DownstreamLimiter limiter = new DownstreamLimiter(1, 60_000, 2, 100, new SimpleMeterRegistry());
+        storage = new MinioStorageService(minio.client(), limiter, new MockEnvironment());
+        ReflectionTestUtils.setField(storage, "bucketName", "media-files");
+        ReflectionTestUtils.setField(storage, "rangeSizeBytes", 1_000L);
+        ReflectionTestUtils.setField(storage, "parallelism", 4);
+        ReflectionTestUtils.setField(storage, "maxAttempts", 3);
+        Path target = dir.resolve("clip.mp4");
+
+        // Another download holds the other permit, so no helper may wait for one
+        try (DownstreamLimiter.Permit held = limiter.acquire(DownstreamLimiter.Downstream.MINIO)) {
+            storage.downloadToFile("clip.mp4", target);
+
+            assertThat(limiter.availablePermits(DownstreamLimiter.Downstream.MINIO)).isEqualTo(1);
+        }
+        assertThat(Files.readAllBytes(target)).isEqualTo(MEDIA);
+        assertThat(minio.getRequests()).isEqualTo(11);
+    }
+
+    @Test
+    void resumesRangesThatWereCutOff() throws Exception {
+        Path target = dir.resolve("clip.mp4");
+        minio.truncateNextRanges(2);
+
+        storage.downloadToFile("clip.mp4", target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(MEDIA);
+        assertThat(minio.getRequests()).isEqualTo(13);
+    }
+
+    @Test
+    void givesUpOnARangeAfterMaxAttempts() {
+        ReflectionTestUtils.setField(storage, "parallelism", 1);
+        minio.truncateNextRanges(3);
+
+        assertThatThrownBy(() -> storage.downloadToFile("clip.mp4", dir.resolve("clip.mp4")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("bytes 1000-1999");
+    }
+
+    @Test
+    void fetchesSmallAndEmptyObjectsWithoutExtraRequests() throws Exception {
+        minio.putObject("media-files", "short.mp3", new byte[] {1, 2, 3});
+        minio.putObject("media-files", "empty.mp3", new byte[0]);
+
+        storage.downloadToFile("short.mp3", dir.resolve("short.mp3"));
+        storage.downloadToFile("empty.mp3", dir.resolve("empty.mp3"));
+
+        assertThat(Files.readAllBytes(dir.resolve("short.mp3"))).containsExactly(1, 2, 3);
+        assertThat(dir.resolve("empty.mp3")).isEmptyFile();
+        // One request for the short object; the empty one needs a plain GET after the refused range
+        assertThat(minio.getRequests()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,212 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.dto.RetentionRunResponse;
+import com.ahmedaziz.mediatranscriptionplatform.service.TablePartitionService.PartitionInfo;
+import com.ahmedaziz.mediatranscriptionplatform.service.TablePartitionService.PartitionedTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PartitionArchiveServiceTest {
+
+    private static final PartitionedTable MEDIA_FILES = TablePartitionService.TABLES.get(0);
+    private static final PartitionedTable RESULTS = TablePartitionService.TABLES.get(1);
+
+    // Every statement, upload, re-publish and commit, in the order they happen
+    private final List<String> log = new ArrayList<>();
+    private final Map<String, byte[]> objects = new HashMap<>();
+    private final Map<String, Map<String, String>> metadata = new HashMap<>();
+    // Detached partitions by name, with the bound kept in their comment
+    private final Map<String, String> archivePending = new HashMap<>();
+    private final List<Object[]> partitionRows = new ArrayList<>();
+
+    private TablePartitionService tablePartitionService;
+    private PreparedStatement insert;
+    private PartitionArchiveService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Connection connection = connection();
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+
+        tablePartitionService = mock(TablePartitionService.class);
+        when(tablePartitionService.findTable(anyString())).thenCallRealMethod();
+
+        MediaStatusService mediaStatusService = mock(MediaStatusService.class);
+        doAnswer(invocation -> log.add("republish " + invocation.getArgument(0)))
+                .when(mediaStatusService).republish(any());
+
+        service = new PartitionArchiveService(jdbcTemplate, tablePartitionService, storage(),
+                mediaStatusService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "retentionDays", 365);
+        ReflectionTestUtils.setField(service, "archivePrefix", "archive/");
+    }
+
+    @Test
+    void detachesExportsAndOnlyThenDropsExpiredPartitions() {
+        String bound = "FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00')";
+        givenPartition(RESULTS, "transcription_results_p202401", bound, LocalDateTime.of(2024, 2, 1, 0, 0));
+        partitionRows.add(new Object[] {"{\"id\":1,\"media_file_id\":7}", 7L});
+
+        RetentionRunResponse report = service.runRetention();
+
+        assertThat(report.getArchived()).containsExactly("transcription_results_p202401");
+        assertThat(report.getRowsArchived()).isEqualTo(1);
+        assertThat(log).containsSubsequence(
+                "COMMENT ON TABLE transcription_results_p202401 IS 'archive-pending:" + bound.replace("'", "''") + "'",
+                "ALTER TABLE transcription_results DETACH PARTITION transcription_results_p202401 CONCURRENTLY",
+                "SELECT row_to_json(t)::text FROM transcription_results_p202401 t",
+                "upload archive/transcription_results/transcription_results_p202401.ndjson.gz",
+                "republish [7]",
+                "DELETE FROM transcription_result_keys k USING transcription_results_p202401 p "
+                        + "WHERE k.media_file_id = p.media_file_id",
+                "DROP TABLE transcription_results_p202401",
+                "COMMIT",
+                "SELECT pg_advisory_unlock(" + TablePartitionService.ADVISORY_LOCK_KEY + ")");
+        assertThat(metadata.get("archive/transcription_results/transcription_results_p202401.ndjson.gz"))
+                .containsEntry("bound", bound)
+                .containsEntry("rows", "1");
+    }
+
+    @Test
+    void restoresAnArchivedIdRangeUnderItsOriginalBound() throws Exception {
+        String bound = "FOR VALUES FROM (2024010000000000) TO (2024020000000000)";
+        String row = "{\"id\":2024010000000051,\"status\":\"COMPLETED\"}";
+        givenPartition(MEDIA_FILES, "media_files_p202401", bound, LocalDateTime.of(2024, 2, 1, 0, 0));
+        partitionRows.add(new Object[] {row, 2024010000000051L});
+        service.runRetention();
+        log.clear();
+
+        long restored = service.restore("media_files", "media_files_p202401");
+
+        assertThat(restored).isEqualTo(1);
+        verify(insert).setString(1, "[" + row + "]");
+        assertThat(log).containsSubsequence(
+                "CREATE TABLE media_files_p202401 (LIKE media_files INCLUDING DEFAULTS INCLUDING CONSTRAINTS "
+                        + "INCLUDING STORAGE)",
+                "INSERT INTO media_files_p202401 SELECT * FROM json_populate_recordset(NULL::media_files_p202401, "
+                        + "CAST(? AS json))",
+                "ALTER TABLE media_files ATTACH PARTITION media_files_p202401 " + bound,
+                "COMMIT",
+                "republish [2024010000000051]");
+        // media_files has no key table to refill
+        assertThat(log).noneMatch(statement -> statement.startsWith("INSERT INTO transcription_result_keys"));
+    }
+
+    private void givenPartition(PartitionedTable table, String name, String bound, LocalDateTime upperBound) {
+        when(tablePartitionService.listPartitions(table)).thenAnswer(invocation -> {
+            // Detaching takes the partition out of the list and leaves its bound in its comment
+            archivePending.put(name, bound);
+            return List.of(new PartitionInfo(table.name(), name, bound, upperBound, false, null, 1));
+        });
+    }
+
+    private Connection connection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenAnswer(invocation -> statement());
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            log.add(sql);
+            PreparedStatement statement = mock(PreparedStatement.class);
+            if (sql.contains("json_populate_recordset")) {
+                insert = statement;
+            } else if (sql.contains("to_regclass")) {
+                when(statement.executeQuery()).thenAnswer(query -> resultSet(List.<Object[]>of(new Object[] {false})));
+            } else {
+                String[] pattern = new String[1];
+                doAnswer(set -> pattern[0] = set.getArgument(1)).when(statement).setString(eq(1), anyString());
+                when(statement.executeQuery()).thenAnswer(query -> resultSet(archivePending.entrySet().stream()
+                        .filter(pending -> pending.getKey().startsWith(
+                                pattern[0].replace("\\_", "_").replace("%", "")))
+                        .map(pending -> new Object[] {pending.getKey(), "archive-pending:" + pending.getValue()})
+                        .toList()));
+            }
+            return statement;
+        });
+        doAnswer(invocation -> log.add("COMMIT")).when(connection).commit();
+        doAnswer(invocation -> log.add("ROLLBACK")).when(connection).rollback();
+        return connection;
+    }
+
+    private Statement statement() throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(statement.execute(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            log.add(sql);
+            if (sql.startsWith("DROP TABLE")) {
+                archivePending.remove(sql.substring("DROP TABLE ".length()));
+            }
+            return false;
+        });
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            log.add(sql);
+            if (sql.contains("pg_try_advisory_lock")) {
+                return resultSet(List.<Object[]>of(new Object[] {true}));
+            }
+            if (sql.contains("row_to_json")) {
+                return resultSet(partitionRows.stream().map(row -> new Object[] {row[0]}).toList());
+            }
+            return resultSet(partitionRows.stream().map(row -> new Object[] {row[1]}).toList());
+        });
+        return statement;
+    }
+
+    private MediaStorage storage() throws Exception {
+        MediaStorage storage = mock(MediaStorage.class);
+        doAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            log.add("upload " + name);
+            objects.put(name, Files.readAllBytes(invocation.<Path>getArgument(1)));
+            metadata.put(name, invocation.getArgument(3));
+            return null;
+        }).when(storage).uploadFile(anyString(), any(Path.class), anyString(), any());
+        when(storage.fileExists(anyString())).thenAnswer(invocation -> objects.containsKey(invocation.getArgument(0)));
+        when(storage.getUserMetadata(anyString())).thenAnswer(invocation -> metadata.get(invocation.getArgument(0)));
+        when(storage.downloadFile(anyString()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(objects.get(invocation.<String>getArgument(0))));
+        return storage;
+    }
+
+    private static ResultSet resultSet(List<Object[]> rows) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        int[] cursor = {-1};
+        when(resultSet.next()).thenAnswer(invocation -> ++cursor[0] < rows.size());
+        when(resultSet.getString(anyInt()))
+                .thenAnswer(invocation -> rows.get(cursor[0])[invocation.<Integer>getArgument(0) - 1]);
+        when(resultSet.getLong(anyInt()))
+                .thenAnswer(invocation -> rows.get(cursor[0])[invocation.<Integer>getArgument(0) - 1]);
+        when(resultSet.getBoolean(anyInt()))
+                .thenAnswer(invocation -> rows.get(cursor[0])[invocation.<Integer>getArgument(0) - 1]);
+        return resultSet;
+    }
+}
@@ -0,0 +1,227 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.dto.RetentionRunResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the partition conversion, retention and restore against a real Postgres, starting from the
+ * plain tables Hibernate creates. Uses a Testcontainers Postgres, or an existing server with
+ * {@code -Dit.postgres.url=jdbc:postgresql://host:port/db} (plus {@code it.postgres.user} and
+ * {@code it.postgres.password}); there everything happens in a {@code partitioning_it} schema that
+ * is dropped and recreated for each test.
+ */
+class TablePartitionPostgresTest {
+
+    private static final String SCHEMA = "partitioning_it";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static PostgreSQLContainer<?> container;
+    private static DataSource dataSource;
+
+    private final LocalDateTime thisMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+    private final LocalDateTime nextMonth = thisMonth.plusMonths(1);
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbcTemplate;
+    private TablePartitionService partitionService;
+
+    @BeforeAll
+    static void startDatabase() {
+        String url = System.getProperty("it.postgres.url");
+        if (url == null) {
+            assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Needs Docker or -Dit.postgres.url");
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        DriverManagerDataSource server = url != null
+                ? new DriverManagerDataSource(url, System.getProperty("it.postgres.user", "postgres"),
+                        System.getProperty("it.postgres.password", ""))
+                : new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+        dataSource = new DelegatingDataSource(server) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET search_path TO " + SCHEMA);
+                }
+                return connection;
+            }
+        };
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        createHibernateSchema();
+
+        partitionService = new TablePartitionService(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(partitionService, "premakeMonths", 1);
+    }
+
+    @Test
+    void convertsLiveTablesWithoutLosingRowsOrConstraints() {
+        partitionService.initialisePartitions();
+        // A second start finds the tables converted and changes nothing
+        partitionService.initialisePartitions();
+
+        assertThat(partitionsOf("media_files")).containsExactly(
+                "media_files_legacy", "media_files_p" + MONTH.format(nextMonth));
+        assertThat(partitionsOf("transcription_results")).containsExactly(
+                "transcription_results_legacy", "transcription_results_p" + MONTH.format(nextMonth));
+        assertThat(count("media_files")).isEqualTo(3);
+        assertThat(count("transcription_results")).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT media_file_id FROM transcription_result_keys ORDER BY 1",
+                Long.class)).containsExactly(1L, 2L);
+        assertThat(indexesOf("media_files")).contains("idx_status", "idx_status_id", "idx_uploaded_at");
+        assertThat(indexesOf("transcription_results")).contains("idx_media_file_id", "idx_transcription_completed_at");
+
+        // Hibernate's pooled optimizer hands out the 50 ids up to each value, so new ids start just past this
+        // month's base and land in the partition covering it
+        long id = jdbcTemplate.queryForObject("SELECT nextval('media_files_seq')", Long.class);
+        assertThat(id).isEqualTo(TablePartitionService.monthStartId(thisMonth) + 50);
+        insertMediaFile(id, "UPLOADED");
+        assertThat(jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM media_files WHERE id = ?",
+                String.class, id)).isEqualTo("media_files_legacy");
+        insertMediaFile(TablePartitionService.monthStartId(nextMonth) + 1, "UPLOADED");
+        assertThat(jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM media_files WHERE id = ?",
+                String.class, TablePartitionService.monthStartId(nextMonth) + 1))
+                .isEqualTo("media_files_p" + MONTH.format(nextMonth));
+
+        // Hibernate's enum checks still hold for rows in new partitions
+        assertThatThrownBy(() -> insertMediaFile(TablePartitionService.monthStartId(nextMonth) + 2, "LOST"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void archivesExpiredPartitionsAndRestoresThemUnderTheirBounds() throws Exception {
+        partitionService.initialisePartitions();
+        LocalStorageService storage = new LocalStorageService();
+        ReflectionTestUtils.setField(storage, "rootDir", dir.toString());
+        storage.init();
+        PartitionArchiveService archiveService = new PartitionArchiveService(jdbcTemplate, partitionService,
+                storage, mock(MediaStatusService.class), new SimpleMeterRegistry());
+        // Expires the legacy partitions, which end at the start of next month, and nothing after them
+        long daysToNextMonth = Duration.between(LocalDateTime.now(), nextMonth).toDays() + 1;
+        ReflectionTestUtils.setField(archiveService, "retentionDays", (int) -daysToNextMonth);
+        ReflectionTestUtils.setField(archiveService, "restoredHoldDays", 7);
+        ReflectionTestUtils.setField(archiveService, "archivePrefix", "archive/");
+
+        RetentionRunResponse report = archiveService.runRetention();
+
+        assertThat(report.getArchived()).containsExactlyInAnyOrder("media_files_legacy", "transcription_results_legacy");
+        assertThat(report.getRowsArchived()).isEqualTo(5);
+        assertThat(count("media_files")).isZero();
+        assertThat(count("transcription_results")).isZero();
+        assertThat(count("transcription_result_keys")).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('media_files_legacy') IS NULL", Boolean.class))
+                .isTrue();
+
+        assertThat(archiveService.restore("media_files", "media_files_legacy")).isEqualTo(3);
+        assertThat(archiveService.restore("transcription_results", "transcription_results_legacy")).isEqualTo(2);
+
+        assertThat(partitionsOf("media_files")).contains("media_files_legacy");
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM media_files ORDER BY id", Long.class))
+                .containsExactly(1L, 2L, 3L);
+        assertThat(jdbcTemplate.queryForList("SELECT transcript FROM transcription_results ORDER BY id", String.class))
+                .containsExactly("first transcript", "second transcript");
+        assertThat(count("transcription_result_keys")).isEqualTo(2);
+        // Restored partitions are held back from the next run
+        assertThat(archiveService.runRetention().getDetached()).isEmpty();
+    }
+
+    // What ddl-auto creates for MediaFile and TranscriptionResult, with a few rows from before partitioning
+    private void createHibernateSchema() {
+        jdbcTemplate.execute("CREATE SEQUENCE media_files_seq START WITH 1 INCREMENT BY 50");
+        jdbcTemplate.execute("CREATE SEQUENCE transcription_results_seq START WITH 1 INCREMENT BY 50");
+        jdbcTemplate.execute("CREATE TABLE media_files (" +
+                "retry_count integer, completed_at timestamp(6), file_size bigint NOT NULL, id bigint NOT NULL, " +
+                "processing_started_at timestamp(6), uploaded_at timestamp(6) NOT NULL, " +
+                "content_type varchar(255) NOT NULL, error_message varchar(255), filename varchar(255) NOT NULL, " +
+                "media_type varchar(255) NOT NULL CHECK (media_type IN ('AUDIO','VIDEO')), " +
+                "original_filename varchar(255) NOT NULL, " +
+                "status varchar(255) NOT NULL " +
+                "CHECK (status IN ('UPLOADED','QUEUED','PROCESSING','COMPLETED','FAILED')), " +
+                "storage_url varchar(255) NOT NULL, PRIMARY KEY (id))");
+        jdbcTemplate.execute("CREATE INDEX idx_status ON media_files (status)");
+        jdbcTemplate.execute("CREATE INDEX idx_status_id ON media_files (status, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_uploaded_at ON media_files (uploaded_at)");
+        jdbcTemplate.execute("CREATE TABLE transcription_results (" +
+                "confidence float(53), transcript_size_bytes integer, word_count integer, " +
+                "completed_at timestamp(6) NOT NULL, id bigint NOT NULL, media_file_id bigint NOT NULL, " +
+                "processing_time_ms bigint, transcript_compressed bytea, language varchar(255), " +
+                "storage_tier varchar(255) CHECK (storage_tier IN ('INLINE','COMPRESSED','OBJECT')), " +
+                "transcript TEXT NOT NULL, transcript_object_key varchar(255), PRIMARY KEY (id))");
+        jdbcTemplate.execute("CREATE INDEX idx_media_file_id ON transcription_results (media_file_id)");
+        jdbcTemplate.execute("CREATE INDEX idx_transcription_completed_at ON transcription_results (completed_at)");
+
+        for (long id = 1; id <= 3; id++) {
+            insertMediaFile(id, id < 3 ? "COMPLETED" : "UPLOADED");
+        }
+        jdbcTemplate.execute("SELECT setval('media_files_seq', 51)");
+        jdbcTemplate.update("INSERT INTO transcription_results (id, media_file_id, transcript, storage_tier, " +
+                "completed_at) VALUES (1, 1, 'first transcript', 'INLINE', ?), (2, 2, 'second transcript', " +
+                "'INLINE', ?)", LocalDateTime.of(2024, 1, 15, 10, 0), LocalDateTime.now().minusMinutes(5));
+    }
+
+    private void insertMediaFile(long id, String status) {
+        jdbcTemplate.update("INSERT INTO media_files (id, filename, original_filename, media_type, storage_url, " +
+                "file_size, content_type, status, uploaded_at, retry_count) " +
+                "VALUES (?, ?, ?, 'AUDIO', ?, 100, 'audio/mpeg', ?, now(), 0)",
+                id, id + ".mp3", "clip-" + id + ".mp3", "media/" + id + ".mp3", status);
+    }
+
+    private List<String> partitionsOf(String table) {
+        return partitionService.listPartitions(partitionService.findTable(table).orElseThrow()).stream()
+                .map(TablePartitionService.PartitionInfo::name)
+                .toList();
+    }
+
+    private List<String> indexesOf(String table) {
+        return jdbcTemplate.queryForList("SELECT indexname FROM pg_indexes WHERE schemaname = ? AND tablename = ?",
+                String.class, SCHEMA, table);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,190 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.service.TablePartitionService.PartitionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TablePartitionServiceTest {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final LocalDateTime thisMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+    private final LocalDateTime nextMonth = thisMonth.plusMonths(1);
+
+    private JdbcTemplate jdbcTemplate;
+    private TablePartitionService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new TablePartitionService(jdbcTemplate, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "premakeMonths", 1);
+    }
+
+    @Test
+    void parsesUpperBoundOfMonthlyAndLegacyPartitions() {
+        assertThat(TablePartitionService.upperBound(
+                "FOR VALUES FROM ('2025-10-01 00:00:00') TO ('2025-11-01 00:00:00')"))
+                .isEqualTo(LocalDateTime.of(2025, 11, 1, 0, 0));
+        assertThat(TablePartitionService.upperBound(
+                "FOR VALUES FROM (MINVALUE) TO ('2026-01-01 00:00:00')"))
+                .isEqualTo(LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+
+    @Test
+    void parsesUpperBoundOfIdRangePartitions() {
+        assertThat(TablePartitionService.upperBound(
+                "FOR VALUES FROM (2025120000000000) TO (2026010000000000)"))
+                .isEqualTo(LocalDateTime.of(2026, 1, 1, 0, 0));
+        // As pg_get_expr prints them
+        assertThat(TablePartitionService.upperBound(
+                "FOR VALUES FROM ('2025120000000000') TO ('2026010000000000')"))
+                .isEqualTo(LocalDateTime.of(2026, 1, 1, 0, 0));
+        assertThat(TablePartitionService.monthStartId(LocalDateTime.of(2025, 11, 1, 0, 0)))
+                .isEqualTo(2025110000000000L);
+    }
+
+    @Test
+    void treatsUnboundedPartitionsAsNeverExpiring() {
+        assertThat(TablePartitionService.upperBound("FOR VALUES FROM ('2025-10-01 00:00:00') TO (MAXVALUE)"))
+                .isNull();
+        assertThat(TablePartitionService.upperBound(null)).isNull();
+    }
+
+    @Test
+    void convertsMediaFilesToMonthlyIdRanges() {
+        long upper = TablePartitionService.monthStartId(nextMonth);
+        givenPlainTable("media_files", "CREATE INDEX idx_media_files_status ON public.media_files USING btree (status)");
+        givenPartitionedBy("transcription_results", "completed_at");
+        givenPartitions("media_files", new PartitionInfo("media_files", "media_files_legacy",
+                "FOR VALUES FROM (MINVALUE) TO (" + upper + ")", nextMonth, false, null, 0));
+        when(jdbcTemplate.queryForObject(contains("last_value"), eq(Long.class))).thenReturn(50L);
+
+        service.initialisePartitions();
+
+        assertThat(statementsOn("media_files")).containsExactly(
+                "ALTER TABLE media_files RENAME TO media_files_legacy",
+                "ALTER TABLE media_files_legacy RENAME CONSTRAINT media_files_pkey TO media_files_legacy_pkey",
+                "ALTER INDEX idx_media_files_status RENAME TO idx_media_files_status_legacy",
+                "CREATE TABLE media_files (LIKE media_files_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS "
+                        + "INCLUDING STORAGE) "
+                        + "PARTITION BY RANGE (id)",
+                "ALTER TABLE media_files ADD PRIMARY KEY (id)",
+                "CREATE INDEX idx_media_files_status ON public.media_files USING btree (status)",
+                "ALTER TABLE media_files_legacy ADD CONSTRAINT media_files_legacy_bound "
+                        + "CHECK (id IS NOT NULL AND id < " + upper + ")",
+                "ALTER TABLE media_files ATTACH PARTITION media_files_legacy FOR VALUES FROM (MINVALUE) TO (" + upper + ")",
+                "ALTER TABLE media_files_legacy DROP CONSTRAINT media_files_legacy_bound",
+                "CREATE TABLE IF NOT EXISTS media_files_p" + MONTH.format(nextMonth) + " PARTITION OF media_files "
+                        + "FOR VALUES FROM (" + upper + ") TO ("
+                        + TablePartitionService.monthStartId(nextMonth.plusMonths(1)) + ")");
+        // New ids start in this month's range, which the legacy partition still covers
+        verify(jdbcTemplate).queryForObject("SELECT setval(?, ?)", Long.class,
+                "media_files_seq", TablePartitionService.monthStartId(thisMonth));
+    }
+
+    @Test
+    void convertsTranscriptionResultsByCompletionTimeWithAKeyTable() {
+        String upper = "'" + nextMonth.toLocalDate() + " 00:00:00'";
+        givenPartitionedBy("media_files", "id");
+        givenPlainTable("transcription_results");
+        givenPartitions("transcription_results", new PartitionInfo("transcription_results",
+                "transcription_results_legacy", "FOR VALUES FROM (MINVALUE) TO (" + upper + ")",
+                nextMonth, false, null, 0));
+
+        service.initialisePartitions();
+
+        assertThat(statementsOn("transcription_result")).containsExactly(
+                "ALTER TABLE transcription_results RENAME TO transcription_results_legacy",
+                "ALTER TABLE transcription_results_legacy RENAME CONSTRAINT transcription_results_pkey "
+                        + "TO transcription_results_legacy_pkey",
+                "CREATE TABLE transcription_results (LIKE transcription_results_legacy INCLUDING DEFAULTS "
+                        + "INCLUDING CONSTRAINTS INCLUDING STORAGE) PARTITION BY RANGE (completed_at)",
+                "ALTER TABLE transcription_results ADD PRIMARY KEY (id, completed_at)",
+                "ALTER TABLE transcription_results_legacy DROP CONSTRAINT transcription_results_legacy_pkey, "
+                        + "ADD CONSTRAINT transcription_results_legacy_pkey PRIMARY KEY (id, completed_at)",
+                "ALTER TABLE transcription_results_legacy ADD CONSTRAINT transcription_results_legacy_bound "
+                        + "CHECK (completed_at IS NOT NULL AND completed_at < " + upper + ")",
+                "ALTER TABLE transcription_results ATTACH PARTITION transcription_results_legacy "
+                        + "FOR VALUES FROM (MINVALUE) TO (" + upper + ")",
+                "ALTER TABLE transcription_results_legacy DROP CONSTRAINT transcription_results_legacy_bound",
+                "CREATE TABLE transcription_result_keys (media_file_id bigint PRIMARY KEY)",
+                "INSERT INTO transcription_result_keys SELECT DISTINCT media_file_id FROM transcription_results "
+                        + "ON CONFLICT DO NOTHING",
+                "CREATE TABLE IF NOT EXISTS transcription_results_p" + MONTH.format(nextMonth)
+                        + " PARTITION OF transcription_results FOR VALUES FROM (" + upper + ") TO ('"
+                        + nextMonth.plusMonths(1).toLocalDate() + " 00:00:00')");
+    }
+
+    @Test
+    void neverMovesTheIdSequenceBack() {
+        givenPartitionedBy("media_files", "id");
+        givenPartitionedBy("transcription_results", "completed_at");
+        when(jdbcTemplate.queryForObject(contains("last_value"), eq(Long.class)))
+                .thenReturn(TablePartitionService.monthStartId(thisMonth) + 500);
+
+        service.createUpcomingPartitions();
+
+        verify(jdbcTemplate, never()).queryForObject(eq("SELECT setval(?, ?)"), eq(Long.class), any(), any());
+    }
+
+    @Test
+    void leavesTablesPartitionedByAnotherColumnAlone() {
+        givenPartitionedBy("media_files", "uploaded_at");
+        givenPartitionedBy("transcription_results", "completed_at");
+
+        service.createUpcomingPartitions();
+
+        assertThat(statementsOn("media_files")).isEmpty();
+        verify(jdbcTemplate, never()).queryForObject(contains("last_value"), eq(Long.class));
+    }
+
+    private void givenPlainTable(String table, String... indexDefinitions) {
+        when(jdbcTemplate.queryForObject(contains("relkind = 'p'"), eq(Boolean.class), eq(table))).thenReturn(false);
+        when(jdbcTemplate.queryForList(contains("pg_get_indexdef"), eq(table))).thenReturn(
+                List.of(indexDefinitions).stream()
+                        .map(definition -> Map.<String, Object>of("name", definition.split(" ")[2],
+                                "definition", definition))
+                        .toList());
+        when(jdbcTemplate.queryForList(contains("contype = 'p'"), eq(String.class), eq(table)))
+                .thenReturn(List.of(table + "_pkey"));
+    }
+
+    private void givenPartitionedBy(String table, String column) {
+        when(jdbcTemplate.queryForObject(contains("relkind = 'p'"), eq(Boolean.class), eq(table))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(contains("attname"), eq(String.class), eq(table))).thenReturn(column);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenPartitions(String table, PartitionInfo... partitions) {
+        when(jdbcTemplate.query(contains("pg_inherits"), any(RowMapper.class), eq(table)))
+                .thenReturn(List.of(partitions));
+    }
+
+    private List<String> statementsOn(String table) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sql.capture());
+        return sql.getAllValues().stream().filter(statement -> statement.contains(table)).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptNegativeCache.Miss;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TranscriptNegativeCacheTest {
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private SimpleMeterRegistry meterRegistry;
+    private TranscriptNegativeCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.get(anyString())).thenAnswer(call -> redis.get(call.<String>getArgument(0)));
+        doAnswer(call -> redis.put(call.getArgument(0), call.getArgument(1)))
+                .when(values).set(anyString(), anyString(), any(Duration.class));
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(call -> redis.putIfAbsent(call.getArgument(0), call.getArgument(1)) == null);
+
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TranscriptNegativeCache(redisTemplate, meterRegistry);
+        ReflectionTestUtils.setField(cache, "notFoundTtlSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "inProgressTtlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "writeGuardMs", 5_000L);
+    }
+
+    @Test
+    void answersRepeatedLookupsFromTheRecordedMiss() {
+        cache.record(9L, Miss.IN_PROGRESS);
+
+        assertThat(cache.find(9L)).contains(Miss.IN_PROGRESS);
+        assertThat(cache.find(9L)).contains(Miss.IN_PROGRESS);
+        assertThat(meterRegistry.get("transcript.lookup.negative")
+                .tags("kind", "in_progress", "result", "hit").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void writtenResultClearsTheMissAndBlocksAStaleOne() {
+        cache.record(9L, Miss.IN_PROGRESS);
+
+        cache.invalidate(9L);
+        // A lookup that read the database just before the write finishes afterwards
+        cache.record(9L, Miss.IN_PROGRESS);
+
+        assertThat(cache.find(9L)).isEmpty();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptSearchResponse.Highlight;
+import com.ahmedaziz.mediatranscriptionplatform.dto.TranscriptSearchResponse.Hit;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptSearchRepository;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionResultRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TranscriptSearchServiceTest {
+
+    @Test
+    void convertsHeadlineMarkersToHighlightOffsets() {
+        Hit.HitBuilder builder = Hit.builder();
+
+        TranscriptSearchService.parseHeadline(
+                "the \u0002budget\u0003 was approved ... next \u0002budgets\u0003 review", builder);
+
+        Hit hit = builder.build();
+        assertThat(hit.getSnippet()).isEqualTo("the budget was approved ... next budgets review");
+        assertThat(hit.getHighlights()).containsExactly(new Highlight(4, 10), new Highlight(33, 40));
+        assertThat(hit.getSnippet().substring(33, 40)).isEqualTo("budgets");
+    }
+
+    @Test
+    void ignoresUnbalancedMarkers() {
+        Hit.HitBuilder builder = Hit.builder();
+
+        TranscriptSearchService.parseHeadline("no match\u0003 here", builder);
+
+        Hit hit = builder.build();
+        assertThat(hit.getSnippet()).isEqualTo("no match here");
+        assertThat(hit.getHighlights()).isEmpty();
+    }
+
+    @Test
+    void backfillSkipsTranscriptsThatCannotBeReadAndMovesOn() {
+        TranscriptSearchRepository searchRepository = mock(TranscriptSearchRepository.class);
+        TranscriptionResultRepository resultRepository = mock(TranscriptionResultRepository.class);
+        TranscriptStorageService storageService = mock(TranscriptStorageService.class);
+        TranscriptSearchService service = new TranscriptSearchService(searchRepository, resultRepository,
+                storageService, mock(JdbcTemplate.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "maxIndexedChars", 500_000);
+        TranscriptionResult missing = TranscriptionResult.builder().id(1L).language("en").build();
+        TranscriptionResult readable = TranscriptionResult.builder().id(2L).language("en").build();
+        when(searchRepository.findIdsWithoutSearchVector(0L, 200)).thenReturn(List.of(1L, 2L));
+        when(searchRepository.findIdsWithoutSearchVector(2L, 200)).thenReturn(List.of());
+        when(resultRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(missing, readable));
+        when(storageService.readTranscript(missing)).thenThrow(new IllegalStateException("object not found"));
+        when(storageService.readTranscript(readable)).thenReturn("the budget was approved");
+
+        service.backfillSearchIndex();
+
+        verify(searchRepository).updateSearchVector(2L, "english", "the budget was approved");
+        verify(searchRepository, never()).updateSearchVector(eq(1L), anyString(), anyString());
+        // The unreadable row is not asked for again in this run
+        verify(searchRepository).findIdsWithoutSearchVector(0L, 200);
+        verify(searchRepository).findIdsWithoutSearchVector(2L, 200);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult.StorageTier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TranscriptStorageServiceTest {
+
+    private MediaStorage mediaStorage;
+    private TranscriptStorageService storageService;
+
+    @BeforeEach
+    void setUp() {
+        mediaStorage = mock(MediaStorage.class);
+        storageService = new TranscriptStorageService(mediaStorage, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(storageService, "compressThresholdBytes", 100);
+        ReflectionTestUtils.setField(storageService, "offloadThresholdBytes", 10_000);
+    }
+
+    @Test
+    void keepsShortTranscriptsInline() throws Exception {
+        TranscriptionResult result = TranscriptionResult.builder().mediaFileId(1L).build();
+
+        storageService.storeTranscript(result, "hello world");
+
+        assertThat(result.getStorageTier()).isEqualTo(StorageTier.INLINE);
+        assertThat(result.getTranscript()).isEqualTo("hello world");
+        assertThat(result.getWordCount()).isEqualTo(2);
+        assertThat(storageService.readTranscript(result)).isEqualTo("hello world");
+    }
+
+    @Test
+    void compressesMediumTranscriptsIntoTheRow() throws Exception {
+        String text = "the quick brown fox jumps over the lazy dog ".repeat(20);
+        TranscriptionResult result = TranscriptionResult.builder().mediaFileId(2L).build();
+
+        storageService.storeTranscript(result, text);
+
+        assertThat(result.getStorageTier()).isEqualTo(StorageTier.COMPRESSED);
+        assertThat(result.getTranscript()).isEmpty();
+        assertThat(result.getTranscriptCompressed().length).isLessThan(text.length());
+        assertThat(storageService.readTranscript(result)).isEqualTo(text);
+        verifyNoInteractions(mediaStorage);
+    }
+
+    @Test
+    void offloadsLargeTranscriptsToObjectStorage() throws Exception {
+        String text = "transcribed sentence number ".repeat(1_000);
+        TranscriptionResult result = TranscriptionResult.builder().mediaFileId(3L).build();
+
+        storageService.storeTranscript(result, text);
+
+        ArgumentCaptor<byte[]> uploaded = ArgumentCaptor.forClass(byte[].class);
+        verify(mediaStorage).uploadBytes(eq(result.getTranscriptObjectKey()), uploaded.capture(), anyString());
+        assertThat(result.getStorageTier()).isEqualTo(StorageTier.OBJECT);
+        assertThat(result.getTranscriptCompressed()).isNull();
+
+        when(mediaStorage.downloadFileAsBytes(result.getTranscriptObjectKey()))
+                .thenReturn(uploaded.getValue());
+        assertThat(storageService.readTranscript(result)).isEqualTo(text);
+    }
+
+    @Test
+    void deletesTheUploadedObjectWhenTheTransactionRollsBack() throws Exception {
+        String text = "transcribed sentence number ".repeat(1_000);
+        TranscriptionResult result = TranscriptionResult.builder().mediaFileId(4L).build();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            storageService.storeTranscript(result, text);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(mediaStorage).deleteFile(result.getTranscriptObjectKey());
+    }
+
+    @Test
+    void cachesCompressedTranscriptsInflatedWithoutTheirBytes() throws Exception {
+        String text = "the quick brown fox jumps over the lazy dog ".repeat(20);
+        TranscriptionResult result = TranscriptionResult.builder().id(9L).mediaFileId(5L).build();
+        storageService.storeTranscript(result, text);
+
+        TranscriptionResult cached = storageService.cacheableCopy(result);
+
+        assertThat(cached).isNotSameAs(result);
+        assertThat(cached.getTranscriptCompressed()).isNull();
+        assertThat(cached.getTranscript()).isEqualTo(text);
+        assertThat(cached.getId()).isEqualTo(9L);
+        assertThat(storageService.readTranscript(cached)).isEqualTo(text);
+        assertThat(result.getTranscriptCompressed()).isNotNull();
+    }
+
+    @Test
+    void readsLegacyRowsWithoutTier() {
+        TranscriptionResult legacy = TranscriptionResult.builder().transcript("old text").build();
+
+        assertThat(storageService.readTranscript(legacy)).isEqualTo("old text");
+    }
+}
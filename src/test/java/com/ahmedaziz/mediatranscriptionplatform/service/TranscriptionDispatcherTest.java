@@ -0,0 +1,89 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.MediaFile;
+import com.ahmedaziz.mediatranscriptionplatform.exception.BackpressureException;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionDispatcher.DispatchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TranscriptionDispatcherTest {
+
+    // Jobs stay in flight until the test completes them
+    private final List<CompletableFuture<Void>> submitted = new ArrayList<>();
+    private MediaFileRepository mediaFileRepository;
+    private TranscriptionProcessingService processingService;
+    private TranscriptionDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        mediaFileRepository = mock(MediaFileRepository.class);
+        processingService = mock(TranscriptionProcessingService.class);
+        when(mediaFileRepository.markQueued(anyLong())).thenReturn(1);
+        when(mediaFileRepository.countByStatus(any())).thenReturn(0L);
+        when(processingService.processTranscription(anyLong())).thenAnswer(call -> {
+            CompletableFuture<Void> job = new CompletableFuture<>();
+            submitted.add(job);
+            return job;
+        });
+
+        dispatcher = new TranscriptionDispatcher(mediaFileRepository, processingService,
+                mock(MediaStatusService.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "capacity", 2);
+        ReflectionTestUtils.setField(dispatcher, "resumeRatio", 0.5);
+        ReflectionTestUtils.setField(dispatcher, "maxBacklog", 3L);
+        ReflectionTestUtils.setField(dispatcher, "retryAfterSeconds", 30L);
+    }
+
+    @Test
+    void spillsToTheQueuedRowsWhenFullAndDrainsThemLater() {
+        assertThat(dispatcher.dispatch(1L)).isEqualTo(DispatchResult.DISPATCHED);
+        assertThat(dispatcher.dispatch(2L)).isEqualTo(DispatchResult.DISPATCHED);
+        assertThat(dispatcher.dispatch(3L)).isEqualTo(DispatchResult.SPILLED);
+        verify(mediaFileRepository).markQueued(3L);
+        assertThat(dispatcher.hasHeadroom()).isFalse();
+
+        completeSubmitted();
+        assertThat(dispatcher.hasHeadroom()).isTrue();
+
+        when(mediaFileRepository.countByStatus(MediaFile.ProcessingStatus.QUEUED)).thenReturn(1L);
+        when(mediaFileRepository.findIdsByStatus(eq(MediaFile.ProcessingStatus.QUEUED), any(Limit.class)))
+                .thenReturn(List.of(3L));
+        dispatcher.drainQueued();
+        completeSubmitted();
+
+        verify(processingService).processTranscription(1L);
+        verify(processingService).processTranscription(2L);
+        verify(processingService).processTranscription(3L);
+    }
+
+    @Test
+    void refusesUploadsOnceTheBacklogIsFull() {
+        when(mediaFileRepository.countByStatus(MediaFile.ProcessingStatus.UPLOADED)).thenReturn(3L);
+        dispatcher.drainQueued();
+
+        assertThatThrownBy(dispatcher::checkAdmission)
+                .isInstanceOf(BackpressureException.class)
+                .extracting("retryAfterSeconds").isEqualTo(30L);
+    }
+
+    private void completeSubmitted() {
+        List<CompletableFuture<Void>> jobs = new ArrayList<>(submitted);
+        submitted.clear();
+        jobs.forEach(job -> job.complete(null));
+    }
+}
@@ -0,0 +1,72 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.pipeline.TranscriptionPipeline;
+import com.ahmedaziz.mediatranscriptionplatform.repository.MediaFileRepository;
+import com.ahmedaziz.mediatranscriptionplatform.service.kafka.KafkaProducerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TranscriptionProcessingServiceTest {
+
+    private MediaFileRepository mediaFileRepository;
+    private MediaStatusService mediaStatusService;
+    private KafkaProducerService kafkaProducerService;
+    private TranscriptionProcessingService service;
+
+    @BeforeEach
+    void setUp() {
+        mediaFileRepository = mock(MediaFileRepository.class);
+        mediaStatusService = mock(MediaStatusService.class);
+        kafkaProducerService = mock(KafkaProducerService.class);
+        service = new TranscriptionProcessingService(mediaFileRepository, kafkaProducerService,
+                mediaStatusService, mock(TranscriptionPipeline.class));
+        ReflectionTestUtils.setField(service, "maxRetries", 3);
+        ReflectionTestUtils.setField(service, "staleTimeoutMinutes", 60L);
+        ReflectionTestUtils.setField(service, "staleBatchSize", 100);
+    }
+
+    @Test
+    void retriesFilesStuckInProcessing() {
+        when(mediaFileRepository.findIdsProcessingSince(any(), eq(Limit.of(100)))).thenReturn(List.of(5L, 6L));
+        when(mediaFileRepository.requeueForRetry(eq(5L), anyString(), eq(3))).thenReturn(1);
+        LocalDateTime before = LocalDateTime.now().minusMinutes(60);
+
+        // File 6 finished in the meantime, so neither guarded update matches it
+        service.requeueStaleJobs();
+
+        verify(mediaFileRepository).findIdsProcessingSince(
+                argThat(startedBefore -> !startedBefore.isBefore(before)),
+                eq(Limit.of(100)));
+        verify(mediaFileRepository).requeueForRetry(5L, "Processing did not finish within 60 minutes", 3);
+        verify(mediaStatusService).onTransition(5L);
+        verify(mediaStatusService, never()).onTransition(6L);
+        verify(kafkaProducerService, never()).sendTranscriptionCompletedEvent(any());
+    }
+
+    @Test
+    void failsStuckFilesThatHaveNoRetriesLeft() {
+        when(mediaFileRepository.findIdsProcessingSince(any(), any())).thenReturn(List.of(7L));
+        when(mediaFileRepository.markFailedIfRetriesExhausted(eq(7L), anyString(), any(), eq(3))).thenReturn(1);
+
+        service.requeueStaleJobs();
+
+        verify(mediaFileRepository, never()).requeueForRetry(any(), anyString(), eq(3));
+        verify(kafkaProducerService).sendTranscriptionCompletedEvent(
+                argThat(event -> event.getMediaFileId() == 7L
+                        && "FAILED".equals(event.getStatus())));
+    }
+}
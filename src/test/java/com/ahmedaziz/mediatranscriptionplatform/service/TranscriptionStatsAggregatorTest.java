@@ -0,0 +1,127 @@
+package com.ahmedaziz.mediatranscriptionplatform.service;
+
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionResult;
+import com.ahmedaziz.mediatranscriptionplatform.domain.entity.TranscriptionStatsRollup;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionResultRepository;
+import com.ahmedaziz.mediatranscriptionplatform.repository.TranscriptionStatsRollupRepository;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionStatsAggregator.Accumulator;
+import com.ahmedaziz.mediatranscriptionplatform.service.TranscriptionStatsAggregator.StatsSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TranscriptionStatsAggregatorTest {
+
+    @Test
+    void mergesSuccessiveFlushesIntoTheSameRow() {
+        TranscriptionStatsRollup row = TranscriptionStatsRollup.builder()
+                .bucketDate(LocalDate.of(2025, 10, 18))
+                .language("en")
+                .build();
+
+        Accumulator first = new Accumulator();
+        for (long ms = 1; ms <= 50; ms++) {
+            first.add(ms * 100, 0.8);
+        }
+        first.applyTo(row);
+
+        Accumulator second = new Accumulator();
+        for (long ms = 51; ms <= 100; ms++) {
+            second.add(ms * 100, 1.0);
+        }
+        second.add(null, null);
+        second.applyTo(row);
+
+        StatsSnapshot snapshot = StatsSnapshot.of(row);
+        assertThat(snapshot.transcriptionCount()).isEqualTo(101);
+        assertThat(snapshot.averageConfidence()).isCloseTo(0.9, within(1e-9));
+        assertThat(snapshot.p50ProcessingTimeMs()).isCloseTo(5_000L, within(100L));
+        assertThat(snapshot.p99ProcessingTimeMs()).isCloseTo(9_900L, within(100L));
+    }
+
+    @Test
+    void subtractsDeletedTranscriptionsFromTheRow() {
+        TranscriptionStatsRollup row = TranscriptionStatsRollup.builder()
+                .bucketDate(LocalDate.of(2025, 10, 18))
+                .language("en")
+                .build();
+        Accumulator completed = new Accumulator();
+        completed.add(1_000L, 0.6);
+        completed.add(2_000L, 0.8);
+        completed.add(90_000L, 1.0);
+        completed.applyTo(row);
+
+        Accumulator deleted = new Accumulator();
+        deleted.remove(90_000L, 1.0);
+        deleted.applyTo(row);
+
+        StatsSnapshot snapshot = StatsSnapshot.of(row);
+        assertThat(snapshot.transcriptionCount()).isEqualTo(2);
+        assertThat(snapshot.averageProcessingTimeMs()).isEqualTo(1_500L);
+        assertThat(snapshot.averageConfidence()).isCloseTo(0.7, within(1e-9));
+        assertThat(snapshot.p99ProcessingTimeMs()).isCloseTo(2_000L, within(20L));
+    }
+
+    @Test
+    void reportsRollupBucketsWithoutPlaceholderKeys() {
+        TranscriptionStatsRollup global = TranscriptionStatsRollup.builder()
+                .bucketDate(TranscriptionStatsRollup.ALL_TIME)
+                .language(TranscriptionStatsRollup.ALL_LANGUAGES)
+                .build();
+
+        StatsSnapshot snapshot = StatsSnapshot.of(global);
+
+        assertThat(snapshot.day()).isNull();
+        assertThat(snapshot.language()).isNull();
+        assertThat(snapshot.transcriptionCount()).isZero();
+        assertThat(snapshot.averageProcessingTimeMs()).isZero();
+    }
+
+    @Test
+    void countsOnlyLiveResultsAtOrAfterTheBackfillCutoff() {
+        LocalDateTime cutoff = LocalDateTime.of(2025, 10, 18, 12, 0);
+        Map<String, TranscriptionStatsRollup> rows = new HashMap<>();
+        TranscriptionStatsRollupRepository rollupRepository = mock(TranscriptionStatsRollupRepository.class);
+        when(rollupRepository.findByBucketDateAndLanguage(any(), any()))
+                .thenAnswer(call -> Optional.of(row(rows, call.getArgument(0), call.getArgument(1))));
+        when(rollupRepository.findForUpdate(any(), any()))
+                .thenAnswer(call -> Optional.of(row(rows, call.getArgument(0), call.getArgument(1))));
+        TranscriptionResultRepository resultRepository = mock(TranscriptionResultRepository.class);
+        when(resultRepository.streamStatsSamples(any())).thenReturn(Stream.empty());
+        TranscriptionStatsAggregator aggregator = new TranscriptionStatsAggregator(
+                rollupRepository, resultRepository, mock(PlatformTransactionManager.class));
+
+        // Recorded before this node has read the cutoff; another node already set it
+        aggregator.record(result(cutoff.minusSeconds(1)));
+        aggregator.record(result(cutoff));
+        row(rows, TranscriptionStatsRollup.ALL_TIME, TranscriptionStatsRollup.ALL_LANGUAGES).setBackfillCutoff(cutoff);
+        aggregator.flush();
+        aggregator.record(result(cutoff.minusMinutes(5)));
+        aggregator.record(result(cutoff.plusMinutes(5)));
+        aggregator.flush();
+
+        assertThat(aggregator.getOverall().orElseThrow().transcriptionCount()).isEqualTo(2);
+    }
+
+    private static TranscriptionResult result(LocalDateTime completedAt) {
+        return TranscriptionResult.builder().completedAt(completedAt).language("en").processingTimeMs(100L).build();
+    }
+
+    private static TranscriptionStatsRollup row(Map<String, TranscriptionStatsRollup> rows,
+                                                LocalDate day, String language) {
+        return rows.computeIfAbsent(day + "/" + language,
+                key -> TranscriptionStatsRollup.builder().bucketDate(day).language(language).build());
+    }
+}
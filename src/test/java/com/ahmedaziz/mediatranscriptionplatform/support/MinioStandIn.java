@@ -0,0 +1,300 @@
+package com.ahmedaziz.mediatranscriptionplatform.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.minio.MinioClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-process HTTP server that answers the S3 calls {@link MinioClient} makes for a single
+ * existing bucket: object PUT (single or multipart), HEAD (with user metadata), GET with
+ * {@code Range} and {@code If-Match}, DELETE, and ListObjectsV2. Each response can be throttled to a fixed rate to
+ * stand in for a single connection's throughput, and ranged responses can be cut off halfway to
+ * exercise retries.
+ */
+public class MinioStandIn implements AutoCloseable {
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+    private static final String LAST_MODIFIED = "Mon, 01 Jan 2024 00:00:00 GMT";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> metadata = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final AtomicInteger getRequests = new AtomicInteger();
+    private final AtomicInteger truncations = new AtomicInteger();
+    private volatile long bytesPerSecond;
+
+    public MinioStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public MinioClient client() {
+        return MinioClient.builder()
+                .endpoint("http://127.0.0.1:" + server.getAddress().getPort())
+                .credentials("stand-in", "stand-in")
+                .region("us-east-1")
+                .build();
+    }
+
+    public void putObject(String bucket, String object, byte[] data) {
+        objects.put("/" + bucket + "/" + object, data);
+    }
+
+    /** Caps each response at this rate; 0 for no limit. */
+    public void throttle(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /** Cuts off the next {@code count} ranged responses that do not start at byte 0. */
+    public void truncateNextRanges(int count) {
+        truncations.set(count);
+    }
+
+    public int getRequests() {
+        return getRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if ("HEAD".equals(method)) {
+                // The JDK server drops the connection after a HEAD; tell the client not to reuse it
+                exchange.getResponseHeaders().set("Connection", "close");
+            }
+            if (path.indexOf('/', 1) < 0) {
+                bucket(exchange, path.substring(1));
+                return;
+            }
+            Map<String, String> query = query(exchange);
+            if (query.containsKey("uploads") || query.containsKey("uploadId")) {
+                multipart(exchange, path, query);
+                return;
+            }
+            if ("PUT".equals(method)) {
+                objects.put(path, exchange.getRequestBody().readAllBytes());
+                metadata.put(path, userMetadata(exchange));
+                exchange.getResponseHeaders().set("ETag", etag(objects.get(path)));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            if ("DELETE".equals(method)) {
+                objects.remove(path);
+                metadata.remove(path);
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+
+            byte[] data = objects.get(path);
+            if (data == null) {
+                error(exchange, 404, "NoSuchKey");
+                return;
+            }
+            String etag = etag(data);
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            metadata.getOrDefault(path, Map.of())
+                    .forEach((key, value) -> exchange.getResponseHeaders().set("x-amz-meta-" + key, value));
+
+            if ("HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(data.length));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            getRequests.incrementAndGet();
+            String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+            // Like MinIO, compare ETags with or without quotes
+            if (ifMatch != null && !ifMatch.replace("\"", "").equals(etag.replace("\"", ""))) {
+                error(exchange, 412, "PreconditionFailed");
+                return;
+            }
+
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if (range == null) {
+                exchange.sendResponseHeaders(200, data.length);
+                write(exchange.getResponseBody(), data, 0, data.length);
+                return;
+            }
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            long start = Long.parseLong(bounds[0]);
+            if (start >= data.length) {
+                error(exchange, 416, "InvalidRange");
+                return;
+            }
+            long end = bounds[1].isEmpty() ? data.length - 1 : Math.min(Long.parseLong(bounds[1]), data.length - 1);
+            int length = (int) (end - start + 1);
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + data.length);
+            exchange.sendResponseHeaders(206, length);
+            if (start > 0 && truncations.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                // Declared the full length; closing early looks like a dropped connection
+                write(exchange.getResponseBody(), data, (int) start, length / 2);
+                return;
+            }
+            write(exchange.getResponseBody(), data, (int) start, length);
+        } catch (IOException e) {
+            // The client hung up or the response was cut off on purpose
+        }
+    }
+
+    // HEAD answers that every bucket exists; GET lists it (ListObjectsV2, one page)
+    private void bucket(HttpExchange exchange, String bucket) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Content-Length", "0");
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        String prefix = query(exchange).getOrDefault("prefix", "");
+        StringBuilder contents = new StringBuilder();
+        int count = 0;
+        for (String path : new TreeSet<>(objects.keySet())) {
+            String key = path.substring(bucket.length() + 2);
+            if (path.startsWith("/" + bucket + "/") && key.startsWith(prefix)) {
+                count++;
+                contents.append("<Contents><Key>").append(key).append("</Key>")
+                        .append("<LastModified>2024-01-01T00:00:00.000Z</LastModified>")
+                        .append("<ETag>").append(etag(objects.get(path))).append("</ETag>")
+                        .append("<Size>").append(objects.get(path).length).append("</Size>")
+                        .append("<StorageClass>STANDARD</StorageClass></Contents>");
+            }
+        }
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                + "<Name>" + bucket + "</Name><Prefix>" + prefix + "</Prefix><KeyCount>" + count + "</KeyCount>"
+                + "<MaxKeys>1000</MaxKeys><IsTruncated>false</IsTruncated>" + contents + "</ListBucketResult>")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    // Create (POST ?uploads), upload part (PUT ?partNumber&uploadId), complete (POST ?uploadId), abort
+    private void multipart(HttpExchange exchange, String path, Map<String, String> query) throws IOException {
+        String method = exchange.getRequestMethod();
+        String key = path.substring(path.indexOf('/', 1) + 1);
+        if (query.containsKey("uploads")) {
+            String uploadId = UUID.randomUUID().toString();
+            uploads.put(uploadId, new ConcurrentHashMap<>());
+            metadata.put(uploadId, userMetadata(exchange));
+            xml(exchange, "<InitiateMultipartUploadResult><Bucket>" + path.substring(1, path.indexOf('/', 1))
+                    + "</Bucket><Key>" + key + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            return;
+        }
+        String uploadId = query.get("uploadId");
+        if ("PUT".equals(method)) {
+            byte[] part = exchange.getRequestBody().readAllBytes();
+            uploads.get(uploadId).put(Integer.parseInt(query.get("partNumber")), part);
+            exchange.getResponseHeaders().set("ETag", etag(part));
+            exchange.sendResponseHeaders(200, -1);
+        } else if ("POST".equals(method)) {
+            exchange.getRequestBody().readAllBytes();
+            ByteArrayOutputStream object = new ByteArrayOutputStream();
+            for (byte[] part : new TreeMap<>(uploads.remove(uploadId)).values()) {
+                object.write(part);
+            }
+            objects.put(path, object.toByteArray());
+            metadata.put(path, metadata.remove(uploadId));
+            xml(exchange, "<CompleteMultipartUploadResult><Key>" + key + "</Key><ETag>" + etag(objects.get(path))
+                    + "</ETag></CompleteMultipartUploadResult>");
+        } else {
+            uploads.remove(uploadId);
+            metadata.remove(uploadId);
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    private static Map<String, String> userMetadata(HttpExchange exchange) {
+        Map<String, String> userMetadata = new ConcurrentHashMap<>();
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (name.toLowerCase().startsWith("x-amz-meta-")) {
+                userMetadata.put(name.substring("x-amz-meta-".length()).toLowerCase(), values.get(0));
+            }
+        });
+        return userMetadata;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getQuery();
+        for (String parameter : query == null ? new String[0] : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            parameters.put(equals < 0 ? parameter : parameter.substring(0, equals),
+                    equals < 0 ? "" : parameter.substring(equals + 1));
+        }
+        return parameters;
+    }
+
+    private static void xml(HttpExchange exchange, String document) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + document).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static String etag(byte[] data) {
+        return "\"" + Integer.toHexString(Arrays.hashCode(data)) + "\"";
+    }
+
+    private void write(OutputStream out, byte[] data, int offset, int length) throws IOException {
+        long started = System.nanoTime();
+        long rate = bytesPerSecond;
+        for (int sent = 0; sent < length; ) {
+            int chunk = Math.min(CHUNK_BYTES, length - sent);
+            out.write(data, offset + sent, chunk);
+            sent += chunk;
+            if (rate > 0) {
+                long dueNanos = sent * 1_000_000_000L / rate;
+                long aheadNanos = dueNanos - (System.nanoTime() - started);
+                if (aheadNanos > 0) {
+                    try {
+                        Thread.sleep(aheadNanos / 1_000_000, (int) (aheadNanos % 1_000_000));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted", e);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String code) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>" + code + "</Code>"
+                + "<Message>" + code + "</Message><Resource>" + exchange.getRequestURI().getPath() + "</Resource>"
+                + "<RequestId>stand-in</RequestId><HostId>stand-in</HostId></Error>")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}